@@ -0,0 +1,96 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import java.util.Random;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 20:30
+ * Description: 基准测试使用的svg路径字符串，从小图标到几MB的大路径。
+ *
+ *  1、图标来自Material Design图标和demo中的svg，改写为分隔符完整的写法；
+ *     另外保留一个压缩工具输出的原始写法（省略分隔符），用于比较两种写法的解析开销；
+ *  2、大路径按固定的随机种子生成，包含所有锚点符（椭圆弧除外）和相对位置，多次运行的数据完全一致；
+ */
+final class SvgCorpus {
+
+    /** Material Design check */
+    static final String ICON_CHECK = "ICON_CHECK";
+
+    /** Material Design home */
+    static final String ICON_HOME = "ICON_HOME";
+
+    /** Material Design favorite */
+    static final String ICON_FAVORITE = "ICON_FAVORITE";
+
+    /** Material Design favorite的原始压缩写法 */
+    static final String ICON_FAVORITE_MINIFIED = "ICON_FAVORITE_MINIFIED";
+
+    /** demo中的svg_heart */
+    static final String DEMO_HEART = "DEMO_HEART";
+
+    /** 约100KB的生成路径 */
+    static final String GENERATED_100K = "GENERATED_100K";
+
+    /** 约4MB的生成路径 */
+    static final String GENERATED_4M = "GENERATED_4M";
+
+    private static final long SEED = 0x5EED5EEDL;
+
+    private SvgCorpus() {
+    }
+
+    static String get(String name) {
+        switch (name) {
+            case ICON_CHECK:
+                return "M9,16.17 L4.83,12 l-1.42,1.41 L9,19 L21,7 l-1.41,-1.41 z";
+            case ICON_HOME:
+                return "M10,20 v-6 h4 v6 h5 v-8 h3 L12,3 L2,12 h3 v8 z";
+            case ICON_FAVORITE:
+                return "M12,21.35 l-1.45,-1.32 C5.4,15.36 2,12.28 2,8.5 C2,5.42 4.42,3 7.5,3 c1.74,0 3.41,0.81 4.5,2.09 "
+                        + "C13.09,3.81 14.76,3 16.5,3 C19.58,3 22,5.42 22,8.5 c0,3.78 -3.4,6.86 -8.55,11.54 L12,21.35 z";
+            case ICON_FAVORITE_MINIFIED:
+                return "M12 21.35l-1.45-1.32C5.4 15.36 2 12.28 2 8.5 2 5.42 4.42 3 7.5 3c1.74 0 3.41.81 4.5 2.09"
+                        + "C13.09 3.81 14.76 3 16.5 3 19.58 3 22 5.42 22 8.5c0 3.78-3.4 6.86-8.55 11.54L12 21.35z";
+            case DEMO_HEART:
+                return "M0,0 L0,0 L0,0 L0,0 L0,0 L0,0 L0,0 L0,0 c-19.55,0,-38.3,12.68,-45,30 c-6.7,-17.32,-25.47,-30,-45,-30 "
+                        + "C-115.43,0,-135,19.32,-135,45 c0,35.3,37.93,62.57,90,115 c52.07,-52.42,90,-79.7,90,-115 C45,19.32,25.43,0,0,0z";
+            case GENERATED_100K:
+                return generate(100 * 1024);
+            case GENERATED_4M:
+                return generate(4 * 1024 * 1024);
+            default:
+                throw new IllegalArgumentException("unknown corpus: " + name);
+        }
+    }
+
+    /**
+     * 生成指定长度左右的路径字符串，由多个子路径组成，每个子路径约30段
+     */
+    static String generate(int length) {
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder(length + 256);
+        while (sb.length() < length) {
+            sb.append('M');
+            appendValues(sb, random, 2, 1000f);
+            int segments = 10 + random.nextInt(40);
+            for (int i = 0; i < segments; i++) {
+                char anchor = "LlHhVvCcSsQqTt".charAt(random.nextInt(14));
+                sb.append(' ').append(anchor);
+                appendValues(sb, random, SvgPathData.getAnchorParamNum(anchor), anchor < 'a' ? 1000f : 50f);
+            }
+            sb.append(random.nextBoolean() ? " Z " : " ");
+        }
+        return sb.toString();
+    }
+
+    private static void appendValues(StringBuilder sb, Random random, int count, float range) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            //保留2位小数，和常见的导出工具一致
+            float value = Math.round((random.nextFloat() * 2f - 1f) * range * 100f) / 100f;
+            sb.append(value);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 20:30
+ * Description: 解析svg字符串的基准测试，覆盖字符串、规范化、流式和只校验四种入口。
+ *  同时输出吞吐量和单次调用的延迟分位数（SampleTime），分配速率由gc profiler给出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SvgParserBenchmark {
+
+    @Param({SvgCorpus.ICON_CHECK, SvgCorpus.ICON_HOME, SvgCorpus.ICON_FAVORITE,
+            SvgCorpus.ICON_FAVORITE_MINIFIED, SvgCorpus.DEMO_HEART,
+            SvgCorpus.GENERATED_100K, SvgCorpus.GENERATED_4M})
+    public String corpus;
+
+    private String mSvg;
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    private final SvgDataParser mNormalizeParser = new SvgDataParser(true);
+
+    private final SvgPathValidation mValidation = new SvgPathValidation();
+
+    @Setup
+    public void setup() {
+        mSvg = SvgCorpus.get(corpus);
+        //语料本身有问题时立即失败，而不是测出一个很快的null
+        if (mParser.svgString2Data(mSvg) == null) {
+            throw new IllegalStateException("corpus can not be parsed: " + corpus);
+        }
+    }
+
+    @Benchmark
+    public SvgPathData svgString2Data() {
+        return mParser.svgString2Data(mSvg);
+    }
+
+    @Benchmark
+    public SvgPathData svgString2DataNormalized() {
+        return mNormalizeParser.svgString2Data(mSvg);
+    }
+
+    @Benchmark
+    public SvgPathData svgReader2Data() throws IOException {
+        return mParser.svgReader2Data(new StringReader(mSvg));
+    }
+
+    /** 复用结果对象，分配速率应该为0 */
+    @Benchmark
+    public boolean validate() {
+        return mParser.validate(mSvg, mValidation);
+    }
+}
@@ -0,0 +1,83 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import com.qxtx.idea.ideasvg.tools.DeepCopy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 20:30
+ * Description: 解析之后的数据集操作的基准测试：规范化、值数组复制和写回字符串。
+ *
+ *  android.graphics.Path由native实现，不能在JVM上运行，因此生成路径只测量
+ *  {@link SvgDataParser#createSvgPath(SvgPathData, float[])}中在Java层完成的规范化部分，
+ *  Path本身的开销需要在真机上测量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SvgPathDataBenchmark {
+
+    @Param({SvgCorpus.ICON_FAVORITE, SvgCorpus.DEMO_HEART, SvgCorpus.GENERATED_100K, SvgCorpus.GENERATED_4M})
+    public String corpus;
+
+    private SvgPathData mData;
+
+    /** 缩放动画中每一帧使用的值数组 */
+    private float[] mFrameCoords;
+
+    private final SvgPathWriter mWriter = new SvgPathWriter();
+
+    private final StringBuilder mOut = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        mData = new SvgDataParser().svgString2Data(SvgCorpus.get(corpus));
+        mFrameCoords = new float[mData.getCoordCount()];
+    }
+
+    /** 不使用缓存的规范化，每次都重新计算 */
+    @Benchmark
+    public SvgPathData normalize() {
+        return SvgPathNormalizer.normalize(mData.commands, mData.coords);
+    }
+
+    @Benchmark
+    public float[] deepCopyCoords() {
+        return DeepCopy.svgCoords(mData.coords);
+    }
+
+    /** 复制到已有的数组，动画每一帧的做法 */
+    @Benchmark
+    public float[] copyCoordsInto() {
+        mData.copyCoords(mFrameCoords);
+        return mFrameCoords;
+    }
+
+    @Benchmark
+    public SvgPathData withCoords() {
+        return mData.withCoords(mFrameCoords);
+    }
+
+    @Benchmark
+    public int svgData2String() {
+        mOut.setLength(0);
+        mWriter.write(mData, mOut);
+        return mOut.length();
+    }
+}
@@ -35,16 +35,16 @@ public final class SvgConsts {
      *  M = moveTo(x,y)
      *  Z = closepath
      *  Q = quadratic Belzier curve(fromX, fromY, toX, toY)
-     *  T = smooth quadratic Belzier curveTo（同Q）
+     *  T = smooth quadratic Belzier curveTo(toX, toY)，控制点为上一段Q/T的控制点的对称点
      *  C = curveTo(x1, y1, x2, y2, x3, y3)
-     *  S = smooth curveTo（同C）
-     *  A = elliptical ArcTo(l, t, r, b, startAngle, sweepAngle)
+     *  S = smooth curveTo(x2, y2, x3, y3)，第一个控制点为上一段C/S的第二个控制点的对称点
+     *  A = elliptical arc(rx, ry, xAxisRotation, largeArcFlag, sweepFlag, x, y)，解析时转换为C
      */
     public static final String SVG_ANCHOR_ALL = "HhVvLlMmZzQqTtCcSsAa";
 
     /**
-     * 包含了所有在svg中能被正确解析的字符。
+     * 包含了所有在svg中能被正确解析的字符，包括数值的正负号和指数，以及等同于空格的空白字符。
      * All the valid character in this for svg.
      */
-    public static final String SVG_CHAR_ALL = SVG_ANCHOR_ALL + ".0123456789,- ";
+    public static final String SVG_CHAR_ALL = SVG_ANCHOR_ALL + ".0123456789,-+eE \t\n\r\f";
 }
@@ -1,6 +1,7 @@
 package com.qxtx.idea.ideasvg.parser;
 
-import java.util.LinkedHashMap;
+import java.io.IOException;
+import java.io.Reader;
 
 /**
  * @author QXTX-WIN
@@ -10,18 +11,36 @@ import java.util.LinkedHashMap;
 public interface IParser {
 
     /**
-     * 解析字符串，得到一个可以被使用的数据对集合，里面包含了 锚点符-值数组 形式的键值对。
+     * 解析字符串，得到一个可以被使用的svg数据集，里面按顺序包含了所有的锚点符和值。
      * 如果解析失败，将会返回null。
      *
      * @param svgData 待解析的字符串
      * @return 若解析成功，则返回解析得到的数据集，否则返回null
      */
-    LinkedHashMap<String, float[]> svgString2Map(String svgData);
+    SvgPathData svgString2Data(String svgData);
+
+    /**
+     * 同{@link #svgString2Data(String)}，可以直接传入{@link java.nio.CharBuffer}、StringBuilder等，不需要先转成String
+     *
+     * @param svgData 待解析的字符序列
+     * @return 若解析成功，则返回解析得到的数据集，否则返回null
+     */
+    SvgPathData svgChars2Data(CharSequence svgData);
+
+    /**
+     * 从字符流中分块读取并解析，解析过程中只占用固定大小的缓冲区，适合非常大的路径数据。
+     * 不会关闭字符流。
+     *
+     * @param reader 待解析的字符流
+     * @return 若解析成功，则返回解析得到的数据集，否则返回null
+     * @throws IOException 读取字符流失败
+     */
+    SvgPathData svgReader2Data(Reader reader) throws IOException;
 
     /**
      * 反解析svg数据集，得到svg字符串
-     * @param svgMap svg数据集
+     * @param svgData svg数据集
      * @return 可被解析的svg字符串
      */
-    String svgMap2String(LinkedHashMap<String, float[]> svgMap);
+    String svgData2String(SvgPathData svgData);
 }
@@ -0,0 +1,145 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 19:00
+ * Description: 把svg的椭圆弧A(rx, ry, xAxisRotation, largeArcFlag, sweepFlag, x, y)转换为三次贝塞尔曲线。
+ *
+ *  按照svg规范（F.6.5、F.6.6）由端点参数计算圆心参数：半径不足时等比放大；
+ *  然后把整段弧等分为固定的{@link #CUBIC_COUNT}段三次贝塞尔曲线，每段不超过90°，控制点系数为 4/3 * tan(Δθ/4)，误差约为半径的0.03%。
+ *  半径为0时视为直线，起点和终点相同时是一个点，同样写成{@link #CUBIC_COUNT}段退化的三次贝塞尔曲线。
+ *  生成的锚点符序列只取决于锚点符本身，和值无关，因此两个锚点符序列相同的svg数据之间总是可以直接对控制点插值。
+ *  转换只在解析时进行一次，生成路径时只有cubicTo，缩放和变换动画也可以直接对控制点插值。
+ */
+final class SvgArc {
+
+    /** 一段椭圆弧固定被转换为的三次贝塞尔曲线段数 */
+    static final int CUBIC_COUNT = 4;
+
+    private SvgArc() {
+    }
+
+    /**
+     * 把一段椭圆弧以{@link #CUBIC_COUNT}段绝对位置的C写入builder
+     * @param x1 起点，即当前的末端坐标
+     * @param y1 起点，即当前的末端坐标
+     * @param x2 终点，绝对位置
+     * @param y2 终点，绝对位置
+     */
+    static void appendCubics(@NonNull SvgPathData.Builder builder, float x1, float y1, float rx, float ry,
+                             float xAxisRotation, boolean largeArc, boolean sweep, float x2, float y2) {
+        double radiusX = Math.abs(rx);
+        double radiusY = Math.abs(ry);
+        if ((x1 == x2 && y1 == y2) || radiusX == 0d || radiusY == 0d) {
+            appendLine(builder, x1, y1, x2, y2);
+            return ;
+        }
+
+        final double phi = Math.toRadians(xAxisRotation % 360f);
+        final double cosPhi = Math.cos(phi);
+        final double sinPhi = Math.sin(phi);
+
+        //把起点变换到以弦的中点为原点、椭圆轴为坐标轴的坐标系
+        double dx2 = (x1 - x2) / 2d;
+        double dy2 = (y1 - y2) / 2d;
+        double x1p = cosPhi * dx2 + sinPhi * dy2;
+        double y1p = -sinPhi * dx2 + cosPhi * dy2;
+
+        //半径不足以连接两个端点时，等比放大
+        double lambda = (x1p * x1p) / (radiusX * radiusX) + (y1p * y1p) / (radiusY * radiusY);
+        if (lambda > 1d) {
+            double s = Math.sqrt(lambda);
+            radiusX *= s;
+            radiusY *= s;
+        }
+
+        double rxSq = radiusX * radiusX;
+        double rySq = radiusY * radiusY;
+        double numerator = rxSq * rySq - rxSq * y1p * y1p - rySq * x1p * x1p;
+        double denominator = rxSq * y1p * y1p + rySq * x1p * x1p;
+        double coef = denominator == 0d ? 0d : Math.sqrt(Math.max(0d, numerator / denominator));
+        if (largeArc == sweep) {
+            coef = -coef;
+        }
+        double cxp = coef * radiusX * y1p / radiusY;
+        double cyp = -coef * radiusY * x1p / radiusX;
+
+        double cx = cosPhi * cxp - sinPhi * cyp + (x1 + x2) / 2d;
+        double cy = sinPhi * cxp + cosPhi * cyp + (y1 + y2) / 2d;
+
+        double ux = (x1p - cxp) / radiusX;
+        double uy = (y1p - cyp) / radiusY;
+        double vx = (-x1p - cxp) / radiusX;
+        double vy = (-y1p - cyp) / radiusY;
+        double theta = Math.atan2(uy, ux);
+        double delta = Math.atan2(ux * vy - uy * vx, ux * vx + uy * vy);
+        if (!sweep && delta > 0d) {
+            delta -= 2d * Math.PI;
+        } else if (sweep && delta < 0d) {
+            delta += 2d * Math.PI;
+        }
+
+        final int segments = CUBIC_COUNT;
+        final double step = delta / segments;
+        final double k = 4d / 3d * Math.tan(step / 4d);
+
+        double cosT = Math.cos(theta);
+        double sinT = Math.sin(theta);
+        for (int i = 0; i < segments; i++) {
+            double t2 = theta + step * (i + 1);
+            double cosT2 = Math.cos(t2);
+            double sinT2 = Math.sin(t2);
+
+            //单位圆上的控制点，再映射到椭圆上
+            double p1x = cosT - k * sinT;
+            double p1y = sinT + k * cosT;
+            double p2x = cosT2 + k * sinT2;
+            double p2y = sinT2 - k * cosT2;
+
+            builder.addCommand('C');
+            addPoint(builder, p1x, p1y, cx, cy, radiusX, radiusY, cosPhi, sinPhi);
+            addPoint(builder, p2x, p2y, cx, cy, radiusX, radiusY, cosPhi, sinPhi);
+            if (i == segments - 1) {
+                //终点使用原值，避免误差累积
+                builder.addCoord(x2);
+                builder.addCoord(y2);
+            } else {
+                addPoint(builder, cosT2, sinT2, cx, cy, radiusX, radiusY, cosPhi, sinPhi);
+            }
+
+            cosT = cosT2;
+            sinT = sinT2;
+        }
+    }
+
+    /** 把直线（或者一个点）等分，写成退化的三次贝塞尔曲线，控制点位于每一段的三等分点上 */
+    private static void appendLine(SvgPathData.Builder builder, float x1, float y1, float x2, float y2) {
+        final float dx = (x2 - x1) / (CUBIC_COUNT * 3);
+        final float dy = (y2 - y1) / (CUBIC_COUNT * 3);
+        for (int i = 0; i < CUBIC_COUNT; i++) {
+            int index = i * 3;
+            builder.addCommand('C');
+            builder.addCoord(x1 + dx * (index + 1));
+            builder.addCoord(y1 + dy * (index + 1));
+            builder.addCoord(x1 + dx * (index + 2));
+            builder.addCoord(y1 + dy * (index + 2));
+            if (i == CUBIC_COUNT - 1) {
+                builder.addCoord(x2);
+                builder.addCoord(y2);
+            } else {
+                builder.addCoord(x1 + dx * (index + 3));
+                builder.addCoord(y1 + dy * (index + 3));
+            }
+        }
+    }
+
+    private static void addPoint(SvgPathData.Builder builder, double ux, double uy, double cx, double cy,
+                                 double rx, double ry, double cosPhi, double sinPhi) {
+        double x = rx * ux;
+        double y = ry * uy;
+        builder.addCoord((float) (cosPhi * x - sinPhi * y + cx));
+        builder.addCoord((float) (sinPhi * x + cosPhi * y + cy));
+    }
+}
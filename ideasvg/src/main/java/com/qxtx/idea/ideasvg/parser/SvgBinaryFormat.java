@@ -0,0 +1,44 @@
+package com.qxtx.idea.ideasvg.parser;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 16:30
+ * Description: 预编译的svg路径二进制格式，由{@link SvgBinaryWriter}写出，由{@link SvgBinaryLoader}读取。
+ *
+ *  所有数值都是小端字节序，各部分都按4字节对齐，便于直接映射文件后用FloatBuffer/ShortBuffer视图批量读取：
+ *      [0, 4)    魔数"ISVG"
+ *      [4, 6)    版本号
+ *      [6, 8)    标记位，见{@link #FLAG_QUANTIZED}
+ *      [8, 12)   锚点符个数
+ *      [12, 16)  值个数
+ *      [16, 20)  量化的最小值（仅量化时有效）
+ *      [20, 24)  量化的步长（仅量化时有效）
+ *      [24, ...) 锚点符序列，每个锚点符1字节，末尾补0对齐到4字节
+ *      [..., ...) 值数组，float32；量化时为int16，value = min + (q + 32768) * step
+ */
+final class SvgBinaryFormat {
+
+    /** "ISVG" */
+    static final int MAGIC = 0x47565349;
+
+    /** 版本2：S/T的值个数改为svg规范中的4/2个，和版本1不兼容 */
+    static final short VERSION = 2;
+
+    /** 值被量化为int16，体积减半，精度为所有值的范围/65535 */
+    static final short FLAG_QUANTIZED = 0x1;
+
+    static final int HEADER_SIZE = 24;
+
+    /** 量化后的取值范围 */
+    static final int QUANTIZE_LEVELS = 65535;
+
+    static final int QUANTIZE_OFFSET = 32768;
+
+    private SvgBinaryFormat() {
+    }
+
+    /** 值数组的起始位置，锚点符个数可能来自损坏的数据，使用long计算避免溢出 */
+    static long coordsOffset(int commandCount) {
+        return HEADER_SIZE + ((commandCount + 3L) & ~3L);
+    }
+}
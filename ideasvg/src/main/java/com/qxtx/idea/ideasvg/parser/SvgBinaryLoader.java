@@ -0,0 +1,166 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.qxtx.idea.ideasvg.tools.SvgLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 16:30
+ * Description: 加载预编译的svg路径二进制数据，格式见{@link SvgBinaryFormat}。
+ *
+ *  文件使用{@link FileChannel#map}映射到内存，锚点符序列和值数组分别批量读出，完全不需要解析文本；
+ *  加载得到的{@link SvgPathData}可以直接交给{@link com.qxtx.idea.ideasvg.view.ISvgView#showSvg(SvgPathData)}显示。
+ *
+ *  assets中的文件需要以不压缩的方式打包（aaptOptions { noCompress 'isvg' }）才能被映射，否则退化为读取字节流。
+ *
+ *  线程安全：所有方法都不持有共享状态，可以在后台线程中加载。
+ */
+public final class SvgBinaryLoader {
+
+    private SvgBinaryLoader() {
+    }
+
+    /**
+     * 映射并加载文件
+     * @return 加载失败或者数据不正确时返回null
+     */
+    @Nullable
+    public static SvgPathData fromFile(@NonNull File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            SvgLog.I("无法加载svg二进制文件：" + file + ", " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 加载assets中的文件，未压缩时直接映射，否则读取字节流
+     * @return 加载失败或者数据不正确时返回null
+     */
+    @Nullable
+    public static SvgPathData fromAsset(@NonNull Context context, @NonNull String assetName) {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(assetName);
+             FileInputStream input = afd.createInputStream();
+             FileChannel channel = input.getChannel()) {
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength()));
+        } catch (IOException e) {
+            //被压缩的asset无法获得文件描述符
+        }
+
+        try (InputStream input = context.getAssets().open(assetName)) {
+            return fromStream(input);
+        } catch (IOException e) {
+            SvgLog.I("无法加载svg二进制文件：" + assetName + ", " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 从字节流中读取全部数据再加载，不会关闭字节流
+     * @return 加载失败或者数据不正确时返回null
+     */
+    @Nullable
+    public static SvgPathData fromStream(@NonNull InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(input.available(), 256));
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = input.read(buffer)) != -1) {
+            output.write(buffer, 0, count);
+        }
+        return fromBuffer(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    /**
+     * 从缓冲区的当前位置开始加载，不会修改缓冲区的位置和字节序
+     * @return 数据不正确时返回null
+     */
+    @Nullable
+    public static SvgPathData fromBuffer(@NonNull ByteBuffer source) {
+        final ByteBuffer buffer = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < SvgBinaryFormat.HEADER_SIZE || buffer.getInt(0) != SvgBinaryFormat.MAGIC) {
+            SvgLog.I("错误，不是svg二进制数据");
+            return null;
+        }
+
+        short version = buffer.getShort(4);
+        if (version != SvgBinaryFormat.VERSION) {
+            SvgLog.I("错误，不支持的svg二进制数据版本：" + version);
+            return null;
+        }
+
+        final boolean quantized = (buffer.getShort(6) & SvgBinaryFormat.FLAG_QUANTIZED) != 0;
+        final int commandCount = buffer.getInt(8);
+        final int coordCount = buffer.getInt(12);
+        //先确认锚点符没有超出数据范围，再计算值数组的位置
+        if (commandCount < 0 || coordCount < 0 || commandCount > buffer.remaining() - SvgBinaryFormat.HEADER_SIZE) {
+            SvgLog.I("错误，svg二进制数据不完整");
+            return null;
+        }
+        final long coordsOffset = SvgBinaryFormat.coordsOffset(commandCount);
+        if (coordsOffset + (long) coordCount * (quantized ? 2 : 4) > buffer.remaining()) {
+            SvgLog.I("错误，svg二进制数据不完整");
+            return null;
+        }
+
+        final byte[] commands = new byte[commandCount];
+        buffer.position(SvgBinaryFormat.HEADER_SIZE);
+        buffer.get(commands);
+        if (!checkCommands(commands, coordCount)) {
+            return null;
+        }
+
+        final float[] coords = new float[coordCount];
+        buffer.position((int) coordsOffset);
+        ByteBuffer coordBuffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (quantized) {
+            final float min = buffer.getFloat(16);
+            final float step = buffer.getFloat(20);
+            ShortBuffer shorts = coordBuffer.asShortBuffer();
+            for (int i = 0; i < coordCount; i++) {
+                coords[i] = min + (shorts.get(i) + SvgBinaryFormat.QUANTIZE_OFFSET) * step;
+            }
+        } else {
+            coordBuffer.asFloatBuffer().get(coords);
+        }
+
+        return commandCount == 0 ? SvgPathData.EMPTY : new SvgPathData(commands, coords);
+    }
+
+    /** 数据来自外部，需要检查锚点符是否合法，值的个数是否一致 */
+    private static boolean checkCommands(@NonNull byte[] commands, int coordCount) {
+        long need = 0;
+        for (byte command : commands) {
+            char anchor = (char) (command & 0xFF);
+            int num = SvgPathData.getAnchorParamNum(anchor);
+            //椭圆弧在解析时已经被转换，数据集中不应该出现
+            if (num < 0 || anchor == 'A' || anchor == 'a') {
+                SvgLog.I("错误，svg二进制数据中有无法识别的锚点符：" + (command & 0xFF));
+                return false;
+            }
+            need += num;
+        }
+
+        if (need != coordCount) {
+            SvgLog.I("错误，svg二进制数据的值个数不一致：need=" + need + ", actual=" + coordCount);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 16:30
+ * Description: 把解析得到的{@link SvgPathData}写成预编译的二进制格式，格式见{@link SvgBinaryFormat}。
+ *
+ *  一般在构建阶段或者首次解析之后写出，之后使用{@link SvgBinaryLoader}直接加载，不再需要解析文本。
+ */
+public final class SvgBinaryWriter {
+
+    private SvgBinaryWriter() {
+    }
+
+    /**
+     * 生成二进制数据
+     * @param quantized [true]值量化为int16，体积更小但有精度损失 [false]值保存为float32，无损
+     */
+    @NonNull
+    public static byte[] toByteArray(@NonNull SvgPathData data, boolean quantized) {
+        final byte[] commands = data.commands;
+        final float[] coords = data.coords;
+        final int coordsOffset = (int) SvgBinaryFormat.coordsOffset(commands.length);
+        final int coordSize = quantized ? 2 : 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(coordsOffset + coords.length * coordSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SvgBinaryFormat.MAGIC);
+        buffer.putShort(SvgBinaryFormat.VERSION);
+        buffer.putShort(quantized ? SvgBinaryFormat.FLAG_QUANTIZED : 0);
+        buffer.putInt(commands.length);
+        buffer.putInt(coords.length);
+
+        if (quantized) {
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (float v : coords) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (coords.length == 0) {
+                min = max = 0f;
+            }
+            float step = max > min ? (max - min) / SvgBinaryFormat.QUANTIZE_LEVELS : 1f;
+
+            buffer.putFloat(min);
+            buffer.putFloat(step);
+            buffer.put(commands);
+            buffer.position(coordsOffset);
+            for (float v : coords) {
+                int q = Math.round((v - min) / step);
+                q = Math.max(0, Math.min(SvgBinaryFormat.QUANTIZE_LEVELS, q));
+                buffer.putShort((short) (q - SvgBinaryFormat.QUANTIZE_OFFSET));
+            }
+        } else {
+            buffer.putFloat(0f);
+            buffer.putFloat(0f);
+            buffer.put(commands);
+            buffer.position(coordsOffset);
+            buffer.asFloatBuffer().put(coords);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * 写出到字节流中，不会关闭字节流
+     * @see #toByteArray(SvgPathData, boolean)
+     */
+    public static void write(@NonNull SvgPathData data, @NonNull OutputStream output, boolean quantized) throws IOException {
+        output.write(toByteArray(data, quantized));
+    }
+
+    /**
+     * 写出到文件中，已存在的文件会被覆盖
+     * @see #toByteArray(SvgPathData, boolean)
+     */
+    public static void write(@NonNull SvgPathData data, @NonNull File file, boolean quantized) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            write(data, output, quantized);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import com.qxtx.idea.ideasvg.tools.SvgLog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 13:40
+ * Description: 进程内共享的svg数据集缓存，以svg字符串为键，按占用内存大小做LRU淘汰。
+ *
+ *  所有IdeaSvgView共享同一个缓存，相同的svg字符串只会被解析一次；
+ *  缓存的{@link SvgPathData}不可变，可以被任意多个view同时引用；
+ *  解析失败的字符串不会被缓存；
+ *  命中和未命中的次数只统计{@link #get(String)}，{@link #peek(String)}不影响统计；
+ *  缓存容量可以在第一次使用之前通过{@link #configure(int)}设置；
+ *  线程安全，可以在后台线程中使用。
+ */
+public final class SvgDataCache {
+
+    /** 默认的缓存容量，单位：字节 */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 2 * 1024 * 1024;
+
+    /** 每个缓存项的固定开销估算值：键、数据集对象及其数组头 */
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private static volatile SvgDataCache sInstance;
+
+    /** 缓存创建时使用的容量，见{@link #configure(int)} */
+    private static int sMaxSizeBytes = DEFAULT_MAX_SIZE_BYTES;
+
+    /** 解析器不持有状态，可以被所有线程共享。缓存的都是规范数据集，使用时不需要再转换 */
+    private final SvgDataParser mParser = new SvgDataParser(true);
+
+    private final LruCache<String, SvgPathData> mCache;
+
+    /** 自己统计命中次数，LruCache的统计会把{@link #peek(String)}也计算在内 */
+    private final AtomicInteger mHitCount = new AtomicInteger();
+    private final AtomicInteger mMissCount = new AtomicInteger();
+
+    private SvgDataCache(int maxSizeBytes) {
+        mCache = new LruCache<String, SvgPathData>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(String key, SvgPathData value) {
+                return estimateSize(key, value);
+            }
+        };
+    }
+
+    public static SvgDataCache getInstance() {
+        if (sInstance == null) {
+            synchronized (SvgDataCache.class) {
+                if (sInstance == null) {
+                    sInstance = new SvgDataCache(sMaxSizeBytes);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 设置缓存容量，单位：字节。在第一次{@link #getInstance()}之前调用（例如Application.onCreate()中）时，
+     * 缓存创建时直接使用这个容量，不会先按默认容量创建；缓存已经创建时等同于{@link #resize(int)}
+     */
+    public static void configure(int maxSizeBytes) {
+        if (maxSizeBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeBytes <= 0");
+        }
+        synchronized (SvgDataCache.class) {
+            sMaxSizeBytes = maxSizeBytes;
+            if (sInstance != null) {
+                sInstance.resize(maxSizeBytes);
+            }
+        }
+    }
+
+    /**
+     * 获得svg字符串对应的数据集。如果缓存中不存在，则解析并放入缓存
+     * @return 解析失败时返回null
+     */
+    @Nullable
+    public SvgPathData get(String svgString) {
+        if (svgString == null || svgString.length() == 0) {
+            return null;
+        }
+
+        SvgPathData data = mCache.get(svgString);
+        if (data != null) {
+            mHitCount.incrementAndGet();
+            return data;
+        }
+        mMissCount.incrementAndGet();
+
+        //未命中缓存时在当前线程解析，多个线程同时未命中时可能会重复解析，但结果相同
+        data = mParser.svgString2Data(svgString);
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+
+        //超出缓存容量的数据不缓存，否则会立即清空整个缓存
+        if (estimateSize(svgString, data) > mCache.maxSize()) {
+            SvgLog.I("svg数据过大，不放入缓存");
+            return data;
+        }
+
+        mCache.put(svgString, data);
+        return data;
+    }
+
+    /**
+     * 只查询缓存，不做解析，也不计入命中和未命中的次数
+     * @return 缓存中不存在时返回null
+     */
+    @Nullable
+    public SvgPathData peek(@NonNull String svgString) {
+        return mCache.get(svgString);
+    }
+
+    /** 修改缓存容量，单位：字节 */
+    public void resize(int maxSizeBytes) {
+        mCache.resize(maxSizeBytes);
+    }
+
+    /** 清空缓存 */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    /** 当前缓存占用的内存估算值，单位：字节 */
+    public int size() {
+        return mCache.size();
+    }
+
+    public int maxSize() {
+        return mCache.maxSize();
+    }
+
+    /** {@link #get(String)}命中缓存的次数 */
+    public int hitCount() {
+        return mHitCount.get();
+    }
+
+    /** {@link #get(String)}未命中缓存的次数 */
+    public int missCount() {
+        return mMissCount.get();
+    }
+
+    /** 因为超出容量被淘汰的次数 */
+    public int evictionCount() {
+        return mCache.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return "SvgDataCache{size=" + size() + "/" + maxSize() + ", hit=" + hitCount()
+                + ", miss=" + missCount() + ", eviction=" + evictionCount() + "}";
+    }
+
+    private static int estimateSize(String key, SvgPathData data) {
+        return ENTRY_OVERHEAD_BYTES + key.length() * 2 + data.getCommandCount() + data.getCoordCount() * 4;
+    }
+}
@@ -1,33 +1,39 @@
 package com.qxtx.idea.ideasvg.parser;
 
 import android.graphics.Path;
-import android.graphics.RectF;
 import android.support.annotation.NonNull;
-import android.text.TextUtils;
+import android.support.annotation.Nullable;
 
 import com.qxtx.idea.ideasvg.SvgConsts;
-import com.qxtx.idea.ideasvg.tools.DeepCopy;
 import com.qxtx.idea.ideasvg.tools.SvgLog;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * @author QXTX-WIN
  * @date 2019/12/3 18:54
  *
  * Description:解析Svg数据。
- *  SVG锚点符：M L Q C H V S T Z A (其实A和L一样的效果)
+ *  SVG锚点符：M L Q C H V S T Z A (A在解析时被转换为三次贝塞尔曲线C，见{@link SvgArc})
+ *  紧跟在A之后的S/T按照svg规范以当前点作为第一个控制点，解析时直接写成绝对位置的C/Q
  *
  *  SVG字符串的使用规则：
  *      ！ 一个锚点符和它的数据集构成一个线段，以下称为[一段路径]；
  *      ！ 路径闭合锚点符[Z/z]称为[闭合符]；
- *      1、数值之间使用[空格]/[,]作为分隔符隔开；
- *      2、必须以锚点符[M/m]开头，代表起点；
+ *      1、数值之间使用[空格]/[,]作为分隔符隔开，制表符和换行符等同于空格；
+ *         不会引起歧义时可以省略分隔符，如"10-5"、".5.5"，数值可以带正号和指数，如"+1e-3"，见{@link SvgPathTokenizer}；
+ *      2、必须以锚点符[M/m]开头，代表起点，开头的m等同于M；
  *      3、以锚点符[Z/z]结尾，代表闭合路径；没有Z/z结尾，代表非闭合路径；
  *      4、一段路径结束后，可以不加分隔符，直接跟上下一段路径的锚点符或者闭合符，如"L10,10z"，"L10,10L20,20"；
- *      5、html中好像有连续相同的锚点符可以只保留第一个，中间的可以省去；
+ *      5、连续相同的锚点符可以只保留第一个，中间的可以省去；起始符之后省去的锚点符为L/l，如"M0,0 10,10"等同于"M0,0 L10,10"；
+ *      6、椭圆弧的标志位可以和后面的值连写，如"a5,5 0 1050,0"；
  *
  *  示例：
  *      1、"M0 0 L50 0 L50 10 L0 10,z M0 20 L50 20 L50,30 L0 30 Z"
@@ -35,446 +41,667 @@ import java.util.LinkedHashMap;
  *
  *  需求：
  *      1、检查svg字符串的正确性；
- *      2、将svg字符串转化成可解析的HashMap数据集，实现绘制；
- *      3、将svg的HashMap数据集转化成svg字符串，作其他用途；
+ *      2、将svg字符串转化成可解析的数据集{@link SvgPathData}，实现绘制；
+ *      3、将svg数据集转化成svg字符串，作其他用途；
+ *      4、几MB大小的路径数据可以直接从{@link Reader}/{@link InputStream}中流式解析，不需要先读成完整的字符串；
+ *      5、可选在解析时直接生成规范数据集（见{@link SvgPathData#normalize()}），之后的使用者都不需要再计算末端坐标；
+ *      6、只检查语法并计数，不产生任何对象，见{@link #validate(CharSequence, SvgPathValidation)}；
+ *
+ *  线程安全：
+ *      本类不持有任何解析过程中的状态，解析的状态都保存在每个线程各自的{@link ParseContext}中，
+ *      返回的{@link SvgPathData}不可变，{@link #createSvgPath(SvgPathData, float[])}每次都返回新的列表。
+ *      因此同一个实例可以被任意多个线程同时使用，不需要加锁。
  */
 public class SvgDataParser implements IParser {
 
-    private final int INDEX_ERROR = -1;
+    /** 每个线程复用一份解析状态，分词器和参数数组不需要每次创建 */
+    private static final ThreadLocal<ParseContext> sContext = new ThreadLocal<ParseContext>() {
+        @Override
+        protected ParseContext initialValue() {
+            return new ParseContext();
+        }
+    };
 
-    private final float INVALID_VALUE = Float.MIN_VALUE;
+    /** 是否在解析时生成规范数据集 */
+    private final boolean mIsNormalize;
+
+    public SvgDataParser() {
+        this(false);
+    }
 
     /**
-     * 对应{@link SvgConsts#SVG_ANCHOR_ALL}的锚点符的值个数
+     * @param normalize [true]解析得到的都是规范数据集 [false]保持svg字符串中原来的锚点符和值
      */
-    private int[] ANCHOR_VALUE_NUM = new int[] {1, 1, 1, 1, 2, 2, 2, 2, 0, 0, 4, 4, 4, 4, 6, 6, 6, 6, 6, 6};
-
-    /** 当前的游标位置 */
-    private int mCurIndex;
-
-    private final StringBuilder mTempSB = new StringBuilder();
-
-    /** path数据集 */
-    private final ArrayList<Path> mPathList;
+    public SvgDataParser(boolean normalize) {
+        mIsNormalize = normalize;
+    }
 
-    /** svg数据集 */
-    private final LinkedHashMap<String, float[]> mSvgMap;
+    public boolean isNormalize() {
+        return mIsNormalize;
+    }
 
-    public SvgDataParser() {
-        mPathList = new ArrayList<>();
-        mSvgMap = new LinkedHashMap<>();
-        mCurIndex = 0;
+    @Override
+    public SvgPathData svgString2Data(@NonNull final String svgString) {
+        return svgChars2Data(svgString);
     }
 
     @Override
-    public LinkedHashMap<String, float[]> svgString2Map(@NonNull final String svgString) {
-        if (TextUtils.isEmpty(svgString)) {
+    public SvgPathData svgChars2Data(@NonNull final CharSequence svgData) {
+        return svgChars2Data(svgData, null);
+    }
+
+    /**
+     * 同{@link #svgChars2Data(CharSequence)}，按照校验的结果预先分配数组，解析过程中不需要扩容
+     * @param sizeHint 同一个字符串的校验结果，为null或者校验失败时按字符串长度估算
+     */
+    public SvgPathData svgChars2Data(@NonNull final CharSequence svgData, @Nullable final SvgPathValidation sizeHint) {
+        if (svgData == null || svgData.length() == 0) {
             SvgLog.I("错误，不是正确的svg字符串");
             return null;
         }
 
-        String data = svgString.trim();
-//        SvgLog.I("格式化后的字符串：" + data);
-
-        char startChar = data.charAt(0);
-        if (startChar != SvgConsts.SVG_START_ANCHOR) {
-            SvgLog.I("错误，不是以起始符开始的字符串: " + startChar);
-            mSvgMap.clear();
-            return mSvgMap;
+        final int length = svgData.length();
+        //不再trim()复制字符串，首尾的空白字符由分词器忽略
+        final ParseContext context = sContext.get();
+        final SvgPathData.Builder builder = context.resultBuilder;
+        if (sizeHint != null && sizeHint.isValid()) {
+            builder.ensureCapacity(sizeHint.getCommandCapacity(), sizeHint.getCoordCapacity());
+        } else {
+            builder.ensureCapacity(Math.min(length / 8 + 4, 4096), Math.min(length / 3 + 8, 65536));
         }
 
-        //真正开始解析字符串
-        parseImpl(data, mSvgMap);
-
-        return DeepCopy.svgMap(mSvgMap);
+        try {
+            context.begin(builder);
+            context.tokenizer.reset(svgData);
+            return parseImpl(context) ? buildResult(builder) : null;
+        } finally {
+            context.end();
+        }
     }
 
-    @Override
-    public String svgMap2String(final LinkedHashMap<String, float[]> svgMap) {
-        return null;
+    /**
+     * 只检查svg字符串的语法，同时计算路径段数、值个数等，不生成数据集，也不输出日志
+     * @return 新的校验结果
+     * @see #validate(CharSequence, SvgPathValidation)
+     */
+    @NonNull
+    public SvgPathValidation validate(@NonNull final CharSequence svgData) {
+        SvgPathValidation result = new SvgPathValidation();
+        validate(svgData, result);
+        return result;
     }
 
     /**
-     * 解析svg数据集，生成path数组，每个path都是一条完整路径
-     *   每处理一个键值对，都应该计算一次末端坐标值，以便后面的键值对使用；
-     * @see #addSubPath(Path, char, float[], float[])
+     * 只检查svg字符串的语法，同时计算路径段数、值个数等。和解析使用同样的语法规则，
+     * 但是不生成数据集、不转换椭圆弧、不输出日志，使用复用的结果对象时整个过程不会创建任何对象。
+     * @param result 保存校验结果，可以反复使用
+     * @return 是否为正确的svg字符串
      */
-    public ArrayList<Path> createSvgPath(@NonNull final LinkedHashMap<String, float[]> svgMap) {
+    public boolean validate(@NonNull final CharSequence svgData, @NonNull final SvgPathValidation result) {
+        if (svgData == null || svgData.length() == 0) {
+            result.setError(0);
+            return false;
+        }
+
+        final ParseContext context = sContext.get();
+        final boolean isSuccess;
+        try {
+            context.begin(null);
+            context.tokenizer.reset(svgData);
+            isSuccess = parseImpl(context);
+        } finally {
+            context.end();
+        }
 
-        //先清空PathList
-        mPathList.clear();
+        if (isSuccess) {
+            result.setValid(context.subPathCount, context.segmentCount, context.coordCount, context.arcCount);
+        } else {
+            result.setError(context.errorOffset);
+        }
+        return isSuccess;
+    }
 
-        float[] lastCoordinates = new float[2];
+    @Override
+    public SvgPathData svgReader2Data(@NonNull final Reader reader) throws IOException {
+        if (reader == null) {
+            SvgLog.I("错误，字符流为null");
+            return null;
+        }
 
-        //遇到M/m，就要更新起始坐标
-        Path path = new Path();
-        int pos = 0;
-        for (String k : svgMap.keySet()) {
-            char anchor = k.charAt(0);
-            float[] values = svgMap.get(k);
-            //防止结束符z携带的值数组为null
-            values = values == null ? new float[0] : values;
-
-            //将相对位置起始符m转化成绝对位置起始符M
-            //并且将起点设为坐标原点
-            if (pos == 0) {
-                if (Character.isLowerCase(anchor)) {
-                    anchor = 'M';
-                    values[0] += lastCoordinates[0];
-                    values[1] += lastCoordinates[1];
-                }
+        //数据长度未知，数组从当前容量开始按需扩容
+        final ParseContext context = sContext.get();
+        final SvgPathData.Builder builder = context.resultBuilder;
+        try {
+            context.begin(builder);
+            context.tokenizer.reset(reader);
+            final boolean isSuccess = parseImpl(context);
+
+            //分词器不能直接抛出IO异常，读取失败时在这里重新抛出
+            final IOException ioException = context.tokenizer.getIOException();
+            if (ioException != null) {
+                throw ioException;
             }
+            return isSuccess ? buildResult(builder) : null;
+        } finally {
+            context.end();
+        }
+    }
 
-            //这里会在生成path的同时更新终点坐标lastCoordinates
-            boolean isSubPathEnd = addSubPath(path, anchor, values, lastCoordinates);
+    private SvgPathData buildResult(@NonNull SvgPathData.Builder builder) {
+        return mIsNormalize ? builder.buildNormalized() : builder.build();
+    }
 
-            pos++;
+    /**
+     * 以UTF-8编码从字节流中解析svg路径数据
+     * @see #svgStream2Data(InputStream, Charset)
+     */
+    public SvgPathData svgStream2Data(@NonNull final InputStream input) throws IOException {
+        return svgStream2Data(input, StandardCharsets.UTF_8);
+    }
 
-            //表示遇到结束符Z/z，完成一个path
-            if (isSubPathEnd) {
-                mPathList.add(path);
-                path = new Path();
-                pos = 0;
-            }
+    /**
+     * 从字节流中解析svg路径数据，内部按块解码和扫描，不会把完整的数据读入内存。不会关闭字节流。
+     * @param input 字节流
+     * @param charset 字节流的编码
+     * @return 若解析成功，则返回解析得到的数据集，否则返回null
+     * @throws IOException 读取字节流失败
+     */
+    public SvgPathData svgStream2Data(@NonNull final InputStream input, @NonNull final Charset charset) throws IOException {
+        if (input == null) {
+            SvgLog.I("错误，字节流为null");
+            return null;
         }
-        
-        if (mPathList.size() == 0) {
-            SvgLog.I("未生成任何path对象");
+        return svgReader2Data(new InputStreamReader(input, charset));
+    }
+
+    /**
+     * 使用默认的{@link SvgPathWriter}写出，保留{@link SvgPathWriter#DEFAULT_PRECISION}位小数。
+     * 需要复用缓冲区、调整精度或者输出相对坐标时，直接使用{@link SvgPathWriter}
+     */
+    @Override
+    public String svgData2String(final SvgPathData svgData) {
+        if (svgData == null) {
             return null;
         }
-//        SvgLog.I("解析到[" + mPathList.size() + "]个path");
+        return new SvgPathWriter().write(svgData);
+    }
 
-        return mPathList;
+    /**
+     * 解析svg数据集，生成path数组，每个path都是一条完整路径。每次调用都返回新的列表，调用者可以随意持有。
+     * @see #createSvgPath(SvgPathData, float[])
+     */
+    public ArrayList<Path> createSvgPath(@NonNull final SvgPathData svgData) {
+        return createSvgPath(svgData, svgData.coords);
     }
 
     /**
-     * 生成path对象
-     * 备注：不需要检查lastValues，默认符合需要
+     * 使用svg数据集的锚点符序列和指定的值数组，生成path数组，每个path都是一条完整路径
+     *   遇到闭合符Z结束一个path，末尾未闭合的部分也会生成一个path；
+     *   未闭合的path之后遇到起始符M，也会结束这个path，每个子路径都是单独的path；
+     *   非规范数据集先按{@link SvgPathData#normalize()}的规则转换，再生成path；
      *
-     * @param path
-     * @param key 锚点符
-     * @param values 值数组
-     * @param lastValues 末端的坐标值
-     * @return 如果无法生成path对象，说明出现异常，即返回null
+     * @param svgData 提供锚点符序列
+     * @param coords 值数组，和svgData的值一一对应，可以是svgData经过缩放、变换后的值
      */
-    private boolean addSubPath(Path path, char key, @NonNull final float[] values, @NonNull float[] lastValues) {
-        try {
-            switch (key) {
+    public ArrayList<Path> createSvgPath(@NonNull final SvgPathData svgData, @NonNull final float[] coords) {
+        if (coords.length < svgData.coords.length) {
+            SvgLog.I("值数组的长度和svg数据集不一致");
+            return null;
+        }
+
+        final SvgPathData data;
+        final float[] v;
+        if (svgData.isNormalized()) {
+            data = svgData;
+            v = coords;
+        } else {
+            //值数组可能已经被修改，不能使用缓存的规范数据集
+            data = coords == svgData.coords ? svgData.normalize()
+                    : SvgPathNormalizer.normalize(svgData.commands, coords);
+            v = data.coords;
+        }
+
+        final ArrayList<Path> pathList = new ArrayList<>();
+        Path path = new Path();
+        int pos = 0;
+        int i = 0;
+        for (byte command : data.commands) {
+            switch (command) {
                 case 'M':
-                    path.moveTo(values[0], values[1]);
-                    lastValues[0] = values[0];
-                    lastValues[1] = values[1];
-                    break;
-                case 'm':
-                    path.rMoveTo(values[0], values[1]);
-                    lastValues[0] += values[0];
-                    lastValues[1] += values[1];
-                    break;
-                case 'H':
-                    path.lineTo(values[0], lastValues[1]);
-                    lastValues[0] = values[0];
-                    break;
-                case 'h':
-                    path.rLineTo(values[0], 0f);
-                    lastValues[0] += values[0];
-                    break;
-                case 'V':
-                    path.lineTo(lastValues[0], values[0]);
-                    lastValues[1] = values[0];
-                    break;
-                case 'v':
-                    path.rLineTo(0f, values[0]);
-                    lastValues[1] += values[0];
+                    //未闭合的子路径之后开始新的子路径
+                    if (pos > 0) {
+                        pathList.add(path);
+                        path = new Path();
+                    }
+                    path.moveTo(v[i], v[i + 1]);
+                    i += 2;
                     break;
                 case 'L':
-                    path.lineTo(values[0], values[1]);
-                    lastValues[0] = values[0];
-                    lastValues[1] = values[1];
-                    break;
-                case 'l':
-                    path.rLineTo(values[0], values[1]);
-                    lastValues[0] += values[0];
-                    lastValues[1] += values[1];
-                    break;
-                case 'Q':
-                case 'T':
-                    path.quadTo(values[0], values[1], values[2], values[3]);
-                    lastValues[0] = values[2];
-                    lastValues[1] = values[3];
-                    break;
-                case 'q':
-                case 't':
-                    path.rQuadTo(values[0], values[1], values[2], values[3]);
-                    lastValues[0] += values[2];
-                    lastValues[1] += values[3];
+                    path.lineTo(v[i], v[i + 1]);
+                    i += 2;
                     break;
                 case 'C':
-                case 'S':
-                    path.cubicTo(values[0], values[1], values[2], values[3], values[4], values[5]);
-                    lastValues[0] = values[4];
-                    lastValues[1] = values[5];
-                    break;
-                case 'c':
-                case 's':
-                    path.rCubicTo(values[0], values[1], values[2], values[3], values[4], values[5]);
-                    lastValues[0] += values[4];
-                    lastValues[1] += values[5];
+                    path.cubicTo(v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5]);
+                    i += 6;
                     break;
-                case 'A':
-                case 'a':
-                    //LYX_TAG 2019/12/24 23:07 这里没计算终点坐标
-                    RectF rectF = new RectF(values[0], values[1], values[2], values[3]);
-                    path.arcTo(rectF, values[4], values[5]);
+                case 'Q':
+                    path.quadTo(v[i], v[i + 1], v[i + 2], v[i + 3]);
+                    i += 4;
                     break;
-                case 'Z':
-                case 'z':
+                default:
+                    //规范数据集中只剩下闭合符
                     path.close();
-                    return true;
+                    pathList.add(path);
+                    path = new Path();
+                    pos = 0;
+                    continue;
             }
-        } catch (Exception e) {
-            SvgLog.I("生成路径对象时发生异常：" + e.getLocalizedMessage());
-            e.printStackTrace();
+            pos++;
         }
 
-        return false;
-    }
+        //没有闭合符结尾的非闭合路径
+        if (pos > 0) {
+            pathList.add(path);
+        }
 
-    private boolean checkValueNum(int valueNum, int compareNum) {
-        if (valueNum < compareNum) {
-            SvgLog.I("发现不正确的子路径值数目：需要" + compareNum + "，实际" + valueNum);
-            return false;
+        if (pathList.size() == 0) {
+            SvgLog.I("未生成任何path对象");
+            return null;
         }
-        return true;
+//        SvgLog.I("解析到[" + pathList.size() + "]个path");
+
+        return pathList;
     }
 
     /**
-     * 解析字符串数据
+     * 使用新的值数组，只重新生成路径集中指定的path，其他path保持不变，不会创建新的Path对象。
+     * 适合每一帧只有部分path变化的场景，例如变换动画中起点和终点相同的子路径不需要重新生成
      *
-     * 在调用这个方法之前，已经确保字符串以起始符开始；
-     * 每次循环都将寻找子路径数据集；
-     * 一次循环可能找到多条连续的同锚点符的子路径；
+     * @param svgData 规范数据集（见{@link SvgPathData#normalize()}），提供锚点符序列
+     * @param coords 值数组，和svgData的值一一对应
+     * @param pathList 由同样的锚点符序列生成的私有路径集，其中需要重新生成的path会先被reset
+     * @param changed 每个path是否需要重新生成，为null时全部重新生成
+     * @return 数据集不是规范数据集、路径集和锚点符序列不对应时返回false，此时应该使用{@link #createSvgPath(SvgPathData, float[])}
      */
-    private void parseImpl(@NonNull String data, @NonNull final LinkedHashMap<String, float[]> map) {
-        if (map.size() > 0) {
-            map.clear();
+    public boolean updateSvgPath(@NonNull final SvgPathData svgData, @NonNull final float[] coords,
+                                 @NonNull final List<Path> pathList, @Nullable final boolean[] changed) {
+        if (!svgData.isNormalized() || coords.length < svgData.coords.length) {
+            return false;
         }
 
-        int maxLen = data.length();
-        //每次循环开始，i都应该指向一个锚点符的下一位
-        for (int i = 0; i < maxLen; i = ++mCurIndex) {
-            mCurIndex = i;
-            int lIndex = i;
-            char startChar = data.charAt(lIndex);
-//            SvgLog.I("当前起始符：" + startChar);
-
-            //非法字符
-            //LYX_TAG 2019/12/9 23:24 非法字符是应该忽略掉 还是 直接视为错误？
-            if (!isSvgChar(startChar)) {
-                SvgLog.I("错误，发现非法字符：" + startChar + ", 位置：" + lIndex);
-                map.clear();
-                return ;
-            }
+        final int count = pathList.size();
+        if (changed != null && changed.length < count) {
+            return false;
+        }
 
-            //忽略起始的分隔符（逗号）
-            if (startChar == SvgConsts.SEPARATOR) {
-                continue;
+        final float[] v = coords;
+        Path path = null;
+        boolean isUpdate = false;
+        int index = 0;
+        int pos = 0;
+        int i = 0;
+        for (byte command : svgData.commands) {
+            //规则和createSvgPath()一致：未闭合的子路径之后遇到起始符，开始新的path
+            if (command == 'M' && pos > 0) {
+                index++;
+                pos = 0;
+            }
+            if (pos == 0) {
+                if (index >= count) {
+                    return false;
+                }
+                path = pathList.get(index);
+                isUpdate = changed == null || changed[index];
+                if (isUpdate) {
+                    path.reset();
+                }
             }
 
-            //解析出正确的字符串，并且此字符串不包含锚点符，且不存在连续的分隔符和空格
-            //这个方法已经将当前位置mCurIndex更新为当前子路径的末尾位置；
-            String subPathData = getPathData(lIndex + 1, data);
-            if (subPathData == null) {
-                SvgLog.I("错误，解析失败");
-                map.clear();
-                return ;
+            switch (command) {
+                case 'M':
+                    if (isUpdate) {
+                        path.moveTo(v[i], v[i + 1]);
+                    }
+                    i += 2;
+                    break;
+                case 'L':
+                    if (isUpdate) {
+                        path.lineTo(v[i], v[i + 1]);
+                    }
+                    i += 2;
+                    break;
+                case 'C':
+                    if (isUpdate) {
+                        path.cubicTo(v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5]);
+                    }
+                    i += 6;
+                    break;
+                case 'Q':
+                    if (isUpdate) {
+                        path.quadTo(v[i], v[i + 1], v[i + 2], v[i + 3]);
+                    }
+                    i += 4;
+                    break;
+                default:
+                    if (isUpdate) {
+                        path.close();
+                    }
+                    index++;
+                    pos = 0;
+                    continue;
             }
+            pos++;
+        }
 
-            //和锚点符拼接
-            subPathData = startChar + subPathData;
-//            SvgLog.I("解析到的子路径数据为：" + subPathData, "PEEK");
+        return (pos > 0 ? index + 1 : index) == count;
+    }
 
-            boolean success = saveToMap(subPathData, map);
-            if (!success) {
-                SvgLog.I("错误，解析失败。当前位置：" + i + ", 字符=" + data.charAt(i));
-                map.clear();
-                return ;
+    /**
+     * 计算规范数据集生成的每个path使用的值的范围，规则和{@link #createSvgPath(SvgPathData, float[])}一致
+     * @return 长度为path个数+1，第k个path使用的值为[offsets[k], offsets[k + 1])
+     */
+    @NonNull
+    public static int[] getSvgPathCoordOffsets(@NonNull final SvgPathData svgData) {
+        final byte[] commands = svgData.commands;
+        final int[] offsets = new int[countSvgPath(commands, 0, commands.length) + 1];
+        int index = 0;
+        int pos = 0;
+        int i = 0;
+        for (byte command : commands) {
+            if (command == 'M' && pos > 0) {
+                offsets[++index] = i;
+                pos = 0;
+            }
+            i += Math.max(SvgPathData.getAnchorParamNum((char) command), 0);
+            if (command == 'Z') {
+                offsets[++index] = i;
+                pos = 0;
+            } else {
+                pos++;
             }
-
-//            SvgLog.I("一次子路径解析结束，末端位置：" + mCurIndex
-//                    + ", 下一个字符：" + ((mCurIndex + 1) >= maxLen ? "OUT_OF_BOUND!" : data.charAt(mCurIndex)));
         }
+        if (pos > 0) {
+            offsets[++index] = i;
+        }
+        return offsets;
     }
 
     /**
-     * 获取从起始位置开始，到字符串末端或者第一个锚点符为止 的字符串。
-     *
-     * @param startIndex 起始位置
-     * @return 如果过程中发现异常情况，则返回null；否则返回解析到的字符串，并且此字符串不存在连续的分隔符
+     * 计算锚点符序列中[from, to)的部分能生成多少个path，规则和{@link #createSvgPath(SvgPathData, float[])}一致
      */
-    private String getPathData(int startIndex, @NonNull String data) {
-        int maxLen = data.length();
-
-        //如果开始位置越界或者为负数，则为异常
-        if (startIndex < 0 || startIndex > maxLen) {
-            SvgLog.I("错误，发现非法的起始位置");
-            return null;
+    static int countSvgPath(@NonNull byte[] commands, int from, int to) {
+        int count = 0;
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            char anchor = (char) commands[i];
+            if (pos > 0 && (anchor == 'M' || anchor == 'm')) {
+                count++;
+                pos = 0;
+            }
+            pos++;
+            if (anchor == 'Z' || anchor == 'z') {
+                count++;
+                pos = 0;
+            }
         }
+        return pos > 0 ? count + 1 : count;
+    }
 
-        //到达字符串末端。只有一种情况：①发现结束符Z
-        if (startIndex == maxLen) {
-//            SvgLog.I("到达字符串末端");
-            return "";
+    /**
+     * 解析字符串数据，调用之前需要先指定分词器的数据源
+     *
+     * 第一个单元必须是起始符；
+     * 解析的同时计算末端坐标，椭圆弧A/a在这里被转换为绝对位置的三次贝塞尔曲线；
+     * 使用{@link SvgPathTokenizer}单次扫描整个字符串，直接从输入中读出锚点符和数值；
+     * 一个锚点符后面可能跟着多条连续的同锚点符的子路径的值（省略了后续的锚点符）；
+     *
+     * @return 是否解析成功
+     */
+    private boolean parseImpl(@NonNull final ParseContext context) {
+        final SvgPathTokenizer tokenizer = context.tokenizer;
+        final boolean isQuiet = context.isValidateOnly();
+
+        int token = tokenizer.next();
+        if (token != SvgPathTokenizer.TOKEN_ANCHOR || Character.toUpperCase(tokenizer.getAnchor()) != SvgConsts.SVG_START_ANCHOR) {
+            if (!isQuiet) {
+                SvgLog.I("错误，不是以起始符开始的字符串");
+            }
+            return fail(context, token);
         }
 
-        //LYX_TAG 2019/12/10 0:14 是直接返回位置再在外面一次性取数据快，还是在这里使用一个StringBuilder对象来即查即存快？
-        mTempSB.delete(0, mTempSB.length());
-
-        //可能有两种情况（都能返回正确位置）：
-        // ①找不到，则认为一直到末端都是有效的；（此时可能包含了多条拥有相同锚点符的连续子路径，这是一种发现的svg简略写法）
-        // ②找到锚点符，返回锚点符前一个位置。
-        boolean isSeparatorBefore = false;
-        mCurIndex = maxLen - 1;
-        for (int i = startIndex; i < maxLen; i++) {
-            char c = data.charAt(i);
-            if (!isSvgChar(c)) {
-                SvgLog.I("错误，发现非法字符");
-                return null;
+        while (token != SvgPathTokenizer.TOKEN_END) {
+            if (token != SvgPathTokenizer.TOKEN_ANCHOR) {
+                return fail(context, token);
             }
 
-            //记录上一个是否为分隔字符，如果是，则忽略下一个连续的分隔字符
-            boolean isDivider = c == SvgConsts.SEPARATOR || c == ' ';
-            if (isSeparatorBefore && isDivider) {
-                SvgLog.I("忽略连续的分隔符");
-                continue;
+            final char anchor = tokenizer.getAnchor();
+            final int paramsNeed = SvgPathData.getAnchorParamNum(anchor);
+            if (paramsNeed < 0) {
+                if (!isQuiet) {
+                    SvgLog.I("无法识别的锚点符：" + anchor);
+                }
+                return fail(context, token);
             }
-            isSeparatorBefore = isDivider;
 
-            //注意将空格也视为分隔字符，并且使用逗号分隔符代替
-            if (!isAnchor(c)) {
-                mTempSB.append(isDivider ? SvgConsts.SEPARATOR : c);
-            } else {
-//                SvgLog.I("右端找到锚点符");
-                mCurIndex = i - 1;
-                break;
-            }
+            final boolean isArc = anchor == 'A' || anchor == 'a';
+            //开头的m以坐标原点为参照，等同于M
+            char segmentAnchor = anchor == 'm' && context.segmentCount == 0 ? 'M' : anchor;
+            token = tokenizer.next();
+            //支持连续相同锚点符的子路径的简略写法（省略第一条子路径之后的锚点符）
+            do {
+                for (int i = 0; i < paramsNeed; i++) {
+                    if (token != SvgPathTokenizer.TOKEN_NUMBER) {
+                        if (!isQuiet) {
+                            SvgLog.I("错误，未能找到足够的值。锚点符：" + anchor + ", found=" + i + ", need=" + paramsNeed);
+                        }
+                        return fail(context, token);
+                    }
+                    context.params[i] = tokenizer.getNumber();
+                    //椭圆弧的第4、5个值是只有一个字符的标志位
+                    token = isArc && (i == 2 || i == 3) ? tokenizer.nextFlag() : tokenizer.next();
+                }
+                context.addSegment(segmentAnchor, paramsNeed);
+
+                //起始符之后省略的锚点符是直线
+                segmentAnchor = anchor == 'M' ? 'L' : (anchor == 'm' ? 'l' : anchor);
+            } while (paramsNeed > 0 && token == SvgPathTokenizer.TOKEN_NUMBER);
         }
 
-        return mTempSB.toString();
+        return true;
     }
 
     /**
-     * 将一条子路径的数据解析为数据集，添加到svg数据集中
-     * 外面已经排除了非法字符，因此这里不再做处理
-     *
-     * @param pathData 子路径字符串，需要进一步解析成数据集
-     * @param map svg数据集
+     * 记录错误位置，校验时不输出日志
+     * @return 总是返回false
      */
-    private boolean saveToMap(String pathData, final HashMap<String, float[]> map) {
-        char anchor = pathData.charAt(0);
-
-        int paramsNeed = getAnchorParamNum(anchor);
-        if (paramsNeed == INDEX_ERROR) {
-            SvgLog.I("无法识别的锚点符：" + anchor);
-            map.clear();
+    private boolean fail(@NonNull ParseContext context, int token) {
+        final SvgPathTokenizer tokenizer = context.tokenizer;
+        context.errorOffset = token == SvgPathTokenizer.TOKEN_ERROR ? tokenizer.getErrorIndex() : tokenizer.getTokenStart();
+        if (context.isValidateOnly()) {
             return false;
         }
 
-        float[] paramArray = new float[paramsNeed];
-
-//        SvgLog.I("锚点符：" + anchor + ", 值个数：" + paramsNeed, "PEEK");
-
-        int maxLen = pathData.length();
-        //将字符串中的所有值解析出来
-        for (int i = 1; i < maxLen; i++) {
-            char c = pathData.charAt(i);
+        if (tokenizer.getIOException() != null) {
+            SvgLog.I("错误，读取数据失败：" + tokenizer.getIOException());
+        } else if (token == SvgPathTokenizer.TOKEN_ERROR) {
+            SvgLog.I("错误，发现非法字符或数值，位置：" + tokenizer.getErrorIndex());
+        } else {
+            SvgLog.I("错误，解析失败。当前位置：" + tokenizer.getTokenStart());
+        }
+        return false;
+    }
 
-            //不允许以分隔符为数值左端
-            if (c == SvgConsts.SEPARATOR) {
-                continue;
-            }
+    /**
+     * 一次解析过程的所有状态，每个线程一份，在同一个线程中的多次解析之间复用
+     */
+    private static final class ParseContext {
+        /** 解析结束之后{@link #resultBuilder}保留的最大容量，超出时释放，和按字符串长度估算的上限一致 */
+        private static final int MAX_RETAINED_COMMANDS = 4096;
+        private static final int MAX_RETAINED_COORDS = 65536;
+
+        final SvgPathTokenizer tokenizer = new SvgPathTokenizer();
+
+        /** 解析结果的临时数组，线程私有，在同一个线程中的多次解析之间复用，不需要加锁 */
+        final SvgPathData.Builder resultBuilder = new SvgPathData.Builder();
+
+        /** 当前锚点符的值 */
+        final float[] params = new float[7];
+
+        /** 解析结果，为null时只校验语法和计数 */
+        SvgPathData.Builder builder;
+
+        /** 按字符串中的写法计数 */
+        int subPathCount, segmentCount, coordCount, arcCount;
+
+        /** 当前是否有未闭合的path，用于计算path个数 */
+        boolean isPathOpen;
+
+        int errorOffset;
+
+        /** 末端坐标和当前子路径的起点，规则和{@link #createSvgPath(SvgPathData, float[])}一致 */
+        float x, y, startX, startY;
+
+        /** 上一段路径是否是椭圆弧。椭圆弧已经被转换为C，之后的S/T不能再按C的控制点计算对称点 */
+        boolean isAfterArc;
+
+        /**
+         * 开始一次解析
+         * @param builder 为null时只校验
+         */
+        void begin(@Nullable SvgPathData.Builder builder) {
+            this.builder = builder;
+            subPathCount = 0;
+            segmentCount = 0;
+            coordCount = 0;
+            arcCount = 0;
+            isPathOpen = false;
+            errorOffset = -1;
+            x = y = startX = startY = 0f;
+            isAfterArc = false;
+        }
 
-            mTempSB.delete(0, mTempSB.length());
+        /** 解除对输入数据和结果的引用，清空复用的临时数组 */
+        void end() {
+            builder = null;
+            resultBuilder.reset(MAX_RETAINED_COMMANDS, MAX_RETAINED_COORDS);
+            tokenizer.release();
+        }
 
-            int rIndex = i;
-            //这里只有分隔符和值相关的字符，并且只会以值相关的字符为数值左端
-            //找到一个分隔符就转化一个值
-            while (c != SvgConsts.SEPARATOR) {
-                mTempSB.append(c);
+        boolean isValidateOnly() {
+            return builder == null;
+        }
 
-                //到达结尾，退出循环
-                if (rIndex == maxLen - 1) {
-                    break;
+        /**
+         * 写出一段路径，同时更新末端坐标
+         * @param paramNum {@link #params}中有效的值个数
+         */
+        void addSegment(char anchor, int paramNum) {
+            //计数规则和countSvgPath()一致：没有未闭合的path或者遇到起始符时，开始一个新的path
+            segmentCount++;
+            coordCount += paramNum;
+            if (!isPathOpen || anchor == 'M' || anchor == 'm') {
+                subPathCount++;
+                isPathOpen = true;
+            }
+            if (anchor == 'Z' || anchor == 'z') {
+                isPathOpen = false;
+            }
+            if (builder == null) {
+                if (anchor == 'A' || anchor == 'a') {
+                    arcCount++;
                 }
-
-                rIndex++;
-                c = pathData.charAt(rIndex);
+                return ;
             }
 
-            //while循环出来后，只需要解析sb的数据就行了。
-            float num = parseNum(mTempSB.toString());
-//            SvgLog.I("转换字符串得到一个值：" + num, "PEEK");
-            if (num == INVALID_VALUE) {
-                SvgLog.I("错误，解析值失败");
-                map.clear();
-                return false;
+            final float[] p = params;
+            if (anchor == 'A' || anchor == 'a') {
+                float endX = anchor == 'A' ? p[5] : x + p[5];
+                float endY = anchor == 'A' ? p[6] : y + p[6];
+                SvgArc.appendCubics(builder, x, y, p[0], p[1], p[2], p[3] != 0f, p[4] != 0f, endX, endY);
+                x = endX;
+                y = endY;
+                isAfterArc = true;
+                return ;
             }
 
-            //支持连续相同锚点符的子路径的简略写法（省略第一条子路径之后的锚点符）
-            //如果值已经够了，但仍未结束，则说明存在连续且相同锚点符的子路径，但字符串中省略了锚点符
-            if (paramsNeed == 0) {
-                SvgLog.I("已得到足够的值，但仍存在值，说明有相同锚点符的多条子路径");
-                map.put(anchor + "" + map.size(), paramArray);
-                paramsNeed = paramArray.length;
+            final boolean isSmoothAfterArc = isAfterArc
+                    && (anchor == 'S' || anchor == 's' || anchor == 'T' || anchor == 't');
+            isAfterArc = false;
+            if (isSmoothAfterArc) {
+                addSmoothAfterArc(anchor);
+                return ;
             }
 
-            paramArray[paramArray.length - paramsNeed] = num;
-            paramsNeed--;
-
-            // 此时i为值的左端，rIndex为分隔符位置或字符串末端，c是末端字符
-            i = rIndex;
-        }
-
-        //如果未能找到足够的值，则视为错误
-        if (paramsNeed > 0) {
-            SvgLog.I("错误，未能找到足够的值。锚点符：" + anchor + ", found=" + paramsNeed + ", need=" + getAnchorParamNum(anchor));
-            map.clear();
-            return false;
-        }
-
-        map.put(anchor + "" + map.size(), paramArray);
-        
-        return true;
-    }
+            builder.addCommand(anchor);
+            for (int i = 0; i < paramNum; i++) {
+                builder.addCoord(p[i]);
+            }
 
-    /** 解析出一个值 */
-    private float parseNum(@NonNull String data) {
-        float num;
-        try {
-            num = Float.parseFloat(data);
-        } catch (Exception e) {
-            SvgLog.I("解析值的时候出现异常：" + e.getLocalizedMessage());
-            e.printStackTrace();
-            num = INVALID_VALUE;
+            switch (anchor) {
+                case 'M':
+                    x = startX = p[0];
+                    y = startY = p[1];
+                    break;
+                case 'm':
+                    x = startX = x + p[0];
+                    y = startY = y + p[1];
+                    break;
+                case 'H':
+                    x = p[0];
+                    break;
+                case 'h':
+                    x += p[0];
+                    break;
+                case 'V':
+                    y = p[0];
+                    break;
+                case 'v':
+                    y += p[0];
+                    break;
+                case 'Z':
+                case 'z':
+                    x = startX;
+                    y = startY;
+                    break;
+                default:
+                    //L T Q C S：最后一对值是末端坐标
+                    if (anchor >= 'a') {
+                        x += p[paramNum - 2];
+                        y += p[paramNum - 1];
+                    } else {
+                        x = p[paramNum - 2];
+                        y = p[paramNum - 1];
+                    }
+                    break;
+            }
         }
-        return num;
-    }
-
-    /** 获得指定锚点符子路径的值个数 */
-    private int getAnchorParamNum(char anchor) {
-        int ret = INDEX_ERROR;
 
-        int index = SvgConsts.SVG_ANCHOR_ALL.indexOf(anchor);
-        if (index != -1) {
-            ret = ANCHOR_VALUE_NUM[index];
+        /**
+         * svg规范：上一段不是C/S（或者Q/T）时，S（或者T）的第一个控制点就是当前点。
+         * 椭圆弧已经被写成C，如果保留S/T，生成路径和规范化时会错误地使用椭圆弧最后一个控制点的对称点，
+         * 因此直接写成第一个控制点为当前点的绝对位置C/Q
+         */
+        private void addSmoothAfterArc(char anchor) {
+            final float[] p = params;
+            final boolean isRelative = anchor >= 'a';
+            final float baseX = isRelative ? x : 0f;
+            final float baseY = isRelative ? y : 0f;
+            final boolean isCubic = anchor == 'S' || anchor == 's';
+
+            builder.addCommand(isCubic ? 'C' : 'Q');
+            builder.addCoord(x);
+            builder.addCoord(y);
+            builder.addCoord(baseX + p[0]);
+            builder.addCoord(baseY + p[1]);
+            if (isCubic) {
+                builder.addCoord(baseX + p[2]);
+                builder.addCoord(baseY + p[3]);
+                x = baseX + p[2];
+                y = baseY + p[3];
+            } else {
+                x = baseX + p[0];
+                y = baseY + p[1];
+            }
         }
-        return ret;
-    }
-
-    private boolean isSvgChar(char c) {
-        return SvgConsts.SVG_CHAR_ALL.indexOf(c) >= 0;
-    }
-
-    private boolean isAnchor(char c) {
-        return SvgConsts.SVG_ANCHOR_ALL.indexOf(c) >= 0;
     }
 }
@@ -0,0 +1,103 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.graphics.Matrix;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 15:20
+ * Description: 从完整的.svg文档中编译得到的多路径模型，由{@link SvgDocumentLoader}生成。
+ *
+ *  文档中所有的<path>按顺序合并成一个{@link SvgPathData}，每个<path>都以绝对位置的起始符M开始；
+ *  合并后的数据集按照{@link SvgDataParser#createSvgPath(SvgPathData)}的规则生成path数组，
+ *  第i个path的填充颜色、描边颜色和变换矩阵保存在各个数组的第i个位置。
+ *
+ *  颜色为{@link android.graphics.Color#TRANSPARENT}表示不需要绘制（"none"）；
+ *  变换矩阵为null表示没有变换。
+ */
+public final class SvgDocument {
+
+    private final SvgPathData mPathData;
+
+    private final int[] mFillColors;
+
+    private final int[] mStrokeColors;
+
+    /** 为null时表示所有的path都没有变换 */
+    private final Matrix[] mMatrices;
+
+    private final boolean mHasStroke;
+
+    SvgDocument(@NonNull SvgPathData pathData, @NonNull int[] fillColors, @NonNull int[] strokeColors,
+                @Nullable Matrix[] matrices, boolean hasStroke) {
+        mPathData = pathData;
+        mFillColors = fillColors;
+        mStrokeColors = strokeColors;
+        mMatrices = matrices;
+        mHasStroke = hasStroke;
+    }
+
+    /** 合并后的svg数据集 */
+    @NonNull
+    public SvgPathData getPathData() {
+        return mPathData;
+    }
+
+    /** 生成的path个数 */
+    public int getPathCount() {
+        return mFillColors.length;
+    }
+
+    public int getFillColor(int index) {
+        return mFillColors[index];
+    }
+
+    public int getStrokeColor(int index) {
+        return mStrokeColors[index];
+    }
+
+    /** 是否有任何一个path需要描边 */
+    public boolean hasStroke() {
+        return mHasStroke;
+    }
+
+    /** 是否有任何一个path带有变换 */
+    public boolean hasTransform() {
+        return mMatrices != null;
+    }
+
+    public int[] copyFillColors() {
+        return Arrays.copyOf(mFillColors, mFillColors.length);
+    }
+
+    public int[] copyStrokeColors() {
+        return Arrays.copyOf(mStrokeColors, mStrokeColors.length);
+    }
+
+    /**
+     * 复制一份所有path的变换矩阵，得到的矩阵可以随意修改
+     * @return 没有任何变换时返回null
+     */
+    @Nullable
+    public Matrix[] copyMatrices() {
+        if (mMatrices == null) {
+            return null;
+        }
+
+        Matrix[] matrices = new Matrix[mMatrices.length];
+        for (int i = 0; i < mMatrices.length; i++) {
+            if (mMatrices[i] != null) {
+                matrices[i] = new Matrix(mMatrices[i]);
+            }
+        }
+        return matrices;
+    }
+
+    @Override
+    public String toString() {
+        return "SvgDocument{paths=" + getPathCount() + ", data=" + mPathData + ", transform=" + hasTransform() + "}";
+    }
+}
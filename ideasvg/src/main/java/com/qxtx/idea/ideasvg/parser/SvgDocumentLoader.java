@@ -0,0 +1,506 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
+import android.util.Xml;
+
+import com.qxtx.idea.ideasvg.tools.SvgLog;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 15:20
+ * Description: 加载完整的.svg文档，生成{@link SvgDocument}。
+ *
+ *  使用{@link XmlPullParser}流式读取xml，不构建DOM树，遇到<path>时立即解析它的d属性并合并到同一个数据集中，
+ *  因此加载耗时和内存占用都和文档大小成线性关系。
+ *
+ *  支持的内容：
+ *      1、<path>的d、fill、stroke、fill-opacity、stroke-opacity、opacity、transform属性，以及style属性中的同名项；
+ *      2、<g>/<svg>等容器元素的上述属性会被子元素继承，变换矩阵逐层叠加；
+ *      3、颜色：none、#rgb、#rrggbb、rgb(r,g,b)、颜色名称；无法识别的颜色（例如渐变url(#id)）沿用父元素的颜色；
+ *      4、变换：matrix、translate、scale、rotate、skewX、skewY；
+ *      5、<defs>、<clipPath>、<mask>、<symbol>、<pattern>、<marker>中的内容不会被绘制，直接跳过；
+ *
+ *  线程安全：所有方法都不持有共享状态，可以在后台线程中加载。
+ */
+public final class SvgDocumentLoader {
+
+    /** 这些元素中的内容不会被直接绘制 */
+    private static final String[] SKIPPED_TAGS = new String[] {"defs", "clipPath", "mask", "symbol", "pattern", "marker"};
+
+    /** 解析器不持有状态，可以被所有线程共享 */
+    private static final SvgDataParser PARSER = new SvgDataParser();
+
+    private SvgDocumentLoader() {
+    }
+
+    /**
+     * 从assets中加载svg文档
+     * @return 加载失败或者文档中没有任何path时，返回null
+     */
+    @Nullable
+    public static SvgDocument fromAsset(@NonNull Context context, @NonNull String assetName) {
+        InputStream input = null;
+        try {
+            input = context.getAssets().open(assetName);
+            return load(input);
+        } catch (IOException e) {
+            SvgLog.I("无法打开svg文档：" + assetName + ", " + e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * 从res/raw中加载svg文档
+     * @return 加载失败或者文档中没有任何path时，返回null
+     */
+    @Nullable
+    public static SvgDocument fromRaw(@NonNull Context context, @RawRes int resId) {
+        InputStream input = null;
+        try {
+            input = context.getResources().openRawResource(resId);
+            return load(input);
+        } catch (Exception e) {
+            SvgLog.I("无法打开svg文档：" + resId + ", " + e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * 从文件中加载svg文档
+     * @return 加载失败或者文档中没有任何path时，返回null
+     */
+    @Nullable
+    public static SvgDocument fromFile(@NonNull File file) {
+        InputStream input = null;
+        try {
+            input = new BufferedInputStream(new FileInputStream(file));
+            return load(input);
+        } catch (IOException e) {
+            SvgLog.I("无法打开svg文档：" + file + ", " + e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * 从字节流中加载svg文档，编码由xml声明决定。不会关闭字节流。
+     * @return 加载失败或者文档中没有任何path时，返回null
+     */
+    @Nullable
+    public static SvgDocument load(@NonNull InputStream input) {
+        try {
+            XmlPullParser parser = Xml.newPullParser();
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+            parser.setInput(input, null);
+            return loadImpl(parser);
+        } catch (XmlPullParserException | IOException e) {
+            SvgLog.I("解析svg文档失败：" + e.getMessage());
+            return null;
+        }
+    }
+
+    private static SvgDocument loadImpl(@NonNull XmlPullParser parser) throws XmlPullParserException, IOException {
+        final SvgPathData.Builder builder = new SvgPathData.Builder();
+        final PathStyleList styleList = new PathStyleList();
+
+        //每一层元素的样式，子元素继承父元素的样式
+        final ArrayList<Style> styleStack = new ArrayList<>();
+        styleStack.add(new Style());
+
+        int skipDepth = 0;
+        int event = parser.getEventType();
+        while (event != XmlPullParser.END_DOCUMENT) {
+            if (event == XmlPullParser.START_TAG) {
+                String tag = parser.getName();
+                if (skipDepth > 0 || isSkippedTag(tag)) {
+                    skipDepth++;
+                } else {
+                    Style style = styleStack.get(styleStack.size() - 1).inherit(parser);
+                    styleStack.add(style);
+                    if ("path".equals(tag)) {
+                        addPath(parser.getAttributeValue(null, "d"), style, builder, styleList);
+                    }
+                }
+            } else if (event == XmlPullParser.END_TAG) {
+                if (skipDepth > 0) {
+                    skipDepth--;
+                } else if (styleStack.size() > 1) {
+                    styleStack.remove(styleStack.size() - 1);
+                }
+            }
+            event = parser.next();
+        }
+
+        if (styleList.count == 0) {
+            SvgLog.I("svg文档中没有可以绘制的path");
+            return null;
+        }
+
+        return styleList.toDocument(builder.build());
+    }
+
+    /** 解析一个<path>的d属性，合并到数据集中 */
+    private static void addPath(String d, @NonNull Style style, @NonNull SvgPathData.Builder builder,
+                                @NonNull PathStyleList styleList) {
+        if (d == null || d.length() == 0) {
+            return ;
+        }
+
+        SvgPathData data = PARSER.svgString2Data(d);
+        if (data == null || data.isEmpty()) {
+            SvgLog.I("忽略无法解析的path：" + (d.length() > 32 ? d.substring(0, 32) + "..." : d));
+            return ;
+        }
+
+        final byte[] commands = data.commands;
+        for (int i = 0; i < commands.length; i++) {
+            char anchor = (char) commands[i];
+            //每个<path>都以坐标原点为参照，合并之后第一个相对起始符需要变成绝对位置
+            builder.addCommand(i == 0 && anchor == 'm' ? 'M' : anchor);
+        }
+        for (float coord : data.coords) {
+            builder.addCoord(coord);
+        }
+
+        int pathCount = SvgDataParser.countSvgPath(commands, 0, commands.length);
+        styleList.add(style.getFillColor(), style.getStrokeColor(), style.matrix, pathCount);
+    }
+
+    private static boolean isSkippedTag(String tag) {
+        for (String skipped : SKIPPED_TAGS) {
+            if (skipped.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void closeQuietly(InputStream input) {
+        if (input != null) {
+            try {
+                input.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 解析颜色
+     * @param fallback 无法识别时使用的颜色
+     */
+    static int parseColor(@NonNull String value, int fallback) {
+        String color = value.trim();
+        if (color.length() == 0 || "currentColor".equals(color) || "inherit".equals(color)) {
+            return fallback;
+        }
+        if ("none".equals(color)) {
+            return Color.TRANSPARENT;
+        }
+
+        try {
+            if (color.charAt(0) == '#' && color.length() == 4) {
+                int r = Integer.parseInt(color.substring(1, 2), 16);
+                int g = Integer.parseInt(color.substring(2, 3), 16);
+                int b = Integer.parseInt(color.substring(3, 4), 16);
+                return Color.rgb(r * 17, g * 17, b * 17);
+            }
+            if (color.startsWith("rgb(") && color.endsWith(")")) {
+                String[] parts = color.substring(4, color.length() - 1).split(",");
+                if (parts.length == 3) {
+                    return Color.rgb(parseColorChannel(parts[0]), parseColorChannel(parts[1]), parseColorChannel(parts[2]));
+                }
+            } else {
+                return Color.parseColor(color);
+            }
+        } catch (IllegalArgumentException e) {
+            //包含NumberFormatException
+        }
+
+        SvgLog.I("无法识别的颜色：" + value);
+        return fallback;
+    }
+
+    private static int parseColorChannel(String channel) {
+        String value = channel.trim();
+        float v;
+        if (value.endsWith("%")) {
+            v = Float.parseFloat(value.substring(0, value.length() - 1)) * 2.55f;
+        } else {
+            v = Float.parseFloat(value);
+        }
+        return Math.max(0, Math.min(255, Math.round(v)));
+    }
+
+    /**
+     * 解析变换属性，按顺序叠加到matrix上
+     * @return 是否解析成功
+     */
+    static boolean parseTransform(@NonNull String value, @NonNull Matrix matrix) {
+        final int length = value.length();
+        final float[] args = new float[6];
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == ',') {
+                i++;
+                continue;
+            }
+
+            int open = value.indexOf('(', i);
+            int close = open < 0 ? -1 : value.indexOf(')', open);
+            if (close < 0) {
+                return false;
+            }
+
+            String name = value.substring(i, open).trim();
+            int argCount = parseNumbers(value, open + 1, close, args);
+            if (argCount < 0 || !applyTransform(name, args, argCount, matrix)) {
+                return false;
+            }
+            i = close + 1;
+        }
+        return true;
+    }
+
+    private static boolean applyTransform(String name, float[] args, int argCount, Matrix matrix) {
+        switch (name) {
+            case "matrix":
+                if (argCount != 6) {
+                    return false;
+                }
+                //svg的matrix(a,b,c,d,e,f)对应的矩阵为[a c e][b d f][0 0 1]
+                Matrix m = new Matrix();
+                m.setValues(new float[] {args[0], args[2], args[4], args[1], args[3], args[5], 0f, 0f, 1f});
+                matrix.preConcat(m);
+                return true;
+            case "translate":
+                if (argCount != 1 && argCount != 2) {
+                    return false;
+                }
+                matrix.preTranslate(args[0], argCount == 2 ? args[1] : 0f);
+                return true;
+            case "scale":
+                if (argCount != 1 && argCount != 2) {
+                    return false;
+                }
+                matrix.preScale(args[0], argCount == 2 ? args[1] : args[0]);
+                return true;
+            case "rotate":
+                if (argCount == 1) {
+                    matrix.preRotate(args[0]);
+                    return true;
+                } else if (argCount == 3) {
+                    matrix.preRotate(args[0], args[1], args[2]);
+                    return true;
+                }
+                return false;
+            case "skewX":
+                if (argCount != 1) {
+                    return false;
+                }
+                matrix.preSkew((float) Math.tan(Math.toRadians(args[0])), 0f);
+                return true;
+            case "skewY":
+                if (argCount != 1) {
+                    return false;
+                }
+                matrix.preSkew(0f, (float) Math.tan(Math.toRadians(args[0])));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 读取[start, end)中以空白字符或者逗号分隔的数值
+     * @return 数值个数，格式错误或者数值过多时返回-1
+     */
+    private static int parseNumbers(String value, int start, int end, float[] out) {
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == ',') {
+                i++;
+                continue;
+            }
+
+            int numberEnd = i + 1;
+            while (numberEnd < end) {
+                char n = value.charAt(numberEnd);
+                if (n <= ' ' || n == ',' || ((n == '-' || n == '+') && value.charAt(numberEnd - 1) != 'e' && value.charAt(numberEnd - 1) != 'E')) {
+                    break;
+                }
+                numberEnd++;
+            }
+
+            if (count == out.length) {
+                return -1;
+            }
+            try {
+                out[count++] = Float.parseFloat(value.substring(i, numberEnd));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            i = numberEnd;
+        }
+        return count;
+    }
+
+    /**
+     * 一个元素的样式，创建之后不再修改
+     */
+    private static final class Style {
+        /** svg中fill的默认值为黑色 */
+        int fill = Color.BLACK;
+        /** svg中stroke的默认值为none */
+        int stroke = Color.TRANSPARENT;
+        float fillOpacity = 1f;
+        float strokeOpacity = 1f;
+        float opacity = 1f;
+        /** 为null时表示没有变换 */
+        Matrix matrix;
+
+        /** 在当前样式的基础上，读取元素自身的属性，生成子元素的样式 */
+        Style inherit(@NonNull XmlPullParser parser) {
+            Style style = new Style();
+            style.fill = fill;
+            style.stroke = stroke;
+            style.fillOpacity = fillOpacity;
+            style.strokeOpacity = strokeOpacity;
+            style.opacity = opacity;
+            style.matrix = matrix;
+
+            for (int i = 0; i < parser.getAttributeCount(); i++) {
+                String name = parser.getAttributeName(i);
+                String value = parser.getAttributeValue(i);
+                if ("style".equals(name)) {
+                    continue;
+                }
+                style.apply(name, value, this);
+            }
+
+            //style属性的优先级高于同名的属性
+            String inlineStyle = parser.getAttributeValue(null, "style");
+            if (inlineStyle != null) {
+                for (String item : inlineStyle.split(";")) {
+                    int colon = item.indexOf(':');
+                    if (colon > 0) {
+                        style.apply(item.substring(0, colon).trim(), item.substring(colon + 1), this);
+                    }
+                }
+            }
+            return style;
+        }
+
+        private void apply(String name, String value, Style parent) {
+            switch (name) {
+                case "fill":
+                    fill = parseColor(value, parent.fill);
+                    break;
+                case "stroke":
+                    stroke = parseColor(value, parent.stroke);
+                    break;
+                case "fill-opacity":
+                    fillOpacity = parseOpacity(value, parent.fillOpacity);
+                    break;
+                case "stroke-opacity":
+                    strokeOpacity = parseOpacity(value, parent.strokeOpacity);
+                    break;
+                case "opacity":
+                    opacity = parent.opacity * parseOpacity(value, 1f);
+                    break;
+                case "transform":
+                    Matrix m = parent.matrix == null ? new Matrix() : new Matrix(parent.matrix);
+                    if (parseTransform(value, m)) {
+                        matrix = m.isIdentity() ? parent.matrix : m;
+                    } else {
+                        SvgLog.I("无法识别的变换：" + value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private static float parseOpacity(String value, float fallback) {
+            try {
+                return Math.max(0f, Math.min(1f, Float.parseFloat(value.trim())));
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        int getFillColor() {
+            return applyAlpha(fill, fillOpacity * opacity);
+        }
+
+        int getStrokeColor() {
+            return applyAlpha(stroke, strokeOpacity * opacity);
+        }
+
+        private static int applyAlpha(int color, float alpha) {
+            if (alpha >= 1f) {
+                return color;
+            }
+            return (color & 0x00FFFFFF) | (Math.round(Color.alpha(color) * alpha) << 24);
+        }
+    }
+
+    /**
+     * 每个path的样式，按需扩容
+     */
+    private static final class PathStyleList {
+        int[] fills = new int[16];
+        int[] strokes = new int[16];
+        Matrix[] matrices = new Matrix[16];
+        int count;
+        boolean hasStroke;
+        boolean hasTransform;
+
+        /** 同一个<path>生成的多个path使用相同的样式 */
+        void add(int fill, int stroke, Matrix matrix, int pathCount) {
+            int need = count + pathCount;
+            if (need > fills.length) {
+                int capacity = Math.max(need, fills.length << 1);
+                fills = Arrays.copyOf(fills, capacity);
+                strokes = Arrays.copyOf(strokes, capacity);
+                matrices = Arrays.copyOf(matrices, capacity);
+            }
+
+            Arrays.fill(fills, count, need, fill);
+            Arrays.fill(strokes, count, need, stroke);
+            Arrays.fill(matrices, count, need, matrix);
+            count = need;
+
+            hasStroke |= Color.alpha(stroke) != 0;
+            hasTransform |= matrix != null;
+        }
+
+        SvgDocument toDocument(@NonNull SvgPathData data) {
+            return new SvgDocument(data, Arrays.copyOf(fills, count), Arrays.copyOf(strokes, count),
+                    hasTransform ? Arrays.copyOf(matrices, count) : null, hasStroke);
+        }
+    }
+}
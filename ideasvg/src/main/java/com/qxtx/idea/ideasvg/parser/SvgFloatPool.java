@@ -0,0 +1,174 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 22:30
+ * Description: 进程内共享的float数组池，缩放和变换动画的工作缓冲区从这里获取，用完归还。
+ *  解析时的临时数组是线程私有的，不经过数组池，多个线程同时解析时不会竞争这里的锁。
+ *
+ *  1、按2的幂分级，获取的数组长度为不小于需要长度的2的幂，因此长度通常大于需要的长度；
+ *  2、每一级最多保存{@link #MAX_ARRAYS_PER_CLASS}个数组，全部保存的数组不超过指定的字节数，超出时直接丢弃；
+ *  3、超过最大等级的数组不进入数组池；
+ *  4、归还之后不能再使用这个数组，也不能重复归还。不可变的{@link SvgPathData}中的数组永远不能归还；
+ *
+ *  在同样大小的svg之间反复切换时，工作缓冲区全部来自数组池，几乎不会产生垃圾。
+ *  线程安全，可以在后台线程中使用。
+ */
+public final class SvgFloatPool {
+
+    /** 默认最多保存的字节数 */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 2 * 1024 * 1024;
+
+    /** 最小的一级为2^MIN_CLASS个float */
+    private static final int MIN_CLASS = 4;
+
+    /** 最大的一级为2^MAX_CLASS个float */
+    private static final int MAX_CLASS = 20;
+
+    private static final int MAX_ARRAYS_PER_CLASS = 4;
+
+    private static volatile SvgFloatPool sInstance;
+
+    /** 每一级保存的数组，[等级 - MIN_CLASS][下标] */
+    private final float[][][] mArrays = new float[MAX_CLASS - MIN_CLASS + 1][MAX_ARRAYS_PER_CLASS][];
+    private final int[] mArrayCounts = new int[MAX_CLASS - MIN_CLASS + 1];
+
+    private int mMaxSizeBytes;
+    private int mSizeBytes;
+
+    private int mAcquireCount;
+    private int mReuseCount;
+
+    private SvgFloatPool(int maxSizeBytes) {
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    public static SvgFloatPool getInstance() {
+        if (sInstance == null) {
+            synchronized (SvgFloatPool.class) {
+                if (sInstance == null) {
+                    sInstance = new SvgFloatPool(DEFAULT_MAX_SIZE_BYTES);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 获取长度不小于minLength的数组，其中的值是不确定的
+     */
+    @NonNull
+    public float[] acquire(int minLength) {
+        final int sizeClass = getSizeClass(minLength);
+        synchronized (this) {
+            mAcquireCount++;
+            if (sizeClass > MAX_CLASS) {
+                return new float[minLength];
+            }
+
+            final int index = sizeClass - MIN_CLASS;
+            final int count = mArrayCounts[index];
+            if (count > 0) {
+                final float[][] arrays = mArrays[index];
+                float[] array = arrays[count - 1];
+                arrays[count - 1] = null;
+                mArrayCounts[index] = count - 1;
+                mSizeBytes -= array.length * 4;
+                mReuseCount++;
+                return array;
+            }
+        }
+        return new float[1 << sizeClass];
+    }
+
+    /**
+     * 归还数组。长度不是数组池中某一级的数组、数组池已满时直接丢弃
+     */
+    public void release(float[] array) {
+        if (array == null) {
+            return ;
+        }
+        final int length = array.length;
+        final int sizeClass = getSizeClass(length);
+        if (sizeClass > MAX_CLASS || (1 << sizeClass) != length) {
+            return ;
+        }
+
+        final int index = sizeClass - MIN_CLASS;
+        synchronized (this) {
+            final int count = mArrayCounts[index];
+            if (count == MAX_ARRAYS_PER_CLASS || mSizeBytes + length * 4 > mMaxSizeBytes) {
+                return ;
+            }
+            mArrays[index][count] = array;
+            mArrayCounts[index] = count + 1;
+            mSizeBytes += length * 4;
+        }
+    }
+
+    /** 不小于length的最小的2的幂的指数，不小于MIN_CLASS */
+    private static int getSizeClass(int length) {
+        if (length <= (1 << MIN_CLASS)) {
+            return MIN_CLASS;
+        }
+        return 32 - Integer.numberOfLeadingZeros(length - 1);
+    }
+
+    /** 设置最多保存的字节数，超出的数组被丢弃 */
+    public synchronized void resize(int maxSizeBytes) {
+        mMaxSizeBytes = maxSizeBytes;
+        //从最大的一级开始丢弃
+        for (int index = mArrays.length - 1; index >= 0 && mSizeBytes > maxSizeBytes; index--) {
+            final float[][] arrays = mArrays[index];
+            while (mArrayCounts[index] > 0 && mSizeBytes > maxSizeBytes) {
+                final int last = --mArrayCounts[index];
+                mSizeBytes -= arrays[last].length * 4;
+                arrays[last] = null;
+            }
+        }
+    }
+
+    /** 丢弃所有保存的数组，统计数据不变 */
+    public synchronized void clear() {
+        for (int index = 0; index < mArrays.length; index++) {
+            final float[][] arrays = mArrays[index];
+            for (int i = 0; i < mArrayCounts[index]; i++) {
+                arrays[i] = null;
+            }
+            mArrayCounts[index] = 0;
+        }
+        mSizeBytes = 0;
+    }
+
+    /** 当前保存的数组的总字节数 */
+    public synchronized int size() {
+        return mSizeBytes;
+    }
+
+    public synchronized int maxSize() {
+        return mMaxSizeBytes;
+    }
+
+    /** 获取数组的总次数 */
+    public synchronized int acquireCount() {
+        return mAcquireCount;
+    }
+
+    /** 获取数组时直接复用了数组池中的数组的次数 */
+    public synchronized int reuseCount() {
+        return mReuseCount;
+    }
+
+    /** 复用率，范围[0,1]，还没有获取过数组时为0 */
+    public synchronized float reuseRate() {
+        return mAcquireCount == 0 ? 0f : (float) mReuseCount / mAcquireCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SvgFloatPool{size=" + mSizeBytes + "/" + mMaxSizeBytes + ", acquire=" + mAcquireCount
+                + ", reuse=" + mReuseCount + "}";
+    }
+}
@@ -0,0 +1,284 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 21:50
+ * Description: 当前显示的svg的值数组，缩放和变换动画都在同一个工作缓冲区中进行。
+ *
+ *  1、原始数据集{@link SvgPathData}不可变，只引用，不复制；
+ *  2、当前的值和原始数据集一致时不需要工作缓冲区，缩放时才按需创建，之后重复使用；
+ *  3、变换动画的起点如果是原始数据集或者它的缩放，直接按原始数据集计算，不需要备份；
+ *     只有从另一个未完成的变换动画开始时，才需要把当前的值备份一份，此时最多同时持有两个缓冲区；
+ *  4、变换动画结束后，目标数据集直接成为新的原始数据集，不需要复制；
+ *  5、缓冲区从{@link SvgFloatPool}中获取，备份在变换动画结束后、工作缓冲区在{@link #clear()}时归还；
+ *
+ *  复制整个值数组的次数见{@link #getCopyCount()}。
+ *  备注：非线程安全，只能在UI线程中使用。
+ */
+public final class SvgPathBuffer {
+
+    /** 原始数据集 */
+    private SvgPathData mData;
+
+    /** 工作缓冲区，长度可能大于数据集的值个数 */
+    private float[] mCoords;
+
+    /** 工作缓冲区中的值是否就是当前的值，否则当前的值等于原始数据集乘以{@link #mScale} */
+    private boolean mIsCoordsValid;
+
+    /** 当前的值等于原始数据集乘以这个缩放值，变换动画过程中不成比例时为NaN */
+    private float mScale = 1f;
+
+    /** 变换动画的目标 */
+    private SvgPathData mMorphTo;
+
+    /** 变换动画开始时的缩放值，起点不成比例时为NaN，此时起点保存在{@link #mMorphFrom}中 */
+    private float mMorphFromScale;
+
+    /** 变换动画不成比例的起点，只在需要时创建 */
+    private float[] mMorphFrom;
+
+    private int mCopyCount;
+
+    /**
+     * 显示新的原始数据集，只保存引用
+     */
+    public void setData(@Nullable SvgPathData data) {
+        mData = data;
+        mScale = 1f;
+        mIsCoordsValid = false;
+        mMorphTo = null;
+        releaseMorphFrom();
+    }
+
+    /** 清除数据集，同时把缓冲区归还给{@link SvgFloatPool} */
+    public void clear() {
+        setData(null);
+        SvgFloatPool.getInstance().release(mCoords);
+        mCoords = null;
+    }
+
+    @Nullable
+    public SvgPathData getData() {
+        return mData;
+    }
+
+    public boolean hasData() {
+        return mData != null && !mData.isEmpty();
+    }
+
+    /** 当前的值是否和原始数据集完全一致 */
+    public boolean isOriginal() {
+        return mScale == 1f;
+    }
+
+    /** 当前的值相对原始数据集的缩放值，变换动画过程中不成比例时为NaN */
+    public float getScale() {
+        return mScale;
+    }
+
+    /**
+     * 获得当前的值，长度可能大于数据集的值个数。返回的是工作缓冲区本身，只能读取，下一次修改之前有效。
+     * 当前的值和原始数据集一致时，会把原始数据集的值复制到工作缓冲区中，因此这种情况下应该直接使用{@link #getData()}
+     */
+    @NonNull
+    public float[] getCoords() {
+        final SvgPathData data = requireData();
+        if (!mIsCoordsValid) {
+            float[] coords = ensureCoords();
+            if (mScale == 1f) {
+                data.copyCoords(coords);
+                mCopyCount++;
+            } else {
+                scaleInto(data, mScale, coords);
+            }
+            mIsCoordsValid = true;
+        }
+        return mCoords;
+    }
+
+    /**
+     * 当前的值设为原始数据集乘以指定的缩放值
+     */
+    public void scale(float scale) {
+        final SvgPathData data = requireData();
+        mScale = scale;
+        if (scale == 1f) {
+            //和原始数据集一致时不需要写入工作缓冲区
+            mIsCoordsValid = false;
+            return ;
+        }
+        scaleInto(data, scale, ensureCoords());
+        mIsCoordsValid = true;
+    }
+
+    /**
+     * 开始变换动画，起点为当前的值
+     * @param to 目标数据集，必须和原始数据集为同型svg
+     * @return 不是同型svg时返回false
+     */
+    public boolean beginMorph(@NonNull SvgPathData to) {
+        final SvgPathData data = requireData();
+        if (!data.isSameStructure(to)) {
+            return false;
+        }
+
+        mMorphTo = to;
+        mMorphFromScale = mScale;
+        if (mScale != mScale) {
+            //起点是另一个未完成的变换动画，只能备份当前的值
+            final int count = data.getCoordCount();
+            if (mMorphFrom == null || mMorphFrom.length < count) {
+                releaseMorphFrom();
+                mMorphFrom = SvgFloatPool.getInstance().acquire(count);
+            }
+            System.arraycopy(mCoords, 0, mMorphFrom, 0, count);
+            mCopyCount++;
+        } else {
+            releaseMorphFrom();
+        }
+        return true;
+    }
+
+    /**
+     * 按照进度计算变换动画的当前值
+     * @param fraction 0为起点，1为终点
+     */
+    public void morph(float fraction) {
+        final SvgPathData data = requireData();
+        final SvgPathData to = mMorphTo;
+        if (to == null) {
+            throw new IllegalStateException("morph not started");
+        }
+
+        final float[] coords = ensureCoords();
+        final float[] dest = to.coords;
+        final int count = data.getCoordCount();
+        final float[] from = mMorphFrom;
+        if (from != null) {
+            for (int i = 0; i < count; i++) {
+                coords[i] = from[i] + (dest[i] - from[i]) * fraction;
+            }
+        } else {
+            final float[] ori = data.coords;
+            final float fromScale = mMorphFromScale;
+            for (int i = 0; i < count; i++) {
+                float start = ori[i] * fromScale;
+                coords[i] = start + (dest[i] - start) * fraction;
+            }
+        }
+        mIsCoordsValid = true;
+        mScale = Float.NaN;
+    }
+
+    /** 变换动画完成，目标数据集成为新的原始数据集 */
+    public void endMorph() {
+        if (mMorphTo == null) {
+            return ;
+        }
+        mData = mMorphTo;
+        mScale = 1f;
+        mIsCoordsValid = false;
+        mMorphTo = null;
+        releaseMorphFrom();
+    }
+
+    /**
+     * 变换动画被取消，保持当前的值。当前的值已经不是原始数据集的缩放，因此复制一份成为新的原始数据集
+     */
+    public void cancelMorph() {
+        if (mMorphTo == null) {
+            return ;
+        }
+        mMorphTo = null;
+        releaseMorphFrom();
+        if (mScale != mScale) {
+            final SvgPathData data = mData;
+            mData = new SvgPathData(data.commands, Arrays.copyOf(mCoords, data.getCoordCount()), data.isNormalized());
+            mCopyCount++;
+            mScale = 1f;
+            mIsCoordsValid = false;
+        }
+    }
+
+    public boolean isMorphing() {
+        return mMorphTo != null;
+    }
+
+    /**
+     * 变换动画中[from, to)范围内的值是否会变化，起点和终点完全相同时，这部分值在整个动画过程中保持不变
+     */
+    public boolean isMorphChanged(int from, int to) {
+        final SvgPathData dest = mMorphTo;
+        if (dest == null) {
+            return false;
+        }
+
+        final float[] target = dest.coords;
+        final float[] start = mMorphFrom;
+        if (start != null) {
+            for (int i = from; i < to; i++) {
+                if (start[i] != target[i]) {
+                    return true;
+                }
+            }
+        } else {
+            final float[] ori = mData.coords;
+            final float fromScale = mMorphFromScale;
+            for (int i = from; i < to; i++) {
+                if (ori[i] * fromScale != target[i]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** 复制整个值数组的次数，包括变换动画的备份 */
+    public int getCopyCount() {
+        return mCopyCount;
+    }
+
+    /** 当前持有的值数组的个数，不包括不可变的数据集 */
+    public int getBufferCount() {
+        return (mCoords != null ? 1 : 0) + (mMorphFrom != null ? 1 : 0);
+    }
+
+    @NonNull
+    private SvgPathData requireData() {
+        if (mData == null) {
+            throw new IllegalStateException("no svg data");
+        }
+        return mData;
+    }
+
+    /** 工作缓冲区，长度不足时重新获取，原有的值不会保留 */
+    private float[] ensureCoords() {
+        final int count = mData.getCoordCount();
+        if (mCoords == null || mCoords.length < count) {
+            final SvgFloatPool pool = SvgFloatPool.getInstance();
+            pool.release(mCoords);
+            mCoords = pool.acquire(count);
+        }
+        return mCoords;
+    }
+
+    private void releaseMorphFrom() {
+        if (mMorphFrom != null) {
+            SvgFloatPool.getInstance().release(mMorphFrom);
+            mMorphFrom = null;
+        }
+    }
+
+    private static void scaleInto(@NonNull SvgPathData data, float scale, @NonNull float[] dst) {
+        final float[] ori = data.coords;
+        for (int i = 0; i < ori.length; i++) {
+            dst[i] = ori[i] * scale;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 14:30
+ * Description: 进程内共享的路径集缓存（享元），以svg数据集为键，缓存已经生成好的{@link Path}列表。
+ *
+ *  多个view显示同一个svg时，共享同一份路径，不再各自生成一份相同的几何数据；
+ *  返回的列表不可修改，列表中的{@link Path}也只能读取和绘制，不能被修改（例如reset、transform）。
+ *  需要修改路径的使用者（裁剪动画、变换动画、缩放）必须先复制，即写时复制；
+ *  线程安全，可以在后台线程中使用。
+ */
+public final class SvgPathCache {
+
+    /** 默认的缓存容量，单位：字节（估算值） */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    /** 每个Path对象的固定开销估算值 */
+    private static final int PATH_OVERHEAD_BYTES = 128;
+
+    /** 每个锚点符在native层的开销估算值 */
+    private static final int COMMAND_BYTES = 16;
+
+    private static volatile SvgPathCache sInstance;
+
+    /** 解析器不持有状态，可以被所有线程共享 */
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    private final LruCache<SvgPathData, List<Path>> mCache;
+
+    private SvgPathCache(int maxSizeBytes) {
+        mCache = new LruCache<SvgPathData, List<Path>>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(SvgPathData key, List<Path> value) {
+                return estimateSize(key, value.size());
+            }
+        };
+    }
+
+    public static SvgPathCache getInstance() {
+        if (sInstance == null) {
+            synchronized (SvgPathCache.class) {
+                if (sInstance == null) {
+                    sInstance = new SvgPathCache(DEFAULT_MAX_SIZE_BYTES);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 获得svg数据集对应的只读路径集。如果缓存中不存在，则生成并放入缓存
+     * @return 不可修改的路径集，无法生成路径时返回null
+     */
+    @Nullable
+    public List<Path> get(@NonNull SvgPathData data) {
+        List<Path> pathList = mCache.get(data);
+        if (pathList != null) {
+            return pathList;
+        }
+
+        ArrayList<Path> created = mParser.createSvgPath(data);
+        if (created == null) {
+            return null;
+        }
+
+        pathList = Collections.unmodifiableList(created);
+        if (estimateSize(data, pathList.size()) <= mCache.maxSize()) {
+            mCache.put(data, pathList);
+        }
+        return pathList;
+    }
+
+    /** 修改缓存容量，单位：字节 */
+    public void resize(int maxSizeBytes) {
+        mCache.resize(maxSizeBytes);
+    }
+
+    /** 清空缓存，已经被view持有的路径不受影响 */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    public int size() {
+        return mCache.size();
+    }
+
+    public int maxSize() {
+        return mCache.maxSize();
+    }
+
+    public int hitCount() {
+        return mCache.hitCount();
+    }
+
+    public int missCount() {
+        return mCache.missCount();
+    }
+
+    public int evictionCount() {
+        return mCache.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return "SvgPathCache{size=" + size() + "/" + maxSize() + ", hit=" + hitCount()
+                + ", miss=" + missCount() + ", eviction=" + evictionCount() + "}";
+    }
+
+    private static int estimateSize(SvgPathData data, int pathCount) {
+        return pathCount * PATH_OVERHEAD_BYTES + data.getCommandCount() * COMMAND_BYTES + data.getCoordCount() * 4;
+    }
+}
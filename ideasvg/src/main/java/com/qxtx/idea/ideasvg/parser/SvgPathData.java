@@ -0,0 +1,297 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import com.qxtx.idea.ideasvg.SvgConsts;
+
+import java.util.Arrays;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 10:05
+ * Description: 不可变的svg路径数据集，代替原来的 LinkedHashMap<String, float[]>。
+ *
+ *  所有锚点符按顺序保存在一个byte数组中，所有锚点符的值按顺序连续保存在一个float数组中，
+ *  第i个锚点符的值个数见{@link #getAnchorParamNum(char)}。
+ *  椭圆弧A/a在解析时已经被转换为C，数据集中不会出现A/a。
+ *  规范数据集（见{@link #normalize()}）只包含绝对位置的M、L、C、Q、Z，每个path都以M开始，
+ *  生成路径、计算边界等不再需要计算末端坐标和对称控制点。
+ *  构造时预先计算锚点符序列的结构签名，用于快速判断两个svg是否为同型svg。
+ *
+ *  示例："M0,0 L10,10z"
+ *      commands = {'M', 'L', 'z'}
+ *      coords = {0, 0, 10, 10}
+ */
+public final class SvgPathData {
+
+    /** 不包含任何锚点符的空数据集 */
+    public static final SvgPathData EMPTY = new SvgPathData(new byte[0], new float[0]);
+
+    private static final int INDEX_ERROR = -1;
+
+    /**
+     * 对应{@link SvgConsts#SVG_ANCHOR_ALL}的锚点符的值个数
+     */
+    private static final int[] ANCHOR_VALUE_NUM = new int[] {1, 1, 1, 1, 2, 2, 2, 2, 0, 0, 4, 4, 2, 2, 6, 6, 4, 4, 7, 7};
+
+    /** 以锚点符为下标的值个数表，非锚点符为{@link #INDEX_ERROR} */
+    private static final int[] ANCHOR_PARAM_NUM = new int[128];
+
+    static {
+        Arrays.fill(ANCHOR_PARAM_NUM, INDEX_ERROR);
+        for (int i = 0; i < SvgConsts.SVG_ANCHOR_ALL.length(); i++) {
+            ANCHOR_PARAM_NUM[SvgConsts.SVG_ANCHOR_ALL.charAt(i)] = ANCHOR_VALUE_NUM[i];
+        }
+    }
+
+    /** 锚点符序列，同一个包中只读访问 */
+    final byte[] commands;
+
+    /** 所有锚点符的值，同一个包中只读访问 */
+    final float[] coords;
+
+    /** 锚点符序列的结构签名 */
+    private final long mSignature;
+
+    /** 内容哈希值，延迟计算 */
+    private int mHash;
+
+    /** 是否为规范数据集 */
+    private final boolean mIsNormalized;
+
+    /** 规范数据集，第一次使用时计算 */
+    private volatile SvgPathData mNormalized;
+
+    /**
+     * 直接持有传入的数组，调用者不能再修改它们
+     */
+    SvgPathData(@NonNull byte[] commands, @NonNull float[] coords) {
+        this(commands, coords, false);
+    }
+
+    /**
+     * @param normalized 数据是否已经是规范数据集，由调用者保证
+     */
+    SvgPathData(@NonNull byte[] commands, @NonNull float[] coords, boolean normalized) {
+        this.commands = commands;
+        this.coords = coords;
+        mSignature = computeSignature(commands);
+        mIsNormalized = normalized;
+    }
+
+    /** 获得指定锚点符的值个数，如果不是锚点符，返回-1 */
+    public static int getAnchorParamNum(char anchor) {
+        return anchor < ANCHOR_PARAM_NUM.length ? ANCHOR_PARAM_NUM[anchor] : INDEX_ERROR;
+    }
+
+    public boolean isEmpty() {
+        return commands.length == 0;
+    }
+
+    public int getCommandCount() {
+        return commands.length;
+    }
+
+    public char getCommand(int index) {
+        return (char) commands[index];
+    }
+
+    public int getCoordCount() {
+        return coords.length;
+    }
+
+    public float getCoord(int index) {
+        return coords[index];
+    }
+
+    /** 是否为只包含绝对位置的M、L、C、Q、Z的规范数据集 */
+    public boolean isNormalized() {
+        return mIsNormalized;
+    }
+
+    /**
+     * 获得规范数据集：相对位置转换为绝对位置，H/V转换为L，S/T按对称控制点转换为C/Q，
+     * 闭合符之后不以起始符开始的path补上起始符M。生成的path和原数据集完全一致。
+     * 结果在第一次调用时计算并缓存，已经是规范数据集时返回自身。
+     */
+    @NonNull
+    public SvgPathData normalize() {
+        if (mIsNormalized) {
+            return this;
+        }
+        SvgPathData normalized = mNormalized;
+        if (normalized == null) {
+            //并发调用时可能重复计算，结果相同，不需要加锁
+            normalized = SvgPathNormalizer.normalize(commands, coords);
+            mNormalized = normalized;
+        }
+        return normalized;
+    }
+
+    /** 复制一份所有的值，得到的数组可以随意修改 */
+    public float[] copyCoords() {
+        return Arrays.copyOf(coords, coords.length);
+    }
+
+    /**
+     * 将所有的值复制到目标数组中
+     * @param dst 长度不能小于{@link #getCoordCount()}
+     */
+    public void copyCoords(@NonNull float[] dst) {
+        System.arraycopy(coords, 0, dst, 0, coords.length);
+    }
+
+    /**
+     * 使用相同的锚点符序列和新的值，生成一个新的数据集。锚点符序列被共享，值会被复制。
+     * @param newCoords 长度必须和{@link #getCoordCount()}一致
+     */
+    public SvgPathData withCoords(@NonNull float[] newCoords) {
+        if (newCoords.length != coords.length) {
+            throw new IllegalArgumentException("coords length mismatch: need " + coords.length + ", actual " + newCoords.length);
+        }
+        return new SvgPathData(commands, Arrays.copyOf(newCoords, newCoords.length), mIsNormalized);
+    }
+
+    /** 锚点符序列的结构签名，结构相同的数据集签名一定相同 */
+    public long getSignature() {
+        return mSignature;
+    }
+
+    /**
+     * 是否为同型svg，即锚点符序列完全一致，只有值不同。同型svg之间可以做变换动画。
+     * 签名不同时可以立即得出结果。
+     */
+    public boolean isSameStructure(SvgPathData other) {
+        if (other == this) {
+            return true;
+        }
+        if (other == null || other.mSignature != mSignature || other.commands.length != commands.length) {
+            return false;
+        }
+        return commands == other.commands || Arrays.equals(commands, other.commands);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SvgPathData)) {
+            return false;
+        }
+        SvgPathData other = (SvgPathData) o;
+        return isSameStructure(other) && Arrays.equals(coords, other.coords);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = mHash;
+        if (h == 0) {
+            h = 31 * (int) (mSignature ^ (mSignature >>> 32)) + Arrays.hashCode(coords);
+            mHash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "SvgPathData{commands=" + commands.length + ", coords=" + coords.length + "}";
+    }
+
+    /** FNV-1a 64位哈希，同时混入锚点符个数 */
+    private static long computeSignature(byte[] commands) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : commands) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h ^ commands.length;
+    }
+
+    /**
+     * 按顺序逐个添加锚点符和值，生成{@link SvgPathData}。数组按需扩容，非线程安全。
+     * 不使用{@link SvgFloatPool}，避免每次解析都竞争数组池的锁；需要复用时由使用者按线程保存，
+     * 调用{@link #reset()}之后继续使用。
+     */
+    static final class Builder {
+        private byte[] mCommands;
+        private int mCommandCount;
+        private float[] mCoords;
+        private int mCoordCount;
+
+        Builder() {
+            this(16, 64);
+        }
+
+        Builder(int commandCapacity, int coordCapacity) {
+            mCommands = new byte[Math.max(commandCapacity, 1)];
+            mCoords = new float[Math.max(coordCapacity, 1)];
+        }
+
+        /** 预先扩容，之后添加的数据不超过指定的容量时不需要再扩容 */
+        void ensureCapacity(int commandCapacity, int coordCapacity) {
+            if (mCommands.length < commandCapacity) {
+                mCommands = Arrays.copyOf(mCommands, commandCapacity);
+            }
+            if (mCoords.length < coordCapacity) {
+                mCoords = Arrays.copyOf(mCoords, coordCapacity);
+            }
+        }
+
+        /**
+         * 清空数据，数组超过指定的容量时重新分配，复用的Builder不会一直持有解析大数据时扩容的数组
+         */
+        void reset(int maxCommandCapacity, int maxCoordCapacity) {
+            reset();
+            if (mCommands.length > maxCommandCapacity) {
+                mCommands = new byte[Math.max(maxCommandCapacity, 1)];
+            }
+            if (mCoords.length > maxCoordCapacity) {
+                mCoords = new float[Math.max(maxCoordCapacity, 1)];
+            }
+        }
+
+        void addCommand(char anchor) {
+            if (mCommandCount == mCommands.length) {
+                mCommands = Arrays.copyOf(mCommands, mCommandCount << 1);
+            }
+            mCommands[mCommandCount++] = (byte) anchor;
+        }
+
+        void addCoord(float value) {
+            if (mCoordCount == mCoords.length) {
+                mCoords = Arrays.copyOf(mCoords, mCoordCount << 1);
+            }
+            mCoords[mCoordCount++] = value;
+        }
+
+        int getCommandCount() {
+            return mCommandCount;
+        }
+
+        void reset() {
+            mCommandCount = 0;
+            mCoordCount = 0;
+        }
+
+        /** 直接生成规范数据集，不生成中间数据集 */
+        SvgPathData buildNormalized() {
+            return SvgPathNormalizer.normalize(mCommands, mCommandCount, mCoords, mCoordCount);
+        }
+
+        /** 生成不可变的数据集，之后仍然可以继续使用此Builder */
+        SvgPathData build() {
+            return build(false);
+        }
+
+        /**
+         * @param normalized 添加的数据是否为规范数据集
+         */
+        SvgPathData build(boolean normalized) {
+            if (mCommandCount == 0) {
+                return EMPTY;
+            }
+            return new SvgPathData(Arrays.copyOf(mCommands, mCommandCount), Arrays.copyOf(mCoords, mCoordCount), normalized);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 18:05
+ * Description: 一个svg数据集在不同缩放等级下的细节层次（LOD）。
+ *
+ *  缩放值按2的幂分桶：缩放值在[2^-(k+1), 2^-k)之间时使用第k级，k从0开始；
+ *  第k级的容差为 tolerancePx * 2^k（数据集的单位），因此在这一级的任何缩放值下，屏幕上的误差都不超过tolerancePx；
+ *  缩放值不小于1时直接使用原数据集，曲线由Path原样绘制。
+ *
+ *  每一级只在第一次使用时计算，之后一直缓存；也可以调用{@link #prepare()}在后台线程预先计算所有等级。
+ *  线程安全。
+ */
+public final class SvgPathLod {
+
+    /** 默认的屏幕误差，单位：像素 */
+    public static final float DEFAULT_TOLERANCE_PX = 0.5f;
+
+    /** 最大等级，缩放值小于2^-MAX_LEVEL时都使用这一级 */
+    public static final int MAX_LEVEL = 5;
+
+    /** 不需要简化时的等级 */
+    public static final int LEVEL_ORIGINAL = -1;
+
+    private final SvgPathData mData;
+
+    private final float mTolerancePx;
+
+    private final SvgPathData[] mLevels = new SvgPathData[MAX_LEVEL + 1];
+
+    private final AtomicBoolean mIsPrepareScheduled = new AtomicBoolean();
+
+    public SvgPathLod(@NonNull SvgPathData data) {
+        this(data, DEFAULT_TOLERANCE_PX);
+    }
+
+    /**
+     * @param tolerancePx 允许的屏幕误差，单位：像素
+     */
+    public SvgPathLod(@NonNull SvgPathData data, float tolerancePx) {
+        mData = data;
+        mTolerancePx = tolerancePx;
+    }
+
+    @NonNull
+    public SvgPathData getData() {
+        return mData;
+    }
+
+    /**
+     * 获得缩放值对应的等级
+     * @return 缩放值不小于1时返回{@link #LEVEL_ORIGINAL}
+     */
+    public static int getLevel(float scale) {
+        if (!(scale < 1f) || scale <= 0f) {
+            return LEVEL_ORIGINAL;
+        }
+        int level = 0;
+        float bound = 0.5f;
+        while (scale < bound && level < MAX_LEVEL) {
+            bound *= 0.5f;
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * 获得在指定缩放值下显示时使用的数据集，和原数据集使用相同的坐标单位
+     */
+    @NonNull
+    public SvgPathData getVariant(float scale) {
+        int level = getLevel(scale);
+        return level == LEVEL_ORIGINAL ? mData : getLevelData(level);
+    }
+
+    /** 预先计算所有等级，适合在后台线程执行 */
+    public void prepare() {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            getLevelData(level);
+        }
+    }
+
+    /**
+     * 在指定的线程池中执行{@link #prepare()}，重复调用只会执行一次
+     * @throws RejectedExecutionException 线程池拒绝执行
+     */
+    public void prepareAsync(@NonNull Executor executor) {
+        if (!mIsPrepareScheduled.compareAndSet(false, true)) {
+            return ;
+        }
+        try {
+            executor.execute(this::prepare);
+        } catch (RejectedExecutionException e) {
+            mIsPrepareScheduled.set(false);
+            throw e;
+        }
+    }
+
+    private synchronized SvgPathData getLevelData(int level) {
+        SvgPathData data = mLevels[level];
+        if (data == null) {
+            //上一级已经简化过的结果更简单，但误差会叠加，因此总是从原数据集开始简化
+            data = new SvgPathSimplifier().simplify(mData, mTolerancePx * (1 << level));
+            mLevels[level] = data;
+        }
+        return data;
+    }
+}
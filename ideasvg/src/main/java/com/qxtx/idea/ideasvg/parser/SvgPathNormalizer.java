@@ -0,0 +1,204 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 19:40
+ * Description: 把任意的svg数据集转换为只包含绝对位置的M、L、C、Q、Z的规范数据集。
+ *
+ *  1、所有相对位置的锚点符转换为绝对位置，H/V转换为L；
+ *  2、S/T按照svg规范，以上一段曲线的第二个控制点关于当前末端坐标的对称点作为第一个控制点，转换为C/Q；
+ *     上一段不是同类曲线时，控制点为当前末端坐标；
+ *  3、闭合符之后不是以起始符开始的子路径，补上一个起始符M，因此每个path都以M开始；
+ *  4、生成的path个数和原数据集一致。
+ *
+ *  转换之后，生成路径、计算边界、变换动画等都只需要处理5种绝对位置的锚点符，不再需要计算末端坐标。
+ */
+final class SvgPathNormalizer {
+
+    private static final int CURVE_NONE = 0;
+    private static final int CURVE_CUBIC = 1;
+    private static final int CURVE_QUAD = 2;
+
+    /** 结果超过这个容量时，线程私有的Builder不保留扩容后的数组 */
+    private static final int MAX_RETAINED_COMMANDS = 4096;
+    private static final int MAX_RETAINED_COORDS = 65536;
+
+    /** 转换结果的临时数组，线程私有，不需要加锁 */
+    private static final ThreadLocal<SvgPathData.Builder> sBuilder = new ThreadLocal<SvgPathData.Builder>() {
+        @Override
+        protected SvgPathData.Builder initialValue() {
+            return new SvgPathData.Builder();
+        }
+    };
+
+    private SvgPathNormalizer() {
+    }
+
+    /**
+     * @param commands 锚点符序列
+     * @param v 和锚点符序列对应的值数组
+     */
+    @NonNull
+    static SvgPathData normalize(@NonNull byte[] commands, @NonNull float[] v) {
+        return normalize(commands, commands.length, v, v.length);
+    }
+
+    /**
+     * 只转换数组的前一部分，可以直接使用{@link SvgPathData.Builder}中的临时数组，不需要先生成中间数据集
+     * @param commandCount 锚点符个数
+     * @param coordCount 值的个数，用于估算结果的容量
+     */
+    @NonNull
+    static SvgPathData normalize(@NonNull byte[] commands, int commandCount, @NonNull float[] v, int coordCount) {
+        if (commandCount == 0) {
+            return SvgPathData.EMPTY;
+        }
+
+        final SvgPathData.Builder builder = sBuilder.get();
+        builder.ensureCapacity(commandCount + 4, coordCount + (coordCount >> 1) + 8);
+
+        //末端坐标、子路径起点、上一段曲线的第二个控制点
+        float x = 0f, y = 0f, startX = 0f, startY = 0f, ctrlX = 0f, ctrlY = 0f;
+        int lastCurve = CURVE_NONE;
+        boolean isPathOpen = false;
+
+        int offset = 0;
+        for (int c = 0; c < commandCount; c++) {
+            final char anchor = (char) commands[c];
+            final int i = offset;
+            final int paramNum = SvgPathData.getAnchorParamNum(anchor);
+            offset += Math.max(paramNum, 0);
+
+            if (anchor == 'M' || anchor == 'm') {
+                x = anchor == 'M' ? v[i] : x + v[i];
+                y = anchor == 'M' ? v[i + 1] : y + v[i + 1];
+                startX = x;
+                startY = y;
+                add(builder, 'M', x, y);
+                lastCurve = CURVE_NONE;
+                isPathOpen = true;
+                continue;
+            }
+
+            if (anchor == 'Z' || anchor == 'z') {
+                if (!isPathOpen) {
+                    add(builder, 'M', x, y);
+                }
+                builder.addCommand('Z');
+                x = startX;
+                y = startY;
+                lastCurve = CURVE_NONE;
+                isPathOpen = false;
+                continue;
+            }
+
+            //新的path不是以起始符开始时，从当前末端坐标开始
+            if (!isPathOpen) {
+                add(builder, 'M', x, y);
+                startX = x;
+                startY = y;
+                isPathOpen = true;
+            }
+
+            final boolean isAbsolute = anchor < 'a';
+            final float dx = isAbsolute ? 0f : x;
+            final float dy = isAbsolute ? 0f : y;
+            switch (anchor) {
+                case 'H':
+                case 'h':
+                    x = v[i] + dx;
+                    add(builder, 'L', x, y);
+                    lastCurve = CURVE_NONE;
+                    break;
+                case 'V':
+                case 'v':
+                    y = v[i] + dy;
+                    add(builder, 'L', x, y);
+                    lastCurve = CURVE_NONE;
+                    break;
+                case 'L':
+                case 'l':
+                    x = v[i] + dx;
+                    y = v[i + 1] + dy;
+                    add(builder, 'L', x, y);
+                    lastCurve = CURVE_NONE;
+                    break;
+                case 'C':
+                case 'c':
+                    builder.addCommand('C');
+                    addPoint(builder, v[i] + dx, v[i + 1] + dy);
+                    ctrlX = v[i + 2] + dx;
+                    ctrlY = v[i + 3] + dy;
+                    addPoint(builder, ctrlX, ctrlY);
+                    x = v[i + 4] + dx;
+                    y = v[i + 5] + dy;
+                    addPoint(builder, x, y);
+                    lastCurve = CURVE_CUBIC;
+                    break;
+                case 'S':
+                case 's':
+                    builder.addCommand('C');
+                    if (lastCurve == CURVE_CUBIC) {
+                        addPoint(builder, 2f * x - ctrlX, 2f * y - ctrlY);
+                    } else {
+                        addPoint(builder, x, y);
+                    }
+                    ctrlX = v[i] + dx;
+                    ctrlY = v[i + 1] + dy;
+                    addPoint(builder, ctrlX, ctrlY);
+                    x = v[i + 2] + dx;
+                    y = v[i + 3] + dy;
+                    addPoint(builder, x, y);
+                    lastCurve = CURVE_CUBIC;
+                    break;
+                case 'Q':
+                case 'q':
+                    builder.addCommand('Q');
+                    ctrlX = v[i] + dx;
+                    ctrlY = v[i + 1] + dy;
+                    addPoint(builder, ctrlX, ctrlY);
+                    x = v[i + 2] + dx;
+                    y = v[i + 3] + dy;
+                    addPoint(builder, x, y);
+                    lastCurve = CURVE_QUAD;
+                    break;
+                case 'T':
+                case 't':
+                    builder.addCommand('Q');
+                    if (lastCurve == CURVE_QUAD) {
+                        ctrlX = 2f * x - ctrlX;
+                        ctrlY = 2f * y - ctrlY;
+                    } else {
+                        ctrlX = x;
+                        ctrlY = y;
+                    }
+                    addPoint(builder, ctrlX, ctrlY);
+                    x = v[i] + dx;
+                    y = v[i + 1] + dy;
+                    addPoint(builder, x, y);
+                    lastCurve = CURVE_QUAD;
+                    break;
+                default:
+                    //椭圆弧在解析时已经被转换，这里不会出现
+                    break;
+            }
+        }
+
+        final SvgPathData result = builder.build(true);
+        builder.reset(MAX_RETAINED_COMMANDS, MAX_RETAINED_COORDS);
+        return result;
+    }
+
+    private static void add(SvgPathData.Builder builder, char anchor, float x, float y) {
+        builder.addCommand(anchor);
+        builder.addCoord(x);
+        builder.addCoord(y);
+    }
+
+    private static void addPoint(SvgPathData.Builder builder, float x, float y) {
+        builder.addCoord(x);
+        builder.addCoord(y);
+    }
+}
@@ -0,0 +1,236 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 18:05
+ * Description: 在指定误差内简化svg数据集，用于缩小显示时的细节层次（LOD）。
+ *
+ *  1、使用规范数据集（见{@link SvgPathData#normalize()}），每一段路径都是绝对坐标；
+ *  2、曲线按照Wang公式计算需要的分段数，展开为折线，保证展开误差不超过容差的一半；
+ *  3、每个子路径的折线使用非递归的Ramer–Douglas–Peucker算法去掉多余的点，误差同样不超过容差的一半，
+ *     因此原路径上的任意一点到简化结果的距离都不超过容差；
+ *  4、结果是只包含M、L、Z的规范数据集，每个子路径都以M开始，生成的path个数和原数据集一致，
+ *     因此按下标对应的颜色、变换矩阵仍然有效；
+ *
+ *  备注：非线程安全，一个实例同一时间只能在一个线程中使用。
+ */
+public final class SvgPathSimplifier {
+
+    /** 一段曲线最多展开的段数 */
+    private static final int MAX_CURVE_SEGMENTS = 256;
+
+    private final SvgPathData.Builder mBuilder = new SvgPathData.Builder();
+
+    /** 当前子路径的折线，x/y交替保存 */
+    private float[] mPoints = new float[64];
+    private int mPointCount;
+
+    private boolean[] mKeep = new boolean[32];
+    private int[] mStack = new int[32];
+
+    /** 展开曲线和去掉多余的点各自允许的误差，为指定容差的一半 */
+    private float mTolerance;
+
+    /**
+     * 简化svg数据集
+     * @param tolerance 允许的最大误差，和数据集使用相同的单位
+     * @return 简化之后的数据集，不会比原数据集复杂
+     */
+    @NonNull
+    public SvgPathData simplify(@NonNull SvgPathData data, float tolerance) {
+        if (data.isEmpty() || tolerance <= 0f) {
+            return data;
+        }
+
+        mTolerance = tolerance * 0.5f;
+        mBuilder.reset();
+        mPointCount = 0;
+
+        //规范数据集中只有绝对位置的M、L、C、Q、Z，每个path都以M开始
+        final SvgPathData normalized = data.normalize();
+        final float[] v = normalized.coords;
+
+        //末端坐标
+        float x = 0f, y = 0f;
+        boolean isPathOpen = false;
+        int i = 0;
+        for (byte command : normalized.commands) {
+            switch (command) {
+                case 'M':
+                    //和createSvgPath()一致：未闭合的子路径之后遇到起始符，开始新的path
+                    if (isPathOpen) {
+                        flushSubPath(false);
+                    }
+                    x = v[i];
+                    y = v[i + 1];
+                    addPoint(x, y);
+                    isPathOpen = true;
+                    i += 2;
+                    break;
+                case 'L':
+                    x = v[i];
+                    y = v[i + 1];
+                    addPoint(x, y);
+                    i += 2;
+                    break;
+                case 'Q':
+                    flattenQuad(x, y, v[i], v[i + 1], v[i + 2], v[i + 3]);
+                    x = v[i + 2];
+                    y = v[i + 3];
+                    i += 4;
+                    break;
+                case 'C':
+                    flattenCubic(x, y, v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5]);
+                    x = v[i + 4];
+                    y = v[i + 5];
+                    i += 6;
+                    break;
+                default:
+                    flushSubPath(true);
+                    isPathOpen = false;
+                    break;
+            }
+        }
+
+        if (isPathOpen) {
+            flushSubPath(false);
+        }
+
+        SvgPathData result = mBuilder.build(true);
+        mBuilder.reset();
+        return result.getCoordCount() < normalized.getCoordCount() ? result : normalized;
+    }
+
+    private void addPoint(float x, float y) {
+        int n = mPointCount << 1;
+        if (n + 2 > mPoints.length) {
+            mPoints = Arrays.copyOf(mPoints, mPoints.length << 1);
+        }
+        mPoints[n] = x;
+        mPoints[n + 1] = y;
+        mPointCount++;
+    }
+
+    /**
+     * 二次曲线展开为折线，分段数由Wang公式得到：n = ceil(sqrt(|p0 - 2p1 + p2| / (4 * tolerance)))
+     */
+    private void flattenQuad(float x0, float y0, float x1, float y1, float x2, float y2) {
+        float ddx = x0 - 2f * x1 + x2;
+        float ddy = y0 - 2f * y1 + y2;
+        int n = segmentCount(0.25d * Math.sqrt(ddx * ddx + ddy * ddy));
+        for (int k = 1; k <= n; k++) {
+            float t = (float) k / n;
+            float mt = 1f - t;
+            addPoint(mt * mt * x0 + 2f * mt * t * x1 + t * t * x2, mt * mt * y0 + 2f * mt * t * y1 + t * t * y2);
+        }
+    }
+
+    /**
+     * 三次曲线展开为折线，分段数由Wang公式得到：n = ceil(sqrt(3 * max|p(i) - 2p(i+1) + p(i+2)| / (4 * tolerance)))
+     */
+    private void flattenCubic(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3) {
+        float ddx1 = x0 - 2f * x1 + x2, ddy1 = y0 - 2f * y1 + y2;
+        float ddx2 = x1 - 2f * x2 + x3, ddy2 = y1 - 2f * y2 + y3;
+        double dd = Math.max(ddx1 * ddx1 + ddy1 * ddy1, ddx2 * ddx2 + ddy2 * ddy2);
+        int n = segmentCount(0.75d * Math.sqrt(dd));
+        for (int k = 1; k <= n; k++) {
+            float t = (float) k / n;
+            float mt = 1f - t;
+            float a = mt * mt * mt, b = 3f * mt * mt * t, c = 3f * mt * t * t, d = t * t * t;
+            addPoint(a * x0 + b * x1 + c * x2 + d * x3, a * y0 + b * y1 + c * y2 + d * y3);
+        }
+    }
+
+    private int segmentCount(double m) {
+        int n = (int) Math.ceil(Math.sqrt(m / mTolerance));
+        return Math.max(1, Math.min(MAX_CURVE_SEGMENTS, n));
+    }
+
+    /** 简化当前子路径的折线并写出 */
+    private void flushSubPath(boolean isClosed) {
+        final int count = mPointCount;
+        if (count == 0) {
+            return ;
+        }
+
+        final float[] points = mPoints;
+        if (count > 2) {
+            markKeptPoints(count);
+        }
+
+        mBuilder.addCommand('M');
+        mBuilder.addCoord(points[0]);
+        mBuilder.addCoord(points[1]);
+        for (int k = 1; k < count; k++) {
+            if (count <= 2 || mKeep[k]) {
+                mBuilder.addCommand('L');
+                mBuilder.addCoord(points[k << 1]);
+                mBuilder.addCoord(points[(k << 1) + 1]);
+            }
+        }
+        if (isClosed) {
+            mBuilder.addCommand('Z');
+        }
+
+        mPointCount = 0;
+    }
+
+    /** 非递归的Ramer–Douglas–Peucker，结果保存在{@link #mKeep}中，首尾两个点总是保留，被去掉的点到保留的线段的距离不超过容差 */
+    private void markKeptPoints(int count) {
+        if (mKeep.length < count) {
+            mKeep = new boolean[Math.max(count, mKeep.length << 1)];
+        }
+        final boolean[] keep = mKeep;
+        Arrays.fill(keep, 0, count, false);
+        keep[0] = true;
+        keep[count - 1] = true;
+
+        final float[] p = mPoints;
+        final float toleranceSq = mTolerance * mTolerance;
+        int top = 0;
+        push(top++, 0);
+        push(top++, count - 1);
+        while (top > 0) {
+            final int last = mStack[--top];
+            final int first = mStack[--top];
+
+            float ax = p[first << 1], ay = p[(first << 1) + 1];
+            float bx = p[last << 1], by = p[(last << 1) + 1];
+            float dx = bx - ax, dy = by - ay;
+            float lengthSq = dx * dx + dy * dy;
+
+            float maxDistSq = -1f;
+            int maxIndex = -1;
+            for (int k = first + 1; k < last; k++) {
+                float px = p[k << 1] - ax, py = p[(k << 1) + 1] - ay;
+                //到线段而不是到直线的距离：曲线可能沿着弦的方向折返，超出弦的两端
+                float t = lengthSq == 0f ? 0f : Math.max(0f, Math.min(1f, (px * dx + py * dy) / lengthSq));
+                float ex = px - t * dx, ey = py - t * dy;
+                float distSq = ex * ex + ey * ey;
+                if (distSq > maxDistSq) {
+                    maxDistSq = distSq;
+                    maxIndex = k;
+                }
+            }
+
+            if (maxIndex > 0 && maxDistSq > toleranceSq) {
+                keep[maxIndex] = true;
+                push(top++, first);
+                push(top++, maxIndex);
+                push(top++, maxIndex);
+                push(top++, last);
+            }
+        }
+    }
+
+    private void push(int index, int value) {
+        if (index == mStack.length) {
+            mStack = Arrays.copyOf(mStack, index << 1);
+        }
+        mStack[index] = value;
+    }
+}
@@ -0,0 +1,460 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import com.qxtx.idea.ideasvg.SvgConsts;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 9:12
+ * Description: svg路径字符串的单次扫描分词器。
+ *
+ *  直接从输入的{@link CharSequence}中逐个读出锚点符和数值，不复制子串，也不为每个数值创建String对象。
+ *  字符分类使用查表代替{@link SvgConsts#SVG_CHAR_ALL}的indexOf，数值使用自带的十进制扫描器转换为float。
+ *
+ *  支持svg规范中完整的数值写法，可以直接解析压缩工具输出的字符串：
+ *      1、正负号和指数，例如"+1"、"1e-3"、"2.5E+2"；
+ *      2、省略分隔符：正负号和第二个小数点都会开始一个新的数值，例如"10-5"为10和-5，".5.5"为0.5和0.5；
+ *      3、椭圆弧的标志位只有一个字符，可以和后面的值连写，见{@link #nextFlag()}；
+ *
+ *  也可以从{@link Reader}中分块读取：只持有一个固定大小的字符缓冲区，剩余字符不足一个数值的最大长度时，
+ *  把未读部分移到缓冲区开头再补充读取，因此无论输入多大，占用的内存都是固定的。
+ *
+ *  使用方式：
+ *      tokenizer.reset(data); 或者 tokenizer.reset(reader);
+ *      int token;
+ *      while ((token = tokenizer.next()) != TOKEN_END) { ... }
+ *
+ *  备注：非线程安全，一个实例同一时间只能服务一次解析。
+ */
+final class SvgPathTokenizer {
+
+    /** 到达末端 */
+    static final int TOKEN_END = 0;
+    /** 读到一个锚点符，见{@link #getAnchor()} */
+    static final int TOKEN_ANCHOR = 1;
+    /** 读到一个数值，见{@link #getNumber()} */
+    static final int TOKEN_NUMBER = 2;
+    /** 发现非法字符或者非法数值，见{@link #getErrorIndex()} */
+    static final int TOKEN_ERROR = -1;
+
+    private static final byte TYPE_INVALID = 0;
+    private static final byte TYPE_SEPARATOR = 1;
+    private static final byte TYPE_ANCHOR = 2;
+    private static final byte TYPE_DIGIT = 3;
+    private static final byte TYPE_DOT = 4;
+    private static final byte TYPE_SIGN = 5;
+
+    /** 流式读取时的字符缓冲区大小 */
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    /** 流式读取时，一个数值允许的最大字符数，缓冲区剩余字符少于此值时补充读取 */
+    private static final int MAX_TOKEN_LENGTH = 512;
+
+    /** ASCII字符分类表，非ASCII字符一律视为非法 */
+    private static final byte[] CHAR_TYPE = new byte[128];
+
+    /** 尾数最多保留的有效位数，超出时交给{@link Float#parseFloat(String)}转换 */
+    private static final long MANTISSA_LIMIT = 100000000000000000L;
+
+    /** float能精确表示的整数上限2^24 */
+    private static final long FLOAT_EXACT_MANTISSA = 1L << 24;
+
+    /** float能精确表示的10的幂 */
+    private static final float[] POW10 = new float[11];
+
+    static {
+        String anchors = SvgConsts.SVG_ANCHOR_ALL;
+        for (int i = 0; i < anchors.length(); i++) {
+            CHAR_TYPE[anchors.charAt(i)] = TYPE_ANCHOR;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_TYPE[c] = TYPE_DIGIT;
+        }
+        CHAR_TYPE['.'] = TYPE_DOT;
+        CHAR_TYPE['-'] = TYPE_SIGN;
+        CHAR_TYPE['+'] = TYPE_SIGN;
+        CHAR_TYPE[SvgConsts.SEPARATOR] = TYPE_SEPARATOR;
+        CHAR_TYPE[' '] = TYPE_SEPARATOR;
+        CHAR_TYPE['\t'] = TYPE_SEPARATOR;
+        CHAR_TYPE['\n'] = TYPE_SEPARATOR;
+        CHAR_TYPE['\r'] = TYPE_SEPARATOR;
+        CHAR_TYPE['\f'] = TYPE_SEPARATOR;
+
+        POW10[0] = 1f;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10f;
+        }
+    }
+
+    private CharSequence mData;
+
+    /** 当前的游标位置 */
+    private int mPos;
+
+    /** 去除首尾空白字符后的末端位置（不包含） */
+    private int mEnd;
+
+    private char mAnchor;
+
+    private float mNumber;
+
+    private int mErrorIndex;
+
+    /** 最近一次读到的单元的开始位置 */
+    private int mTokenStart;
+
+    /** 流式读取的数据源，为null时表示直接扫描{@link #mData} */
+    private Reader mReader;
+
+    /** 流式读取的字符缓冲区，首次使用时创建，之后重复使用 */
+    private char[] mBuffer;
+
+    /** {@link #mBuffer}的CharSequence视图 */
+    private CharBuffer mBufferView;
+
+    /** 缓冲区下标0对应的数据源位置，用于给出错误的绝对位置 */
+    private int mBase;
+
+    private boolean mIsReaderEnd;
+
+    private IOException mIOException;
+
+    /**
+     * 重新指定待扫描的数据。首尾的空白字符会被忽略，但不会复制字符串。
+     */
+    void reset(@NonNull CharSequence data) {
+        int start = 0;
+        int end = data.length();
+        while (start < end && data.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && data.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        mReader = null;
+        mData = data;
+        mPos = start;
+        mEnd = end;
+        mBase = 0;
+        resetState();
+    }
+
+    /**
+     * 从字符流中分块读取待扫描的数据，不会关闭字符流。
+     * 读取时发生的IO异常不会直接抛出，而是返回{@link #TOKEN_ERROR}，见{@link #getIOException()}
+     */
+    void reset(@NonNull Reader reader) {
+        if (mBuffer == null) {
+            mBuffer = new char[STREAM_BUFFER_SIZE];
+            mBufferView = CharBuffer.wrap(mBuffer);
+        }
+
+        mReader = reader;
+        mIsReaderEnd = false;
+        mData = mBufferView;
+        mPos = 0;
+        mEnd = 0;
+        mBase = 0;
+        resetState();
+        refill(0);
+    }
+
+    private void resetState() {
+        mAnchor = 0;
+        mNumber = 0f;
+        mErrorIndex = -1;
+        mTokenStart = 0;
+        mIOException = null;
+    }
+
+    /** 解除对输入数据的引用，字符缓冲区会保留下来给下一次使用 */
+    void release() {
+        mData = null;
+        mReader = null;
+        mPos = 0;
+        mEnd = 0;
+    }
+
+    /**
+     * 读取下一个单元，连续的分隔符会被跳过
+     * @return {@link #TOKEN_END}、{@link #TOKEN_ANCHOR}、{@link #TOKEN_NUMBER}或{@link #TOKEN_ERROR}
+     */
+    int next() {
+        final int i = skipSeparators();
+        mTokenStart = mBase + i;
+        if (i >= mEnd) {
+            return end(i);
+        }
+
+        switch (typeOf(mData.charAt(i))) {
+            case TYPE_ANCHOR:
+                mAnchor = mData.charAt(i);
+                mPos = i + 1;
+                return TOKEN_ANCHOR;
+            case TYPE_DIGIT:
+            case TYPE_DOT:
+            case TYPE_SIGN:
+                return scanNumber(i);
+            default:
+                return error(i);
+        }
+    }
+
+    /**
+     * 读取椭圆弧的一个标志位。标志位只能是一个字符0或1，后面可以不跟分隔符，例如"a5,5 0 1050,0"中的"1"和"0"。
+     * 读到的标志位作为数值0或1返回{@link #TOKEN_NUMBER}，其他数值返回{@link #TOKEN_ERROR}，锚点符等同{@link #next()}
+     */
+    int nextFlag() {
+        final int i = skipSeparators();
+        mTokenStart = mBase + i;
+        if (i >= mEnd) {
+            return end(i);
+        }
+
+        final char c = mData.charAt(i);
+        if (c == '0' || c == '1') {
+            mNumber = c - '0';
+            mPos = i + 1;
+            return TOKEN_NUMBER;
+        }
+        return typeOf(c) == TYPE_ANCHOR ? next() : error(i);
+    }
+
+    /**
+     * 跳过连续的分隔符，流式读取时保证缓冲区中有一个完整的单元
+     * @return 下一个单元的开始位置，没有更多单元时不小于{@link #mEnd}
+     */
+    private int skipSeparators() {
+        int i = mPos;
+        while (true) {
+            final CharSequence data = mData;
+            final int end = mEnd;
+            while (i < end && typeOf(data.charAt(i)) == TYPE_SEPARATOR) {
+                i++;
+            }
+            //缓冲区中只剩下分隔符，继续从字符流中读取
+            if (i < end || !refill(i)) {
+                break;
+            }
+            i = mPos;
+        }
+
+        //保证缓冲区中有一个完整的数值
+        if (i < mEnd && mEnd - i < MAX_TOKEN_LENGTH && refill(i)) {
+            i = mPos;
+        }
+        return i;
+    }
+
+    private int end(int index) {
+        mPos = mEnd;
+        return mIOException == null ? TOKEN_END : error(index);
+    }
+
+    /** 最近一次读到的锚点符 */
+    char getAnchor() {
+        return mAnchor;
+    }
+
+    /** 最近一次读到的数值 */
+    float getNumber() {
+        return mNumber;
+    }
+
+    /** 当前的游标位置，流式读取时为已读取的字符数 */
+    int getPosition() {
+        return mBase + mPos;
+    }
+
+    /** 发生错误的位置，未发生错误时为-1 */
+    int getErrorIndex() {
+        return mErrorIndex;
+    }
+
+    /** 最近一次读到的单元的开始位置，到达末端时为数据的长度（不包括末尾的空白字符） */
+    int getTokenStart() {
+        return mTokenStart;
+    }
+
+    /** 流式读取时发生的IO异常，没有则为null */
+    IOException getIOException() {
+        return mIOException;
+    }
+
+    /**
+     * 流式读取时，把缓冲区中从from开始的未读部分移到开头，再从字符流中读满缓冲区
+     * @return 是否还有可能读到新的字符，直接扫描CharSequence或者字符流已经结束时返回false
+     */
+    private boolean refill(int from) {
+        if (mReader == null || mIsReaderEnd) {
+            return false;
+        }
+
+        final char[] buffer = mBuffer;
+        int remain = mEnd - from;
+        if (from > 0 && remain > 0) {
+            System.arraycopy(buffer, from, buffer, 0, remain);
+        }
+        mBase += from;
+        mPos = 0;
+        mEnd = remain;
+
+        try {
+            while (mEnd < buffer.length) {
+                int count = mReader.read(buffer, mEnd, buffer.length - mEnd);
+                if (count < 0) {
+                    mIsReaderEnd = true;
+                    break;
+                }
+                mEnd += count;
+            }
+        } catch (IOException e) {
+            mIOException = e;
+            mIsReaderEnd = true;
+        }
+        return true;
+    }
+
+    /**
+     * 从指定位置扫描一个十进制数值：[+-]digits[.digits][(e|E)[+-]digits]
+     * 数值之后可以是分隔符、锚点符、正负号、小数点（作为下一个数值的开始）或者字符串末端，否则视为错误
+     */
+    private int scanNumber(int start) {
+        final CharSequence data = mData;
+        final int end = mEnd;
+        int i = start;
+
+        boolean negative = false;
+        char sign = data.charAt(i);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            i++;
+        }
+
+        long mantissa = 0L;
+        int exp10 = 0;
+        boolean hasDigit = false;
+        //有效位数超出了尾数的范围，丢弃了非0的数字
+        boolean isTruncated = false;
+
+        char c;
+        while (i < end && (c = data.charAt(i)) >= '0' && c <= '9') {
+            hasDigit = true;
+            if (mantissa < MANTISSA_LIMIT) {
+                mantissa = mantissa * 10 + (c - '0');
+            } else {
+                exp10++;
+                isTruncated |= c != '0';
+            }
+            i++;
+        }
+
+        if (i < end && data.charAt(i) == '.') {
+            i++;
+            while (i < end && (c = data.charAt(i)) >= '0' && c <= '9') {
+                hasDigit = true;
+                if (mantissa < MANTISSA_LIMIT) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    exp10--;
+                } else {
+                    isTruncated |= c != '0';
+                }
+                i++;
+            }
+        }
+
+        if (!hasDigit) {
+            return error(i);
+        }
+
+        //指数部分，e之后必须有数字
+        if (i < end && ((c = data.charAt(i)) == 'e' || c == 'E')) {
+            i++;
+            boolean isExpNegative = false;
+            if (i < end && ((c = data.charAt(i)) == '-' || c == '+')) {
+                isExpNegative = c == '-';
+                i++;
+            }
+            int exp = 0;
+            boolean hasExpDigit = false;
+            while (i < end && (c = data.charAt(i)) >= '0' && c <= '9') {
+                hasExpDigit = true;
+                //float的指数范围很小，限制大小只是为了防止溢出
+                if (exp < 10000) {
+                    exp = exp * 10 + (c - '0');
+                }
+                i++;
+            }
+            if (!hasExpDigit) {
+                return error(i);
+            }
+            exp10 += isExpNegative ? -exp : exp;
+        }
+
+        if (i < end) {
+            //数字、e已经被读取，剩下的只可能是下一个单元的开始
+            int type = typeOf(data.charAt(i));
+            if (type == TYPE_INVALID) {
+                return error(i);
+            }
+        } else if (mReader != null && !mIsReaderEnd) {
+            //数值超过了缓冲区能保证的最大长度
+            return error(i);
+        }
+
+        mNumber = isTruncated ? parseFloat(start, i) : toFloat(negative, mantissa, exp10, start, i);
+        mPos = i;
+        return TOKEN_NUMBER;
+    }
+
+    private int error(int index) {
+        mErrorIndex = mBase + index;
+        mPos = mEnd;
+        return TOKEN_ERROR;
+    }
+
+    private static int typeOf(char c) {
+        return c < 128 ? CHAR_TYPE[c] : TYPE_INVALID;
+    }
+
+    /**
+     * 计算 mantissa * 10^exp10，结果和{@link Float#parseFloat(String)}完全一致。
+     * 尾数不超过2^24、指数的绝对值不超过10时，尾数和10的幂都可以用float精确表示，一次float乘除法就是正确舍入的结果；
+     * 先经过double再转换为float会舍入两次，可能相差1ulp，因此其他情况（svg中很少出现）交给Float.parseFloat()
+     * @param start 数值在{@link #mData}中的开始位置
+     * @param end 数值在{@link #mData}中的结束位置（不包含）
+     */
+    private float toFloat(boolean negative, long mantissa, int exp10, int start, int end) {
+        if (mantissa == 0L) {
+            return negative ? -0f : 0f;
+        }
+
+        //去掉末尾的0，例如"1.50"，尽量使用快速路径
+        while (mantissa % 10 == 0) {
+            mantissa /= 10;
+            exp10++;
+        }
+        if (mantissa >= FLOAT_EXACT_MANTISSA || exp10 >= POW10.length || -exp10 >= POW10.length) {
+            return parseFloat(start, end);
+        }
+
+        float value = mantissa;
+        if (exp10 < 0) {
+            value /= POW10[-exp10];
+        } else if (exp10 > 0) {
+            value *= POW10[exp10];
+        }
+        return negative ? -value : value;
+    }
+
+    /** 使用{@link Float#parseFloat(String)}转换，数值的写法已经由{@link #scanNumber(int)}检查过 */
+    private float parseFloat(int start, int end) {
+        return Float.parseFloat(mData.subSequence(start, end).toString());
+    }
+}
@@ -0,0 +1,101 @@
+package com.qxtx.idea.ideasvg.parser;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 21:15
+ * Description: {@link SvgDataParser#validate(CharSequence, SvgPathValidation)}的结果。
+ *
+ *  只检查语法并计数，不生成数据集。同一个实例可以反复传入，批量检查时不会产生任何对象。
+ *  计数按照svg字符串中的写法：省略的重复锚点符也算作一段路径，椭圆弧按一段计算；
+ *  {@link #getCommandCapacity()}和{@link #getCoordCapacity()}是真正解析时需要的最大数组容量，
+ *  可以传给{@link SvgDataParser#svgChars2Data(CharSequence, SvgPathValidation)}预先分配。
+ */
+public final class SvgPathValidation {
+
+    private boolean mIsValid;
+
+    private int mErrorOffset;
+
+    private int mSubPathCount;
+
+    private int mSegmentCount;
+
+    private int mCoordCount;
+
+    private int mArcCount;
+
+    public SvgPathValidation() {
+        reset();
+    }
+
+    public boolean isValid() {
+        return mIsValid;
+    }
+
+    /** 第一个错误在字符串中的位置，没有错误时为-1 */
+    public int getErrorOffset() {
+        return mErrorOffset;
+    }
+
+    /** 生成的path个数，规则和{@link SvgDataParser#createSvgPath(SvgPathData)}一致 */
+    public int getSubPathCount() {
+        return mSubPathCount;
+    }
+
+    /** 路径段数，包括闭合符 */
+    public int getSegmentCount() {
+        return mSegmentCount;
+    }
+
+    /** 字符串中的数值个数 */
+    public int getCoordCount() {
+        return mCoordCount;
+    }
+
+    /** 椭圆弧的段数 */
+    public int getArcCount() {
+        return mArcCount;
+    }
+
+    /** 解析得到的锚点符个数的上限 */
+    public int getCommandCapacity() {
+        return mSegmentCount + (SvgArc.CUBIC_COUNT - 1) * mArcCount;
+    }
+
+    /** 解析得到的值个数的上限，椭圆弧之后的S/T会被写成C/Q，多出一对值 */
+    public int getCoordCapacity() {
+        int arcParams = SvgPathData.getAnchorParamNum('A');
+        return mCoordCount + (SvgArc.CUBIC_COUNT * 6 - arcParams + 2) * mArcCount;
+    }
+
+    void reset() {
+        mIsValid = false;
+        mErrorOffset = -1;
+        mSubPathCount = 0;
+        mSegmentCount = 0;
+        mCoordCount = 0;
+        mArcCount = 0;
+    }
+
+    void setValid(int subPathCount, int segmentCount, int coordCount, int arcCount) {
+        mIsValid = true;
+        mErrorOffset = -1;
+        mSubPathCount = subPathCount;
+        mSegmentCount = segmentCount;
+        mCoordCount = coordCount;
+        mArcCount = arcCount;
+    }
+
+    void setError(int errorOffset) {
+        reset();
+        mErrorOffset = errorOffset;
+    }
+
+    @Override
+    public String toString() {
+        return mIsValid
+                ? "SvgPathValidation{subPaths=" + mSubPathCount + ", segments=" + mSegmentCount
+                        + ", coords=" + mCoordCount + ", arcs=" + mArcCount + "}"
+                : "SvgPathValidation{error at " + mErrorOffset + "}";
+    }
+}
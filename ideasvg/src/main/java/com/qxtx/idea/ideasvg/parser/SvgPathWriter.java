@@ -0,0 +1,308 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.support.annotation.NonNull;
+
+import com.qxtx.idea.ideasvg.SvgConsts;
+
+import java.io.IOException;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 17:10
+ * Description: 把svg数据集写成尽量短的svg字符串，结果可以被{@link SvgDataParser}重新解析。
+ *
+ *  1、数值使用自带的格式化，直接写入StringBuilder，不会为每个数值创建String对象；
+ *  2、按照指定的小数位数四舍五入，并省略末尾的0和整数部分的0，例如0.500写成".5"；
+ *  3、锚点符前后不写分隔符，连续相同的锚点符只写第一个（起始符除外）；
+ *     负数和上一个数值带小数点时以小数点开始的数值，前面不写分隔符，例如"10-5"、".5.5"；
+ *  4、可选相对坐标输出：除了第一个起始符，所有锚点符都写成相对位置，数值通常更短。
+ *     相对位置按照已经四舍五入的末端坐标计算，并且和解析时一样用float累加末端坐标，
+ *     下一段的相对值会抵消之前的舍入和累加误差，因此误差不会逐段累积；
+ *
+ *  示例：
+ *      "M0,0 L10.5,0 L10.5,20 Z" 写成 "M0,0L10.5,0,10.5,20Z"，相对坐标写成 "M0,0l10.5,0,0,20z"
+ *      "M0,0 L0.5,-0.5 L0.25,0.5" 写成 "M0,0L.5-.5.25.5"
+ *
+ *  备注：非线程安全，内部复用一个StringBuilder，一个实例同一时间只能在一个线程中使用。
+ */
+public final class SvgPathWriter {
+
+    /** 默认保留的小数位数 */
+    public static final int DEFAULT_PRECISION = 3;
+
+    /** float只有6~7位有效数字，更多的小数位没有意义 */
+    public static final int MAX_PRECISION = 7;
+
+    private static final long[] POW10 = new long[] {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L};
+
+    /** 放大之后超过此值的数值不再保留小数 */
+    private static final double SCALED_LIMIT = 9e17;
+
+    private int mPrecision = DEFAULT_PRECISION;
+
+    private boolean mIsRelative;
+
+    /** 上一个写出的数值是否带小数点 */
+    private boolean mIsLastHasDot;
+
+    /** 写入非StringBuilder的Appendable时使用 */
+    private StringBuilder mScratch;
+
+    public SvgPathWriter() {
+    }
+
+    /**
+     * @param digits 保留的小数位数，范围为0~{@link #MAX_PRECISION}
+     */
+    public SvgPathWriter setPrecision(int digits) {
+        mPrecision = Math.max(0, Math.min(MAX_PRECISION, digits));
+        return this;
+    }
+
+    public int getPrecision() {
+        return mPrecision;
+    }
+
+    /**
+     * @param relative [true]写成相对坐标 [false]保持数据集中原来的锚点符
+     */
+    public SvgPathWriter setRelative(boolean relative) {
+        mIsRelative = relative;
+        return this;
+    }
+
+    public boolean isRelative() {
+        return mIsRelative;
+    }
+
+    /** 写成新的字符串 */
+    @NonNull
+    public String write(@NonNull SvgPathData data) {
+        StringBuilder out = new StringBuilder(data.commands.length + data.coords.length * 6);
+        write(data, out);
+        return out.toString();
+    }
+
+    /** 追加到可以复用的StringBuilder中 */
+    public void write(@NonNull SvgPathData data, @NonNull StringBuilder out) {
+        if (mIsRelative) {
+            writeRelative(data, out);
+        } else {
+            writeOriginal(data, out);
+        }
+    }
+
+    /** 追加到任意的Appendable中，例如Writer */
+    public void write(@NonNull SvgPathData data, @NonNull Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            write(data, (StringBuilder) out);
+            return ;
+        }
+
+        if (mScratch == null) {
+            mScratch = new StringBuilder(256);
+        }
+        final StringBuilder scratch = mScratch;
+        scratch.setLength(0);
+        write(data, scratch);
+        out.append(scratch);
+    }
+
+    /** 保持原来的锚点符和数值 */
+    private void writeOriginal(@NonNull SvgPathData data, @NonNull StringBuilder out) {
+        final byte[] commands = data.commands;
+        final float[] coords = data.coords;
+
+        char lastAnchor = 0;
+        int offset = 0;
+        for (byte command : commands) {
+            char anchor = (char) command;
+            int paramNum = SvgPathData.getAnchorParamNum(anchor);
+            boolean isAfterNumber = writeAnchor(out, anchor, lastAnchor, paramNum);
+            for (int i = 0; i < paramNum; i++) {
+                appendValue(out, coords[offset + i], mPrecision, isAfterNumber || i > 0);
+            }
+            offset += paramNum;
+            lastAnchor = anchor;
+        }
+    }
+
+    /**
+     * 全部写成相对坐标，末端坐标的计算规则和{@link SvgDataParser#createSvgPath(SvgPathData)}一致
+     */
+    private void writeRelative(@NonNull SvgPathData data, @NonNull StringBuilder out) {
+        final byte[] commands = data.commands;
+        final float[] coords = data.coords;
+        final int precision = mPrecision;
+
+        //原始数据的末端坐标和子路径起点
+        double x = 0d, y = 0d, startX = 0d, startY = 0d;
+        //解析写出的字符串时得到的末端坐标和子路径起点，和解析器一样按float累加
+        float outX = 0f, outY = 0f, outStartX = 0f, outStartY = 0f;
+
+        char lastAnchor = 0;
+        int offset = 0;
+        for (int c = 0; c < commands.length; c++) {
+            final char anchor = (char) commands[c];
+            final int paramNum = SvgPathData.getAnchorParamNum(anchor);
+            final boolean isAbsolute = anchor >= 'A' && anchor <= 'Z';
+            final char upper = isAbsolute ? anchor : (char) (anchor - 'a' + 'A');
+
+            switch (upper) {
+                case 'Z':
+                    writeAnchor(out, 'z', lastAnchor, 0);
+                    lastAnchor = 'z';
+                    x = startX;
+                    y = startY;
+                    outX = outStartX;
+                    outY = outStartY;
+                    break;
+                case 'H':
+                case 'V': {
+                    boolean isH = upper == 'H';
+                    double value = coords[offset] + (isAbsolute ? 0d : (isH ? x : y));
+                    double delta = round(value - (isH ? outX : outY), precision);
+                    char outAnchor = isH ? 'h' : 'v';
+                    boolean isAfterNumber = writeAnchor(out, outAnchor, lastAnchor, paramNum);
+                    lastAnchor = outAnchor;
+                    appendValue(out, delta, precision, isAfterNumber);
+                    if (isH) {
+                        x = value;
+                        outX += (float) delta;
+                    } else {
+                        y = value;
+                        outY += (float) delta;
+                    }
+                    break;
+                }
+                default: {
+                    //M L T Q C S：全部是坐标对，最后一对是末端坐标
+                    final boolean isFirstMove = c == 0;
+                    final char outAnchor = isFirstMove ? 'M' : (char) (upper - 'A' + 'a');
+                    final boolean isAfterNumber = writeAnchor(out, outAnchor, lastAnchor, paramNum);
+                    lastAnchor = outAnchor;
+
+                    double endX = x, endY = y;
+                    for (int i = 0; i < paramNum; i += 2) {
+                        double px = coords[offset + i] + (isAbsolute ? 0d : x);
+                        double py = coords[offset + i + 1] + (isAbsolute ? 0d : y);
+                        double dx = isFirstMove ? round(px, precision) : round(px - outX, precision);
+                        double dy = isFirstMove ? round(py, precision) : round(py - outY, precision);
+                        appendValue(out, dx, precision, isAfterNumber || i > 0);
+                        appendValue(out, dy, precision, true);
+                        endX = px;
+                        endY = py;
+                        if (i == paramNum - 2) {
+                            outX = isFirstMove ? (float) dx : outX + (float) dx;
+                            outY = isFirstMove ? (float) dy : outY + (float) dy;
+                        }
+                    }
+                    x = endX;
+                    y = endY;
+                    if (upper == 'M') {
+                        startX = x;
+                        startY = y;
+                        outStartX = outX;
+                        outStartY = outY;
+                    }
+                    break;
+                }
+            }
+            offset += paramNum;
+        }
+    }
+
+    /**
+     * 写出锚点符。和上一个锚点符相同时省略；起始符总是写出，因为起始符之后省略的锚点符会被当成直线
+     * @return 锚点符是否被省略，省略时第一个值紧跟在上一个数值之后
+     */
+    private static boolean writeAnchor(StringBuilder out, char anchor, char lastAnchor, int paramNum) {
+        if (anchor == lastAnchor && paramNum > 0 && anchor != 'M' && anchor != 'm') {
+            return true;
+        }
+        out.append(anchor);
+        return false;
+    }
+
+    /**
+     * 写出一个值，只在不写分隔符会和上一个数值连在一起时才写分隔符
+     * @param isAfterNumber 是否紧跟在上一个数值之后
+     */
+    private void appendValue(StringBuilder out, double value, int precision, boolean isAfterNumber) {
+        if (isAfterNumber) {
+            char first = firstChar(value, precision);
+            if (first != '-' && (first != '.' || !mIsLastHasDot)) {
+                out.append(SvgConsts.SEPARATOR);
+            }
+        }
+        mIsLastHasDot = appendNumber(out, value, precision);
+    }
+
+    /** {@link #appendNumber(StringBuilder, double, int)}写出的第一个字符，只区分'-'、'.'和其他 */
+    private static char firstChar(double value, int precision) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return '0';
+        }
+        final long pow = POW10[precision];
+        if (Math.abs(value * pow) >= SCALED_LIMIT) {
+            return Math.round(value) < 0L ? '-' : '0';
+        }
+        long scaled = Math.round(value * pow);
+        if (scaled < 0L) {
+            return '-';
+        }
+        return scaled != 0L && scaled < pow ? '.' : '0';
+    }
+
+    private static double round(double value, int precision) {
+        return Math.round(value * POW10[precision]) / (double) POW10[precision];
+    }
+
+    /**
+     * 按照指定的小数位数写出数值，省略末尾的0和整数部分的0，不会创建临时String对象。
+     * 非法数值写成0；放大之后过大的数值只写整数部分
+     * @return 写出的数值是否带小数点
+     */
+    static boolean appendNumber(@NonNull StringBuilder out, double value, int precision) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append('0');
+            return false;
+        }
+
+        final long pow = POW10[precision];
+        if (Math.abs(value * pow) >= SCALED_LIMIT) {
+            out.append(Math.round(value));
+            return false;
+        }
+
+        long scaled = Math.round(value * pow);
+        if (scaled == 0L) {
+            out.append('0');
+            return false;
+        }
+        if (scaled < 0L) {
+            out.append('-');
+            scaled = -scaled;
+        }
+
+        long intPart = scaled / pow;
+        long fraction = scaled % pow;
+        if (intPart != 0L || fraction == 0L) {
+            out.append(intPart);
+        }
+        if (fraction != 0L) {
+            int digits = precision;
+            while (fraction % 10L == 0L) {
+                fraction /= 10L;
+                digits--;
+            }
+            out.append('.');
+            for (long p = POW10[digits - 1]; p > fraction; p /= 10L) {
+                out.append('0');
+            }
+            out.append(fraction);
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,7 +1,6 @@
 package com.qxtx.idea.ideasvg.tools;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 
 /**
  * @author QXTX-WIN
@@ -10,21 +9,12 @@ import java.util.LinkedHashMap;
  */
 public class DeepCopy {
 
-    /** 深拷贝svg数据集 */
-    public static LinkedHashMap<String, float[]> svgMap(LinkedHashMap<String, float[]> map) {
-        if (map == null) {
+    /** 深拷贝svg的值数组 */
+    public static float[] svgCoords(float[] coords) {
+        if (coords == null) {
             return null;
         }
 
-        LinkedHashMap<String, float[]> clone = new LinkedHashMap<>();
-
-        if (map.size() != 0) {
-            float[] values;
-            for (String k : map.keySet()) {
-                values = map.get(k);
-                clone.put(k, Arrays.copyOf(values, values.length));
-            }
-        }
-        return clone;
+        return Arrays.copyOf(coords, coords.length);
     }
 }
@@ -0,0 +1,73 @@
+package com.qxtx.idea.ideasvg.tools;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 11:20
+ * Description: svg后台任务（解析、生成路径）使用的线程池，所有的IdeaSvgView共享。
+ *  可以通过{@link #set(Executor)}替换成应用自己的线程池。
+ */
+public final class SvgExecutor {
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /** 空闲线程的存活时间 */
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private static volatile Executor sExecutor;
+
+    private static Executor sDefaultExecutor;
+
+    private SvgExecutor() {
+    }
+
+    /** 获得当前使用的线程池 */
+    @NonNull
+    public static Executor get() {
+        Executor executor = sExecutor;
+        return executor != null ? executor : getDefault();
+    }
+
+    /**
+     * 替换svg后台任务使用的线程池
+     * @param executor 如果为null，则恢复使用默认的线程池
+     */
+    public static void set(@Nullable Executor executor) {
+        sExecutor = executor;
+    }
+
+    private static synchronized Executor getDefault() {
+        if (sDefaultExecutor == null) {
+            int poolSize = Math.max(1, Math.min(4, CPU_COUNT - 1));
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new SvgThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            sDefaultExecutor = executor;
+        }
+        return sDefaultExecutor;
+    }
+
+    private static final class SvgThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }, "IdeaSvg-worker-" + mCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
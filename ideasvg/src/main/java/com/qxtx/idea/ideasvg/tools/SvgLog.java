@@ -7,71 +7,191 @@ import android.util.Log;
  * @date 2020/3/17 9:39
  * <p>
  * Description 日志打印封装类
+ *
+ *  1、全局日志等级，低于等级的日志直接返回，默认为{@link #INFO}，{@link #D(String...)}的调试日志默认不输出；
+ *  2、拼接开销较大的日志使用{@link Msg}延迟生成，或者先用{@link #isLoggable(int)}判断，日志关闭时没有任何开销；
+ *  3、调用者信息需要获取调用栈，开销很大，默认关闭，需要时使用{@link #setCallerEnable(boolean)}打开；
  */
 public final class SvgLog {
 
     private static final String TAG = "SvgLog";
 
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+    public static final int ASSERT = Log.ASSERT;
+    /** 关闭所有日志 */
+    public static final int NONE = Integer.MAX_VALUE;
+
+    private static volatile int sLevel = INFO;
+
+    private static volatile boolean sIsCallerEnabled = false;
+
+    /** 延迟生成的日志内容，只在日志会被输出时才调用 */
+    public interface Msg {
+        String get();
+    }
+
+    private SvgLog() {
+    }
+
+    /**
+     * 设置全局日志等级，低于此等级的日志都不会输出
+     * @param level {@link #DEBUG}、{@link #INFO}、{@link #WARN}、{@link #ERROR}、{@link #ASSERT}或{@link #NONE}
+     */
+    public static void setLevel(int level) {
+        sLevel = level;
+    }
+
+    public static int getLevel() {
+        return sLevel;
+    }
+
+    /** 是否在日志中输出调用者的类名、方法名和行号。需要获取调用栈，只建议在调试时打开 */
+    public static void setCallerEnable(boolean enable) {
+        sIsCallerEnabled = enable;
+    }
+
+    public static boolean isCallerEnable() {
+        return sIsCallerEnabled;
+    }
+
+    /** 指定等级的日志是否会被输出 */
+    public static boolean isLoggable(int level) {
+        return level >= sLevel;
+    }
+
+    public static void E(String msg) {
+        if (isLoggable(ERROR)) {
+            print(ERROR, msg);
+        }
+    }
+
     public static void E(String... msg) {
-        log("E", msg);
+        if (isLoggable(ERROR)) {
+            print(ERROR, join(msg));
+        }
+    }
+
+    public static void E(Msg msg) {
+        if (isLoggable(ERROR)) {
+            print(ERROR, msg.get());
+        }
+    }
+
+    public static void I(String msg) {
+        if (isLoggable(INFO)) {
+            print(INFO, msg);
+        }
     }
 
     public static void I(String... msg) {
-        log("I", msg);
+        if (isLoggable(INFO)) {
+            print(INFO, join(msg));
+        }
+    }
+
+    public static void I(Msg msg) {
+        if (isLoggable(INFO)) {
+            print(INFO, msg.get());
+        }
+    }
+
+    public static void W(String msg) {
+        if (isLoggable(WARN)) {
+            print(WARN, msg);
+        }
     }
 
     public static void W(String... msg) {
-        log("W", msg);
+        if (isLoggable(WARN)) {
+            print(WARN, join(msg));
+        }
     }
 
-    public static void D(String... msg) {
-        log("D", msg);
+    public static void W(Msg msg) {
+        if (isLoggable(WARN)) {
+            print(WARN, msg.get());
+        }
     }
 
-    public static void WTF(String... msg) {
-        log("WTF", msg);
+    public static void D(String msg) {
+        if (isLoggable(DEBUG)) {
+            print(DEBUG, msg);
+        }
     }
 
-    private static void log(String level, String... msg) {
-        String callerLog = "";
-        StackTraceElement[] ste = Thread.currentThread().getStackTrace();
-        //排除调用栈自己的2个，本方法自己1个， 从第4个开始
-        for (int i = 3; i < ste.length; i++) {
-            StackTraceElement child = ste[i];
-            if (child.getClassName().equals(SvgLog.class.getName())) {
-                continue;
-            }
+    public static void D(String... msg) {
+        if (isLoggable(DEBUG)) {
+            print(DEBUG, join(msg));
+        }
+    }
 
-            String clsName = child.getClassName();
-            callerLog = clsName.substring(clsName.lastIndexOf(".") + 1) + "$" + child.getMethodName()
-                    + "(" + child.getFileName() + ":" + child.getLineNumber() + ")\n";
-            break;
+    public static void D(Msg msg) {
+        if (isLoggable(DEBUG)) {
+            print(DEBUG, msg.get());
+        }
+    }
+
+    public static void WTF(String... msg) {
+        if (isLoggable(ASSERT)) {
+            print(ASSERT, join(msg));
         }
+    }
 
+    private static String join(String... msg) {
+        if (msg == null || msg.length == 0) {
+            return "";
+        }
+        if (msg.length == 1) {
+            return msg[0];
+        }
         StringBuilder sb = new StringBuilder();
         for (String s : msg) {
             sb.append(s);
         }
-        String log = sb.toString();
+        return sb.toString();
+    }
+
+    private static void print(int level, String log) {
+        if (sIsCallerEnabled) {
+            log = findCaller() + log;
+        }
 
-        level = level.toUpperCase();
         switch (level) {
-            case "E":
-                Log.e(TAG, callerLog + log);
+            case ERROR:
+                Log.e(TAG, log);
                 break;
-            case "I":
-                Log.i(TAG, callerLog + log);
+            case INFO:
+                Log.i(TAG, log);
                 break;
-            case "D":
-                Log.d(TAG, callerLog + log);
+            case DEBUG:
+                Log.d(TAG, log);
                 break;
-            case "W":
-                Log.w(TAG, callerLog + log);
+            case WARN:
+                Log.w(TAG, log);
                 break;
-            case "WTF":
-                Log.wtf(TAG, callerLog + log);
+            case ASSERT:
+                Log.wtf(TAG, log);
                 break;
         }
+    }
+
+    /** 找到第一个不是SvgLog的调用者 */
+    private static String findCaller() {
+        StackTraceElement[] ste = Thread.currentThread().getStackTrace();
+        //排除调用栈自己的2个，本方法自己1个， 从第4个开始
+        for (int i = 3; i < ste.length; i++) {
+            StackTraceElement child = ste[i];
+            if (child.getClassName().equals(SvgLog.class.getName())) {
+                continue;
+            }
 
+            String clsName = child.getClassName();
+            return clsName.substring(clsName.lastIndexOf(".") + 1) + "$" + child.getMethodName()
+                    + "(" + child.getFileName() + ":" + child.getLineNumber() + ")\n";
+        }
+        return "";
     }
 }
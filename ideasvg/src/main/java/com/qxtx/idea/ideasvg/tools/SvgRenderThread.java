@@ -0,0 +1,31 @@
+package com.qxtx.idea.ideasvg.tools;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 22:40
+ * Description: svg的渲染线程，所有的IdeaSvgTextureView共享，svg的解析、动画计算和绘制都在这个线程中执行。
+ *  线程带有Looper，可以使用Choreographer和屏幕刷新同步；第一次使用时启动，之后一直存在。
+ */
+public final class SvgRenderThread {
+
+    private static Handler sHandler;
+
+    private SvgRenderThread() {
+    }
+
+    /** 获得渲染线程的Handler */
+    @NonNull
+    public static synchronized Handler getHandler() {
+        if (sHandler == null) {
+            HandlerThread thread = new HandlerThread("IdeaSvg-render", Process.THREAD_PRIORITY_DISPLAY);
+            thread.start();
+            sHandler = new Handler(thread.getLooper());
+        }
+        return sHandler;
+    }
+}
@@ -2,6 +2,8 @@ package com.qxtx.idea.ideasvg.view;
 
 import com.qxtx.idea.ideasvg.animation.ISvgAnim;
 import com.qxtx.idea.ideasvg.listener.AnimListener;
+import com.qxtx.idea.ideasvg.parser.SvgDocument;
+import com.qxtx.idea.ideasvg.parser.SvgPathData;
 
 /**
  * @author QXTX-WIN
@@ -70,4 +72,39 @@ public interface ISvgView {
 
     /** 直接显示SVG */
     boolean showSvg(String svgData);
+
+    /**
+     * 直接显示完整的svg文档，每个path使用文档中的填充颜色、描边颜色和变换。
+     * 会覆盖之前设置的填充颜色、描边颜色和svg绘制模式。
+     * @param document 由{@link com.qxtx.idea.ideasvg.parser.SvgDocumentLoader}加载得到
+     * @return [false]文档为空，未被执行 [true]成功显示
+     */
+    boolean showSvg(SvgDocument document);
+
+    /**
+     * 直接显示已经解析好的svg数据集，例如{@link com.qxtx.idea.ideasvg.parser.SvgBinaryLoader}加载的预编译数据，不需要解析文本
+     * @return [false]数据集为空，未被执行 [true]成功显示
+     */
+    boolean showSvg(SvgPathData data);
+
+    /**
+     * 同{@link #showSvg(String, long, AnimListener)}，使用已经解析好的svg数据集
+     * @return [false]动画未被启动 [true]动画成功启动
+     */
+    boolean showSvg(SvgPathData data, long durationMs, AnimListener listener);
+
+    /**
+     * 异步显示SVG。在后台线程解析svg字符串并生成路径，在下一帧直接显示，不阻塞UI线程。
+     * 如果在完成之前又调用了showSvg/showSvgAsync/clear，本次调用将会被取消。
+     * @return [false]svg字符串为空，未被执行 [true]已经开始异步解析
+     */
+    boolean showSvgAsync(String svgData);
+
+    /**
+     * 异步的svg切换，在后台线程解析svg字符串并生成路径，之后的行为和{@link #showSvg(String, long, AnimListener)}一致。
+     * 无动画显示时，在新的svg显示之后依次回调{@link AnimListener#onAnimStart()}和{@link AnimListener#onAnimEnd()}；
+     * 解析失败或者被更新的调用取代时，回调{@link AnimListener#onAnimCancel()}。所有回调都在UI线程。
+     * @return [false]svg字符串为空，未被执行 [true]已经开始异步解析
+     */
+    boolean showSvgAsync(String svgData, long durationMs, AnimListener listener);
 }
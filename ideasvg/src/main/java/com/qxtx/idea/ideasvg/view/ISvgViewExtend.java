@@ -41,6 +41,35 @@ public interface ISvgViewExtend {
     /** 是否正在使用手势 */
     boolean isGesturePlaying();
 
+    /**
+     * 是否在缩小显示时使用简化的svg。启用后，缩放值小于1时按缩放等级使用预先简化的数据集生成路径，
+     * 屏幕上的误差不超过半个像素，复杂的svg缩小显示时可以大幅减少绘制的线段数。默认不启用。
+     */
+    void setSvgLodEnable(boolean enable);
+
+    boolean isSvgLodEnable();
+
+    /**
+     * 缩放时线条粗细是否保持不变。缩放通过画布的矩阵作用在路径上，启用后线条粗细总是{@link #setStokeWidth(float)}设置的值，
+     * 否则线条粗细随缩放值变化。默认启用
+     */
+    void setNonScalingStroke(boolean enable);
+
+    boolean isNonScalingStroke();
+
+    /**
+     * 是否使用位图缓存。启用后，svg只在路径、颜色、线条或者缩放等级变化时绘制到位图中，
+     * 平移、透明度变化和单纯的重绘直接绘制位图。缩放值按半个2倍程分级，同一级中的缩放直接缩放位图。
+     * 位图缓存在{@link ISvgView#clear()}、view离开窗口和系统内存不足时释放。
+     * 透明度作用在整个svg上，而不是每个path上，重叠的path在半透明时看起来会有区别。
+     * 变换动画、路径动画和设置了{@link SvgDrawListener}时不使用位图缓存。默认不启用。
+     * {@link IdeaSvgTextureView}在渲染线程中每一帧都直接绘制路径，不支持位图缓存，调用此方法不起作用
+     */
+    void setSvgRasterCacheEnable(boolean enable);
+
+    /** 是否正在使用位图缓存，不支持位图缓存的view总是返回false */
+    boolean isSvgRasterCacheEnable();
+
     /**
      * 是否支持手势缩放
      * @param isGestureZoomEnable [true]支持双指缩放 [false]禁用双指缩放
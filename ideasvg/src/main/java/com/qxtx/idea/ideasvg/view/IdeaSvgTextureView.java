@@ -0,0 +1,1376 @@
+package com.qxtx.idea.ideasvg.view;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.SurfaceTexture;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.Surface;
+import android.view.TextureView;
+import android.view.ViewGroup;
+
+import com.qxtx.idea.ideasvg.R;
+import com.qxtx.idea.ideasvg.SvgConsts;
+import com.qxtx.idea.ideasvg.animation.ISvgAnim;
+import com.qxtx.idea.ideasvg.animation.SvgTrimAnim;
+import com.qxtx.idea.ideasvg.listener.AnimListener;
+import com.qxtx.idea.ideasvg.listener.SvgDrawListener;
+import com.qxtx.idea.ideasvg.parser.SvgDataCache;
+import com.qxtx.idea.ideasvg.parser.SvgDocument;
+import com.qxtx.idea.ideasvg.parser.SvgPathCache;
+import com.qxtx.idea.ideasvg.parser.SvgPathData;
+import com.qxtx.idea.ideasvg.tools.SvgExecutor;
+import com.qxtx.idea.ideasvg.tools.SvgLog;
+import com.qxtx.idea.ideasvg.tools.SvgRenderThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 22:40
+ * Description: 在渲染线程中绘制svg的view，基于TextureView，和{@link IdeaSvgView}使用相同的接口和xml属性，可以直接替换。
+ *
+ * 1、svg的解析、动画的计算和绘制都在渲染线程（见{@link SvgRenderThread}）中执行，UI线程只负责转发调用，
+ *    大量的动画svg不会占用UI线程的时间；
+ * 2、动画由渲染线程的Choreographer驱动，和屏幕刷新同步；没有动画时，只在内容变化之后绘制一帧；
+ * 3、所有的IdeaSvgTextureView共享同一个渲染线程。
+ *
+ * 备注：
+ * 1、所有的调用都在渲染线程中异步执行，返回值只表示调用是否被接受；svg字符串解析失败时只输出日志；
+ * 2、{@link AnimListener}和{@link SvgDrawListener}都在渲染线程中回调，需要更新UI时自行切换到UI线程；
+ *    无动画的svg切换也会依次回调{@link AnimListener#onAnimStart()}和{@link AnimListener#onAnimEnd()}；
+ * 3、svg的透明度作用在每个path的画笔上；每一帧都直接绘制路径，不使用位图缓存；
+ * 4、TextureView需要硬件加速，否则不会显示任何内容。
+ */
+public class IdeaSvgTextureView extends TextureView implements ISvgView, ISvgViewExtend, TextureView.SurfaceTextureListener {
+
+    /** svg缩放的最小值 */
+    private static final float SCALE_MIN_VALUE = 0.1f;
+    /** svg缩放的最大值 */
+    private static final float SCALE_MAX_VALUE = 25f;
+
+    private static final int DEFAULT_OUTLINE_WIDTH = 3;
+    private static final String DEFAULT_OUTLINE_COLOR = "#FF0000";
+    private static final String DEFAULT_FILL_COLOR = "#FF0000";
+
+    /** 动画类型，同一类型的动画同时只能有一个，新的动画会取消旧的动画 */
+    private static final int ANIM_ALPHA = 1;
+    private static final int ANIM_TRANSLATE = 2;
+    private static final int ANIM_SCALE = 3;
+    private static final int ANIM_MORPH = 4;
+    private static final int ANIM_SHAPE = 5;
+
+    private final Handler mRenderHandler = SvgRenderThread.getHandler();
+
+    /** 这个控件投递到渲染线程的所有任务都使用这个token，离开窗口时可以一次性移除未执行的任务 */
+    private final Object mRenderToken = new Object();
+
+    /** 异步调用的序号，每次新的svg显示请求都会使之前未执行的显示请求失效 */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+
+    /** 投递到渲染线程的次数，离开窗口之后没有新的调用时，才把调用线程中记录的参数恢复为实际显示的状态 */
+    private final AtomicInteger mRequestVersion = new AtomicInteger();
+
+    /** 已经投递、还没有执行的带有动画监听的请求，离开窗口时被丢弃的请求需要回调取消 */
+    private final Set<PendingRequest> mPendingRequests = Collections.synchronizedSet(new HashSet<PendingRequest>());
+
+    //---------------- 以下变量在调用线程中更新，用于调用时的检查和getter ----------------
+
+    /** 是否有svg被显示，调用时更新，不等待渲染线程 */
+    private volatile boolean mHasSvg;
+
+    /** 最后一次调用设置的透明度、缩放值和平移量，动画过程中就是动画的终点 */
+    private volatile int mAlpha = 255;
+    private volatile float mScale = 1f;
+    private volatile float mTranslateX, mTranslateY;
+
+    /**
+     * 已经被接受、但渲染线程还没有处理的动画请求个数。
+     * 调用线程中增加，渲染线程处理请求后（动画开始或者被忽略）减少，和{@link #mIsSvgAnimRunning}一起决定{@link #isSvgAnimRunning()}
+     */
+    private final AtomicInteger mPendingAnimCount = new AtomicInteger();
+
+    private volatile boolean mIsGestureEnabled;
+    private volatile boolean mIsGesturePlaying;
+
+    private volatile boolean mIsLodEnabled;
+    private volatile boolean mIsNonScalingStroke = true;
+
+    /** 绘制属性，在调用线程中设置，渲染线程每一帧读取，不需要投递到渲染线程，离开窗口时也不会丢失 */
+    private volatile SvgDrawListener mSvgDrawListener;
+    private volatile int mSvgStyle;
+    private volatile boolean mIsForceCenter;
+    private volatile float mStokeWidth;
+    private volatile int[] mOutlineColors;
+    private volatile int[] mFillColors;
+
+    private ScaleGestureDetector mScaleDetector;
+
+    /** 手势缩放过程中的缩放值 */
+    private float mGestureScale = 1f;
+
+    /** xml中设定的宽高模式 */
+    private int mWidthMode;
+    private int mHeightMode;
+
+    /** 最近一次按照svg尺寸修正的控件宽高，只在UI线程中使用 */
+    private int mFixedWidth = -1, mFixedHeight = -1;
+
+    //---------------- 以下变量只在渲染线程中使用 ----------------
+
+    /** 保护{@link #mSurface}，绘制期间Surface不会被释放 */
+    private final Object mSurfaceLock = new Object();
+    private Surface mSurface;
+    private int mSurfaceWidth, mSurfaceHeight;
+
+    private final Choreographer.FrameCallback mFrameCallback = this::doFrame;
+
+    /** 是否已经请求了下一帧 */
+    private boolean mIsFrameScheduled;
+
+    /** 是否有动画正在执行，只在渲染线程中更新，调用线程只读 */
+    private volatile boolean mIsSvgAnimRunning;
+
+    /** 内容是否变化了，需要绘制新的一帧 */
+    private boolean mIsFrameDirty;
+
+    /** 数据集变化了，需要重新生成路径集 */
+    private boolean mIsGeometryDirty;
+
+    /** 正在执行的动画 */
+    private final List<FrameAnim> mAnims = new ArrayList<>();
+
+    /** 每一帧推进动画时使用，动画在回调中可能被移除 */
+    private final List<FrameAnim> mStepAnims = new ArrayList<>();
+
+    /** 当前svg的数据、路径集、边界和绘制，缩放动画过程中其中的绘制缩放值是每一帧的值 */
+    private final SvgPathRenderer mRenderer = new SvgPathRenderer();
+
+    /** 正在绘制的透明度和平移量，动画过程中是每一帧的值 */
+    private int mDrawAlpha = 255;
+    private float mDrawTranslateX, mDrawTranslateY;
+
+    private Drawable mDrawable;
+    private int mDrawableStyle;
+
+    public IdeaSvgTextureView(Context context) {
+        this(context, null);
+    }
+
+    public IdeaSvgTextureView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public IdeaSvgTextureView(Context context, AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, 0);
+    }
+
+    public IdeaSvgTextureView(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        init(context, attrs);
+    }
+
+    /** 属性和{@link IdeaSvgView}一致 */
+    private void init(Context context, AttributeSet attrs) {
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+
+        String svgData = null;
+        Drawable src = null;
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.IdeaSvgView);
+        try {
+            mWidthMode = a.getLayoutDimension(R.styleable.IdeaSvgView_android_layout_width, ViewGroup.LayoutParams.WRAP_CONTENT);
+            mHeightMode = a.getLayoutDimension(R.styleable.IdeaSvgView_android_layout_height, ViewGroup.LayoutParams.WRAP_CONTENT);
+
+            svgData = a.getString(R.styleable.IdeaSvgView_svgData);
+            mIsForceCenter = a.getBoolean(R.styleable.IdeaSvgView_forceCenter, true);
+            mSvgStyle = a.getInt(R.styleable.IdeaSvgView_svgStyle, IdeaSvgView.SVG_OUTLINE);
+            mDrawableStyle = a.getInt(R.styleable.IdeaSvgView_drawableStyle, IdeaSvgView.DRAWABLE_AUTO);
+            mStokeWidth = a.getInt(R.styleable.IdeaSvgView_outlineWidthPx, DEFAULT_OUTLINE_WIDTH);
+            mOutlineColors = new int[] {a.getColor(R.styleable.IdeaSvgView_outlineColor, Color.parseColor(DEFAULT_OUTLINE_COLOR))};
+            mFillColors = new int[] {a.getColor(R.styleable.IdeaSvgView_fillColor, Color.parseColor(DEFAULT_FILL_COLOR))};
+            src = a.getDrawable(R.styleable.IdeaSvgView_src);
+        } catch (Exception e) {
+            SvgLog.I("读取attr发生异常：" + e.getMessage());
+            e.printStackTrace();
+
+            mOutlineColors = new int[] {Color.parseColor(DEFAULT_OUTLINE_COLOR)};
+            mFillColors = new int[] {Color.parseColor(DEFAULT_FILL_COLOR)};
+        }
+        a.recycle();
+
+        mScaleDetector = new ScaleGestureDetector(context, new SvgScaleGestureListener());
+
+        if (!TextUtils.isEmpty(svgData)) {
+            showSvg(svgData);
+        } else if (src != null) {
+            setDrawable(src);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        synchronized (mSurfaceLock) {
+            mSurface = new Surface(surface);
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+        }
+        runOnRenderThread(this::invalidateFrame);
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        synchronized (mSurfaceLock) {
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+        }
+        runOnRenderThread(this::invalidateFrame);
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        //等待正在绘制的一帧完成，之后渲染线程不会再使用这个Surface
+        synchronized (mSurfaceLock) {
+            if (mSurface != null) {
+                mSurface.release();
+                mSurface = null;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+    /**
+     * 离开窗口时，丢弃还没有执行的显示请求和渲染任务，停止所有的动画，并取消已经请求的下一帧，
+     * 渲染线程不再持有这个控件。重新进入窗口后，Surface可用时会重新绘制当前的svg。
+     * 被丢弃的请求都会回调{@link AnimListener#onAnimCancel()}，调用线程中记录的参数恢复为实际显示的状态
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mGeneration.incrementAndGet();
+        mRenderHandler.removeCallbacksAndMessages(mRenderToken);
+        //被移除的动画请求不会再被处理
+        mPendingAnimCount.set(0);
+
+        final List<AnimListener> droppedListeners = new ArrayList<>();
+        synchronized (mPendingRequests) {
+            for (PendingRequest request : mPendingRequests) {
+                droppedListeners.add(request.mListener);
+            }
+            mPendingRequests.clear();
+        }
+
+        final int version = mRequestVersion.get();
+        runOnRenderThread(() -> {
+            for (AnimListener listener : droppedListeners) {
+                notifyCancel(listener);
+            }
+
+            stopAnimsOnRender();
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+            mIsFrameScheduled = false;
+
+            //离开窗口之后还有新的调用时，以新的调用为准
+            if (version + 1 == mRequestVersion.get()) {
+                syncSvgParams();
+            }
+        });
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!mIsGestureEnabled || !mHasSvg) {
+            return super.onTouchEvent(event);
+        }
+
+        mScaleDetector.onTouchEvent(event);
+        return true;
+    }
+
+    @Override
+    public boolean showSvg(@NonNull String svgData) {
+        return showSvgImpl(svgData, null, SvgConsts.INVAILE_VALUE, null, true, false);
+    }
+
+    @Override
+    public boolean showSvg(@NonNull String svgData, long durationMs, AnimListener listener) {
+        return showSvgImpl(svgData, null, durationMs, listener, false, false);
+    }
+
+    @Override
+    public boolean showSvg(@NonNull SvgPathData data) {
+        return showSvgImpl(null, data, SvgConsts.INVAILE_VALUE, null, true, false);
+    }
+
+    @Override
+    public boolean showSvg(@NonNull SvgPathData data, long durationMs, AnimListener listener) {
+        return showSvgImpl(null, data, durationMs, listener, false, false);
+    }
+
+    @Override
+    public boolean showSvg(@NonNull SvgDocument document) {
+        if (document == null || document.getPathData().isEmpty()) {
+            SvgLog.I("错误的svg文档");
+            return false;
+        }
+
+        final int generation = mGeneration.incrementAndGet();
+        resetSvgParams();
+        mHasSvg = true;
+
+        //文档中每个path都有自己的颜色和变换。绘制样式属于调用线程，在这里设置；
+        //渲染线程只拿到不可变的数据集和复制出来的矩阵
+        final Matrix[] matrices = document.copyMatrices();
+        mFillColors = document.copyFillColors();
+        mOutlineColors = document.copyStrokeColors();
+        mSvgStyle = document.hasStroke() ? IdeaSvgView.SVG_OUTLINE_AND_FILL : IdeaSvgView.SVG_FILL;
+
+        final SvgPathData data = document.getPathData();
+        runOnRenderThread(() -> {
+            if (generation != mGeneration.get()) {
+                return ;
+            }
+
+            showSvgOnRender(data.normalize(), null);
+            mRenderer.setPathMatrices(matrices);
+        });
+        return true;
+    }
+
+    @Override
+    public boolean showSvgAsync(@NonNull String svgData) {
+        return showSvgImpl(svgData, null, SvgConsts.INVAILE_VALUE, null, true, true);
+    }
+
+    @Override
+    public boolean showSvgAsync(@NonNull String svgData, long durationMs, AnimListener listener) {
+        return showSvgImpl(svgData, null, durationMs, listener, false, true);
+    }
+
+    /**
+     * 所有showSvg的实现，svg字符串在渲染线程中解析，异步显示时在后台线程解析
+     * @param svgData 和data只有一个不为null
+     * @param isDirectly [true]直接显示 [false]从当前的svg切换到新的svg
+     * @param isAsync 是否在后台线程中解析svg字符串并生成路径
+     */
+    private boolean showSvgImpl(final String svgData, final SvgPathData data, final long durationMs,
+                                final AnimListener listener, final boolean isDirectly, final boolean isAsync) {
+        if (data != null ? data.isEmpty() : TextUtils.isEmpty(svgData)) {
+            SvgLog.I("错误的svg数据");
+            return false;
+        }
+
+        if (!isDirectly) {
+            if (!mHasSvg) {
+                SvgLog.I("没有svg被绘制，忽略svg变换");
+                return false;
+            }
+            if (mIsGesturePlaying) {
+                SvgLog.I("正在使用svg手势，svg变换动画被忽略");
+                return false;
+            }
+        }
+
+        final int generation = mGeneration.incrementAndGet();
+        resetSvgParams();
+        mHasSvg = true;
+
+        if (!isAsync) {
+            runOnRenderThread(listener, () -> {
+                if (generation != mGeneration.get()) {
+                    notifyCancel(listener);
+                    return ;
+                }
+                SvgPathData destData = data != null ? data : SvgDataCache.getInstance().get(svgData);
+                onSvgDataReady(generation, destData, null, durationMs, listener, isDirectly);
+            });
+            return true;
+        }
+
+        try {
+            SvgExecutor.get().execute(() -> {
+                if (generation != mGeneration.get()) {
+                    runOnRenderThread(listener, () -> notifyCancel(listener));
+                    return ;
+                }
+
+                SvgPathData destData = SvgDataCache.getInstance().get(svgData);
+                List<Path> pathList = null;
+                if (destData != null && !destData.isEmpty() && generation == mGeneration.get()) {
+                    pathList = SvgPathCache.getInstance().get(destData);
+                }
+
+                final List<Path> preparedPaths = pathList;
+                runOnRenderThread(listener,
+                        () -> onSvgDataReady(generation, destData, preparedPaths, durationMs, listener, isDirectly));
+            });
+        } catch (RejectedExecutionException e) {
+            SvgLog.I("无法执行异步svg解析：" + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean svgAlpha(int value, long durationMs, AnimListener listener) {
+        if (mIsGesturePlaying) {
+            SvgLog.I("正在使用svg手势，透明度动画被忽略");
+            return false;
+        }
+
+        if (value < 0 || value > 255) {
+            SvgLog.I("非法的透明度");
+            return false;
+        }
+
+        if (value == mAlpha) {
+            SvgLog.I("透明度未发生变化");
+            return false;
+        }
+
+        if (!mHasSvg) {
+            SvgLog.I("没有svg被绘制，忽略透明度变化");
+            return false;
+        }
+
+        mAlpha = value;
+        runAnimOnRenderThread(durationMs > 0, listener, () -> {
+            if (durationMs <= 0) {
+                cancelAnim(ANIM_ALPHA);
+                mDrawAlpha = value;
+                invalidateFrame();
+                return ;
+            }
+
+            final int fromAlpha = mDrawAlpha;
+            startAnim(new FrameAnim(ANIM_ALPHA, durationMs, listener) {
+                @Override
+                void onUpdate(float fraction) {
+                    mDrawAlpha = (int) (fromAlpha + (value - fromAlpha) * fraction);
+                }
+            });
+        });
+        return true;
+    }
+
+    @Override
+    public boolean svgTranslate(float x, float y, long durationMs, @Nullable AnimListener listener) {
+        if (mIsGesturePlaying) {
+            SvgLog.I("正在使用svg手势，平移动画被忽略");
+            return false;
+        }
+
+        if (mTranslateX == x && mTranslateY == y) {
+            SvgLog.I("未发生平移");
+            return false;
+        }
+
+        if (!mHasSvg) {
+            SvgLog.I("没有svg被绘制，忽略平移");
+            return false;
+        }
+
+        mTranslateX = x;
+        mTranslateY = y;
+        runAnimOnRenderThread(durationMs > 0, listener, () -> {
+            if (durationMs <= 0) {
+                cancelAnim(ANIM_TRANSLATE);
+                mDrawTranslateX = x;
+                mDrawTranslateY = y;
+                invalidateFrame();
+                return ;
+            }
+
+            final float fromX = mDrawTranslateX, fromY = mDrawTranslateY;
+            startAnim(new FrameAnim(ANIM_TRANSLATE, durationMs, listener) {
+                @Override
+                void onUpdate(float fraction) {
+                    mDrawTranslateX = fromX + (x - fromX) * fraction;
+                    mDrawTranslateY = fromY + (y - fromY) * fraction;
+                }
+            });
+        });
+        return true;
+    }
+
+    @Override
+    public boolean svgScale(float scale, long durationMs, @Nullable AnimListener listener) {
+        if (mIsGesturePlaying) {
+            SvgLog.I("正在使用svg手势，缩放动画被忽略");
+            return false;
+        }
+
+        if (scale <= 0f || mScale == scale) {
+            SvgLog.I("无效的缩放值");
+            return false;
+        }
+
+        if (!mHasSvg) {
+            SvgLog.I("没有svg被绘制，忽略缩放");
+            return false;
+        }
+
+        if (scale > SCALE_MAX_VALUE || scale < SCALE_MIN_VALUE) {
+            SvgLog.I("超出了允许的缩放范围");
+            scale = Math.max(SCALE_MIN_VALUE, Math.min(SCALE_MAX_VALUE, scale));
+        }
+
+        final float destScale = scale;
+        mScale = destScale;
+        runAnimOnRenderThread(durationMs > 0, listener, () -> scaleOnRender(destScale, durationMs, listener));
+        return true;
+    }
+
+    @Override
+    public boolean startSvgAnim(ISvgAnim anim) {
+        if (anim == null) {
+            return false;
+        }
+
+        if (!mHasSvg) {
+            SvgLog.I("未发现svg绘制，忽略svg动画请求");
+            return false;
+        }
+
+        if (mIsGesturePlaying) {
+            SvgLog.I("正在使用svg手势，忽略svg动画请求");
+            return false;
+        }
+
+        runAnimOnRenderThread(true, anim.getListener(), () -> startShapeAnimOnRender(anim));
+        return true;
+    }
+
+    @Override
+    public boolean fillSvg(int[] colors, boolean isAnim) {
+        return false;
+    }
+
+    @Override
+    public void finishSvgAnim() {
+        runOnRenderThread(() -> {
+            for (FrameAnim anim : new ArrayList<>(mAnims)) {
+                anim.finish();
+            }
+        });
+    }
+
+    @Override
+    public void stopSvgAnim() {
+        runOnRenderThread(this::stopAnimsOnRender);
+    }
+
+    @Override
+    public void clear() {
+        mGeneration.incrementAndGet();
+        mHasSvg = false;
+        resetSvgParams();
+        runOnRenderThread(this::clearOnRender);
+    }
+
+    @Override
+    public void refresh() {
+        runOnRenderThread(this::invalidateFrame);
+    }
+
+    @Override
+    public void setSvgDrawListener(SvgDrawListener listener) {
+        mSvgDrawListener = listener;
+    }
+
+    /** 和{@link IdeaSvgView}一致，绘制属性在下一次{@link #refresh()}之后生效 */
+    @Override
+    public void setSvgMode(@IdeaSvgView.SvgStyle int style) {
+        mSvgStyle = style;
+    }
+
+    @Override
+    public void setSvgGestureEnable(boolean gestureEnabled) {
+        mIsGestureEnabled = gestureEnabled;
+    }
+
+    @Override
+    public int getSvgAlpha() {
+        return mHasSvg ? mAlpha : SvgConsts.INVAILE_VALUE;
+    }
+
+    @Override
+    public float getSvgScale() {
+        return mHasSvg ? mScale : SvgConsts.INVAILE_VALUE;
+    }
+
+    @Override
+    public float[] getSvgTranslate() {
+        return mHasSvg ? new float[] {mTranslateX, mTranslateY} : new float[] {SvgConsts.INVAILE_VALUE, SvgConsts.INVAILE_VALUE};
+    }
+
+    @Override
+    public boolean isGestureEnable() {
+        return mIsGestureEnabled;
+    }
+
+    @Override
+    public boolean isGesturePlaying() {
+        return mIsGesturePlaying;
+    }
+
+    @Override
+    public void setSvgLodEnable(boolean enable) {
+        if (mIsLodEnabled == enable) {
+            return ;
+        }
+
+        mIsLodEnabled = enable;
+        runOnRenderThread(() -> {
+            mRenderer.setLodEnabled(enable);
+            if (enable && mRenderer.getDrawScale() < 1f) {
+                mRenderer.prepareLodAsync();
+            }
+            markGeometryDirty();
+        });
+    }
+
+    @Override
+    public boolean isSvgLodEnable() {
+        return mIsLodEnabled;
+    }
+
+    @Override
+    public void setNonScalingStroke(boolean enable) {
+        if (mIsNonScalingStroke == enable) {
+            return ;
+        }
+
+        mIsNonScalingStroke = enable;
+        refresh();
+    }
+
+    @Override
+    public boolean isNonScalingStroke() {
+        return mIsNonScalingStroke;
+    }
+
+    /** 渲染线程中每一帧都直接绘制路径，不支持位图缓存，忽略这个设置 */
+    @Override
+    public void setSvgRasterCacheEnable(boolean enable) {
+        SvgLog.D("IdeaSvgTextureView不支持位图缓存");
+    }
+
+    @Override
+    public boolean isSvgRasterCacheEnable() {
+        return false;
+    }
+
+    @Override
+    public void setDrawableStyle(@IdeaSvgView.DrawableStyle int style) {
+        final int width = getWidth(), height = getHeight();
+        runOnRenderThread(() -> {
+            mDrawableStyle = style;
+            if (mDrawable != null) {
+                SvgPathRenderer.setDrawableBounds(mDrawable, mDrawableStyle, width, height);
+                invalidateFrame();
+            }
+        });
+    }
+
+    @Override
+    public void setDrawable(Drawable drawable) {
+        if (drawable == null) {
+            clear();
+            return ;
+        }
+
+        mGeneration.incrementAndGet();
+        mHasSvg = false;
+        resetSvgParams();
+
+        final int width = getWidth(), height = getHeight();
+        runOnRenderThread(() -> {
+            if (mDrawable == drawable) {
+                SvgLog.I("不绘制相同的Drawable");
+                return ;
+            }
+
+            clearOnRender();
+            mDrawable = drawable;
+            SvgPathRenderer.setDrawableBounds(drawable, mDrawableStyle, width, height);
+            invalidateFrame();
+        });
+    }
+
+    @Override
+    public void setSvgCenter(boolean forceCenter) {
+        mIsForceCenter = forceCenter;
+    }
+
+    @Override
+    public void setStokeColor(int... color) {
+        if (color == null || color.length == 0) {
+            return ;
+        }
+        mOutlineColors = color;
+    }
+
+    @Override
+    public void setFillColor(int... color) {
+        if (color == null || color.length == 0) {
+            return ;
+        }
+        mFillColors = color;
+    }
+
+    @Override
+    public void setStokeWidth(float px) {
+        if (px <= 0f) {
+            return ;
+        }
+        mStokeWidth = px;
+    }
+
+    @Override
+    public boolean isSvgAnimRunning() {
+        return mPendingAnimCount.get() > 0 || mIsSvgAnimRunning;
+    }
+
+    /** 投递到渲染线程，使用{@link #mRenderToken}标记，见{@link #onDetachedFromWindow()} */
+    private void runOnRenderThread(Runnable r) {
+        mRequestVersion.incrementAndGet();
+        mRenderHandler.postAtTime(r, mRenderToken, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * 投递带有动画监听的请求，请求在离开窗口时被丢弃的话，回调{@link AnimListener#onAnimCancel()}
+     * @param listener 为null时和{@link #runOnRenderThread(Runnable)}一样
+     */
+    private void runOnRenderThread(@Nullable AnimListener listener, Runnable r) {
+        if (listener == null) {
+            runOnRenderThread(r);
+            return ;
+        }
+
+        PendingRequest request = new PendingRequest(listener, r);
+        mPendingRequests.add(request);
+        runOnRenderThread(request);
+    }
+
+    /**
+     * 投递动画请求，请求被处理之前{@link #isSvgAnimRunning()}也返回true
+     * @param isAnim 为false时（例如时长为0）只是普通的任务，不计数
+     */
+    private void runAnimOnRenderThread(boolean isAnim, @Nullable AnimListener listener, Runnable r) {
+        if (!isAnim) {
+            runOnRenderThread(listener, r);
+            return ;
+        }
+
+        mPendingAnimCount.incrementAndGet();
+        runOnRenderThread(listener, () -> {
+            try {
+                r.run();
+            } finally {
+                decrementPendingAnimCount();
+            }
+        });
+    }
+
+    /** 离开窗口时计数可能已经被清零，不能减到负数 */
+    private void decrementPendingAnimCount() {
+        int count;
+        do {
+            count = mPendingAnimCount.get();
+        } while (count > 0 && !mPendingAnimCount.compareAndSet(count, count - 1));
+    }
+
+    /** 新的svg或者清除svg时，重置调用线程中记录的参数 */
+    private void resetSvgParams() {
+        mAlpha = 255;
+        mScale = 1f;
+        mTranslateX = 0f;
+        mTranslateY = 0f;
+        mGestureScale = 1f;
+    }
+
+    private void notifyCancel(AnimListener listener) {
+        if (listener != null) {
+            listener.onAnimCancel();
+        }
+    }
+
+    /** 在渲染线程中调用，调用线程中记录的参数恢复为实际显示的状态，见{@link #onDetachedFromWindow()} */
+    private void syncSvgParams() {
+        mHasSvg = mRenderer.hasData();
+        mAlpha = mDrawAlpha;
+        mScale = mRenderer.getDrawScale();
+        mTranslateX = mDrawTranslateX;
+        mTranslateY = mDrawTranslateY;
+    }
+
+    //---------------- 以下方法只在渲染线程中调用 ----------------
+
+    /** svg数据集已经解析完成 */
+    private void onSvgDataReady(int generation, SvgPathData destData, List<Path> preparedPaths,
+                                long durationMs, AnimListener listener, boolean isDirectly) {
+        if (generation != mGeneration.get()) {
+            SvgLog.I("svg显示请求已经被新的调用取代");
+            notifyCancel(listener);
+            return ;
+        }
+
+        if (destData == null || destData.isEmpty()) {
+            SvgLog.I("解析svg失败");
+            mHasSvg = mRenderer.hasData();
+            notifyCancel(listener);
+            return ;
+        }
+
+        if (isDirectly) {
+            showSvgOnRender(destData.normalize(), preparedPaths);
+        } else {
+            switchSvgOnRender(destData.normalize(), preparedPaths, durationMs, listener);
+        }
+    }
+
+    /** 直接显示新的svg */
+    private void showSvgOnRender(SvgPathData data, List<Path> preparedPaths) {
+        clearOnRender();
+
+        mIsGeometryDirty = !mRenderer.setData(data, preparedPaths);
+        invalidateFrame();
+    }
+
+    /** 从当前的svg切换到新的svg，同型svg使用变换动画，否则直接显示 */
+    private void switchSvgOnRender(SvgPathData data, List<Path> preparedPaths, long durationMs, AnimListener listener) {
+        if (!mRenderer.hasData()) {
+            SvgLog.I("没有svg被绘制，忽略svg变换");
+            notifyCancel(listener);
+            return ;
+        }
+
+        if (durationMs <= 0 || !mRenderer.getData().isSameStructure(data)) {
+            SvgLog.I("无动画切换到新的svg");
+            showSvgDirectly(data, preparedPaths, listener);
+            return ;
+        }
+
+        stopAnimsOnRender();
+        resetDrawParams(false);
+
+        //变换动画以看到的样子为起点，画布上的缩放可能被写入值数组
+        if (!mRenderer.beginMorph(data)) {
+            SvgLog.I("发现异常数据，svg变换失败了，直接替换svg");
+            showSvgDirectly(data, null, listener);
+            return ;
+        }
+
+        startAnim(new FrameAnim(ANIM_MORPH, durationMs, listener) {
+            @Override
+            void onUpdate(float fraction) {
+                if (!mRenderer.isMorphing()) {
+                    SvgLog.I("svg已经被替换，停止变换");
+                    cancel();
+                    return ;
+                }
+                mRenderer.morph(fraction);
+                markGeometryDirty();
+            }
+
+            @Override
+            void onEnd() {
+                //目标数据集直接成为新的原始数据集
+                mRenderer.endMorph();
+                markGeometryDirty();
+            }
+
+            @Override
+            void onCancel() {
+                //保持取消时的样子
+                mRenderer.cancelMorph();
+                markGeometryDirty();
+            }
+        });
+    }
+
+    /** 无动画的svg切换，依次回调开始和结束 */
+    private void showSvgDirectly(SvgPathData data, List<Path> preparedPaths, AnimListener listener) {
+        showSvgOnRender(data, preparedPaths);
+        if (listener != null) {
+            listener.onAnimStart();
+            listener.onAnimEnd();
+        }
+    }
+
+    private void clearOnRender() {
+        stopAnimsOnRender();
+
+        mRenderer.clear();
+        mIsGeometryDirty = false;
+        mDrawable = null;
+        resetDrawParams(true);
+        invalidateFrame();
+    }
+
+    /**
+     * 重置绘制参数
+     * @param isResetScale 是否同时重置绘制的缩放值。变换动画会先把缩放值写入值数组（没有path自己的变换时），再重置
+     */
+    private void resetDrawParams(boolean isResetScale) {
+        mDrawAlpha = 255;
+        mDrawTranslateX = 0f;
+        mDrawTranslateY = 0f;
+        mRenderer.resetCenter();
+        if (isResetScale) {
+            setDrawScale(1f);
+        }
+    }
+
+    private void scaleOnRender(float scale, long durationMs, AnimListener listener) {
+        stopAnimsOnRender();
+
+        if (!mRenderer.hasData()) {
+            SvgLog.I("没有svg被绘制，忽略缩放");
+            notifyCancel(listener);
+            return ;
+        }
+
+        if (scale < 1f) {
+            mRenderer.prepareLodAsync();
+        }
+
+        if (durationMs <= 0) {
+            setDrawScale(scale);
+            invalidateFrame();
+            return ;
+        }
+
+        final float fromScale = mRenderer.getDrawScale();
+        startAnim(new FrameAnim(ANIM_SCALE, durationMs, listener) {
+            @Override
+            void onUpdate(float fraction) {
+                setDrawScale(fromScale + (scale - fromScale) * fraction);
+            }
+        });
+    }
+
+    /** 裁剪动画和路径运动动画，只支持单个path */
+    private void startShapeAnimOnRender(ISvgAnim anim) {
+        stopAnimsOnRender();
+
+        final int category = anim.getCategory();
+        if (category != SvgConsts.ANIM_CLIPPING && category != SvgConsts.ANIM_PATH_MOVING) {
+            SvgLog.I("不支持的svg动画：" + category);
+            notifyCancel(anim.getListener());
+            return ;
+        }
+
+        if (!mRenderer.hasData()) {
+            SvgLog.I("未发现svg绘制，忽略svg动画请求");
+            notifyCancel(anim.getListener());
+            return ;
+        }
+
+        //动画过程中保持第一次绘制时的居中位置
+        if (mIsGeometryDirty || !mRenderer.hasCenter()) {
+            drawFrame();
+        }
+
+        final List<Path> pathList = mRenderer.getPathList();
+        if (pathList == null || pathList.size() != 1) {
+            SvgLog.I("暂不支持复合路径的形变动画");
+            notifyCancel(anim.getListener());
+            return ;
+        }
+
+        final PathMeasure pm = new PathMeasure(pathList.get(0), false);
+        final float pathLen = pm.getLength();
+        if (pathLen == 0f) {
+            SvgLog.I("svg路径长度错误，不进行形变动画");
+            notifyCancel(anim.getListener());
+            return ;
+        }
+
+        //路径集可能是共享的只读列表，动画过程中需要替换其中的路径，先复制一份
+        mRenderer.makePathListWritable();
+
+        final Path path = new Path();
+        final boolean isReverse = category == SvgConsts.ANIM_CLIPPING && ((SvgTrimAnim) anim).isReverse();
+        startAnim(new FrameAnim(ANIM_SHAPE, anim.getDurationMs(), anim.getListener()) {
+            @Override
+            void onUpdate(float fraction) {
+                path.reset();
+                if (category == SvgConsts.ANIM_CLIPPING) {
+                    float startDst = isReverse ? pathLen : 0f;
+                    float curLen = isReverse ? pathLen * (1f - fraction) : pathLen * fraction;
+                    pm.getSegment(Math.min(startDst, curLen), Math.max(startDst, curLen), path, true);
+                } else {
+                    float curLen = pathLen * fraction;
+                    pm.getSegment(curLen - pathLen / 10, curLen, path, true);
+                }
+                mRenderer.replacePath(0, path);
+            }
+
+            @Override
+            void onEnd() {
+                //路径运动结束之后恢复完整的路径
+                if (category == SvgConsts.ANIM_PATH_MOVING) {
+                    markGeometryDirty();
+                }
+            }
+        });
+    }
+
+    private void startAnim(FrameAnim anim) {
+        cancelAnim(anim.mKind);
+        mAnims.add(anim);
+        mIsSvgAnimRunning = true;
+        scheduleFrame();
+    }
+
+    private void cancelAnim(int kind) {
+        for (int i = mAnims.size() - 1; i >= 0; i--) {
+            if (mAnims.get(i).mKind == kind) {
+                mAnims.get(i).cancel();
+            }
+        }
+    }
+
+    private void stopAnimsOnRender() {
+        if (mAnims.isEmpty()) {
+            return ;
+        }
+        for (FrameAnim anim : new ArrayList<>(mAnims)) {
+            anim.cancel();
+        }
+    }
+
+    private boolean isShapeAnimRunning() {
+        for (FrameAnim anim : mAnims) {
+            if (anim.mKind == ANIM_SHAPE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markGeometryDirty() {
+        mIsGeometryDirty = true;
+        invalidateFrame();
+    }
+
+    /** 请求在下一帧重新绘制 */
+    private void invalidateFrame() {
+        mIsFrameDirty = true;
+        scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (!mIsFrameScheduled) {
+            mIsFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /** 每一帧先推进所有的动画，再绘制 */
+    private void doFrame(long frameTimeNanos) {
+        mIsFrameScheduled = false;
+
+        mStepAnims.addAll(mAnims);
+        for (FrameAnim anim : mStepAnims) {
+            anim.step(frameTimeNanos);
+        }
+        mStepAnims.clear();
+
+        if (mIsFrameDirty) {
+            drawFrame();
+        }
+
+        if (!mAnims.isEmpty()) {
+            scheduleFrame();
+        }
+    }
+
+    private void drawFrame() {
+        //形变动画自己更新路径集
+        if (mIsGeometryDirty && !isShapeAnimRunning()) {
+            mIsGeometryDirty = false;
+            updatePathList();
+        }
+
+        synchronized (mSurfaceLock) {
+            final Surface surface = mSurface;
+            if (surface == null || !surface.isValid()) {
+                //Surface可用时会重新请求绘制
+                return ;
+            }
+
+            Canvas canvas;
+            try {
+                canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? surface.lockHardwareCanvas() : surface.lockCanvas(null);
+            } catch (IllegalArgumentException | IllegalStateException | Surface.OutOfResourcesException e) {
+                SvgLog.I("无法绘制svg：" + e.getMessage());
+                return ;
+            }
+
+            try {
+                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                canvas.save();
+                if (mRenderer.hasPathList()) {
+                    onSvgDraw(canvas, mSurfaceWidth, mSurfaceHeight);
+                } else if (mDrawable != null) {
+                    onDrawableDraw(canvas, mSurfaceWidth, mSurfaceHeight);
+                }
+                canvas.restore();
+            } finally {
+                surface.unlockCanvasAndPost(canvas);
+            }
+        }
+        mIsFrameDirty = false;
+    }
+
+    /** 只有数据集变化时才重新生成路径集，变换动画结束之后才修正控件的宽高 */
+    private void updatePathList() {
+        if (!mRenderer.hasData()) {
+            return ;
+        }
+
+        mRenderer.updatePathList();
+        if (mRenderer.getPathList() != null && !mRenderer.isMorphing()) {
+            fixWidthAndHeight();
+        }
+    }
+
+    /** 设置绘制时的缩放值，细节层次的等级变化时需要重新生成路径集 */
+    private void setDrawScale(float scale) {
+        if (mRenderer.setDrawScale(scale)) {
+            mIsGeometryDirty = true;
+        }
+    }
+
+    private void onSvgDraw(Canvas canvas, int width, int height) {
+        RectF bounds = mRenderer.getSvgBounds();
+        if (mIsForceCenter) {
+            //形变动画过程中保持居中的位置不变
+            mRenderer.translateToCenter(canvas, bounds.left, bounds.top, bounds.right, bounds.bottom,
+                    width, height, isShapeAnimRunning());
+        } else {
+            SvgPathRenderer.fixPadding(this, bounds.left, bounds.top, canvas);
+        }
+
+        if (mDrawTranslateX != 0f || mDrawTranslateY != 0f) {
+            canvas.translate(mDrawTranslateX, mDrawTranslateY);
+        }
+
+        //绘制样式在调用线程中设置，每一帧使用同一份；动画过程中不回调
+        mRenderer.setStyle(mSvgStyle, mOutlineColors, mFillColors, mStokeWidth, mIsNonScalingStroke);
+        mRenderer.draw(canvas, mDrawAlpha, mAnims.isEmpty() ? mSvgDrawListener : null);
+    }
+
+    private void onDrawableDraw(Canvas canvas, int width, int height) {
+        Rect rect = mDrawable.getBounds();
+        if (mIsForceCenter) {
+            mRenderer.translateToCenter(canvas, rect.left, rect.top, rect.right, rect.bottom, width, height, false);
+        } else {
+            SvgPathRenderer.fixPadding(this, rect.left, rect.top, canvas);
+        }
+        mDrawable.draw(canvas);
+    }
+
+    /** 修正设置为wrap_content的控件宽高，在渲染线程中计算svg的尺寸，在UI线程中更新布局 */
+    private void fixWidthAndHeight() {
+        final boolean isWidthWrapContent = mWidthMode == ViewGroup.LayoutParams.WRAP_CONTENT;
+        final boolean isHeightWrapContent = mHeightMode == ViewGroup.LayoutParams.WRAP_CONTENT;
+        if (!isWidthWrapContent && !isHeightWrapContent) {
+            return ;
+        }
+
+        final int width = mRenderer.measureWidth(mStokeWidth);
+        final int height = mRenderer.measureHeight(mStokeWidth);
+        post(() -> {
+            if ((width == mFixedWidth && height == mFixedHeight) || getLayoutParams() == null) {
+                return ;
+            }
+
+            mFixedWidth = width;
+            mFixedHeight = height;
+            SvgPathRenderer.applyWrapContentSize(this, isWidthWrapContent, isHeightWrapContent, width, height);
+        });
+    }
+
+    /** 带有动画监听的请求，执行时从{@link #mPendingRequests}中移除，已经被离开窗口丢弃的话不再执行 */
+    private final class PendingRequest implements Runnable {
+        final AnimListener mListener;
+        private final Runnable mTask;
+
+        PendingRequest(AnimListener listener, Runnable task) {
+            mListener = listener;
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+            if (mPendingRequests.remove(this)) {
+                mTask.run();
+            }
+        }
+    }
+
+    /**
+     * 由渲染线程的Choreographer驱动的动画，时长按照帧时间计算，线性插值。
+     * 回调和{@link IdeaSvgView}中的动画一致：开始、每一帧的进度、结束或者取消
+     */
+    private abstract class FrameAnim {
+        final int mKind;
+        private final long mDurationNs;
+        private final AnimListener mListener;
+
+        /** 第一帧的时间，第一帧之前为-1 */
+        private long mStartNs = -1L;
+        private boolean mIsFinished;
+
+        FrameAnim(int kind, long durationMs, AnimListener listener) {
+            mKind = kind;
+            mDurationNs = Math.max(0L, durationMs) * 1000000L;
+            mListener = listener;
+        }
+
+        /** 更新这一帧的绘制参数 */
+        abstract void onUpdate(float fraction);
+
+        void onEnd() {
+        }
+
+        void onCancel() {
+        }
+
+        final void step(long frameTimeNanos) {
+            if (mIsFinished) {
+                return ;
+            }
+
+            notifyStartIfNeeded(frameTimeNanos);
+            float fraction = mDurationNs == 0L ? 1f : Math.min(1f, (frameTimeNanos - mStartNs) / (float) mDurationNs);
+            onUpdate(fraction);
+            if (mIsFinished) {
+                return ;
+            }
+            invalidateFrame();
+
+            if (mListener != null && !mListener.onAnimProgress(fraction)) {
+                cancel();
+                return ;
+            }
+
+            if (fraction >= 1f) {
+                complete();
+            }
+        }
+
+        /** 直接完成动画 */
+        final void finish() {
+            if (mIsFinished) {
+                return ;
+            }
+
+            notifyStartIfNeeded(0L);
+            onUpdate(1f);
+            if (!mIsFinished) {
+                complete();
+            }
+        }
+
+        final void cancel() {
+            if (mIsFinished) {
+                return ;
+            }
+
+            remove();
+            onCancel();
+            invalidateFrame();
+            if (mListener != null) {
+                mListener.onAnimCancel();
+            }
+        }
+
+        private void complete() {
+            remove();
+            onEnd();
+            invalidateFrame();
+            if (mListener != null) {
+                mListener.onAnimEnd();
+            }
+        }
+
+        private void notifyStartIfNeeded(long frameTimeNanos) {
+            if (mStartNs < 0L) {
+                mStartNs = frameTimeNanos;
+                if (mListener != null) {
+                    mListener.onAnimStart();
+                }
+            }
+        }
+
+        private void remove() {
+            mIsFinished = true;
+            mAnims.remove(this);
+            mIsSvgAnimRunning = !mAnims.isEmpty();
+        }
+    }
+
+    /** 双指缩放手势，手势过程中直接缩放，不使用动画 */
+    private final class SvgScaleGestureListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            mIsGesturePlaying = true;
+            mGestureScale = mScale;
+            //手势开始时，svg动画将会立即停止
+            stopSvgAnim();
+            return true;
+        }
+
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            float scale = mGestureScale * detector.getScaleFactor();
+            scale = Math.max(SCALE_MIN_VALUE, Math.min(SCALE_MAX_VALUE, scale));
+            if (scale == mGestureScale) {
+                return true;
+            }
+
+            mGestureScale = scale;
+            mScale = scale;
+            final float destScale = scale;
+            runOnRenderThread(() -> scaleOnRender(destScale, 0, null));
+            return true;
+        }
+
+        @Override
+        public void onScaleEnd(ScaleGestureDetector detector) {
+            mIsGesturePlaying = false;
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.qxtx.idea.ideasvg.view;
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.ValueAnimator;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PathMeasure;
@@ -33,17 +37,20 @@ import com.qxtx.idea.ideasvg.animation.ISvgAnim;
 import com.qxtx.idea.ideasvg.animation.SvgTrimAnim;
 import com.qxtx.idea.ideasvg.listener.AnimListener;
 import com.qxtx.idea.ideasvg.listener.SvgDrawListener;
-import com.qxtx.idea.ideasvg.parser.SvgDataParser;
-import com.qxtx.idea.ideasvg.tools.DeepCopy;
+import com.qxtx.idea.ideasvg.parser.SvgDataCache;
+import com.qxtx.idea.ideasvg.parser.SvgDocument;
+import com.qxtx.idea.ideasvg.parser.SvgPathCache;
+import com.qxtx.idea.ideasvg.parser.SvgPathData;
+import com.qxtx.idea.ideasvg.tools.SvgExecutor;
 import com.qxtx.idea.ideasvg.tools.SvgLog;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author QXTX-WIN
@@ -60,7 +67,6 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     private final String TAG = getClass().getSimpleName();
 
     private List<SvgAnimation> mSvgAnimationList = null;
-    private float mCenterX = SvgConsts.INVAILE_VALUE, mCenterY = SvgConsts.INVAILE_VALUE;
 
     /** svg缩放的最小值 */
     private final float SCALE_MIN_VALUE = 0.1f;
@@ -84,6 +90,62 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     private OnTouchListener mTouchListener = null;
 
+    /** 路径集需要重新生成：数据集、变换动画的值、细节层次发生了变化 */
+    private static final int DIRTY_GEOMETRY = 0x1;
+    /** 只影响绘制：颜色、线条粗细、绘制风格 */
+    private static final int DIRTY_STYLE = 0x2;
+    /** 只影响画布的矩阵：缩放、平移 */
+    private static final int DIRTY_TRANSFORM = 0x4;
+    /** 只影响svg整体的透明度 */
+    private static final int DIRTY_ALPHA = 0x8;
+
+    /**
+     * 自上一次刷新以来发生的变化，见{@link #DIRTY_GEOMETRY}、{@link #DIRTY_STYLE}、{@link #DIRTY_TRANSFORM}、{@link #DIRTY_ALPHA}。
+     * 只有{@link #DIRTY_GEOMETRY}会重新生成路径集，其他变化只需要重新绘制
+     */
+    private int mDirtyFlags = DIRTY_GEOMETRY;
+
+    /** 位图缓存最多使用的内存，单位：字节。超过时不使用位图缓存，直接绘制 */
+    private static final int RASTER_CACHE_MAX_BYTES = 8 * 1024 * 1024;
+
+    /** 是否使用位图缓存，见{@link #setSvgRasterCacheEnable(boolean)} */
+    private boolean mIsRasterCacheEnabled;
+
+    /** 位图缓存，内容是缩放值为{@link #mRasterScale}、不透明的svg */
+    private Bitmap mRasterBitmap;
+    private Canvas mRasterCanvas;
+    private final Paint mRasterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /** 位图缓存的左上角在缩放之后的svg坐标中的位置 */
+    private float mRasterLeft, mRasterTop;
+
+    /** 位图缓存的缩放值，缩放值按半个2倍程分级，同一级中的缩放值共用一个位图缓存 */
+    private float mRasterScale = Float.NaN;
+    private final Matrix mRasterScaleMatrix = new Matrix();
+
+    /** 路径、颜色等发生了变化，需要重新绘制位图缓存 */
+    private boolean mIsRasterDirty = true;
+
+    /** 内存不足时释放位图缓存 */
+    private final ComponentCallbacks2 mTrimMemoryCallback = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                SvgLog.D("内存不足，释放svg位图缓存");
+                post(IdeaSvgView.this::releaseRasterCache);
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            post(IdeaSvgView.this::releaseRasterCache);
+        }
+    };
+
     /**
      * 平移量，在替换svg之后，必须重置此值
      * 取值范围(-∞,+∞)
@@ -96,13 +158,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
      */
     private float mScale;
 
-    /** 最原始的svg数据集 */
-    private LinkedHashMap<String, float[]> mOriMap;
-
     /** 透明度，在替换svg/Drawable之后，必须重置此值。取值范围[0,255] */
     private int mAlpha;
-    
-    private final RectF mRectF = new RectF();
 
     private Drawable mDrawable = null;
 
@@ -120,11 +177,42 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     private ValueAnimator mValueAnim;
 
-    /** 和{@link #mSvgPathList}互相绑定的，如果此数据集变动，必须清理绑定的对象 */
-    private LinkedHashMap<String, float[]> mSvgMap;
+    /**
+     * 透明度动画是否通过硬件层的透明度实现。此时svg按不透明绘制到层中，只绘制一次，
+     * 每一帧只修改{@link #mLayerAlphaPaint}的透明度，在合成时生效，见{@link #alphaWithAnim(int, long, AnimListener)}
+     */
+    private boolean mIsLayerAlpha;
+
+    /** 透明度动画使用的层的画笔，只使用其中的透明度 */
+    private final Paint mLayerAlphaPaint = new Paint();
+
+    /** 透明度动画开始之前view的层类型，动画结束后恢复 */
+    private int mLayerTypeBeforeAlpha = LAYER_TYPE_NONE;
 
-    /** 和{@link #mSvgMap}互相绑定 */
-    private ArrayList<Path> mSvgPathList;
+    /**
+     * 当前svg的数据、路径集、边界和绘制。
+     * 和{@link #mScale}不同，缩放动画过程中其中的绘制缩放值是每一帧的缩放值
+     */
+    private final SvgPathRenderer mRenderer = new SvgPathRenderer();
+
+    /** 缩放时线条粗细是否保持不变 */
+    private boolean mIsNonScalingStroke = true;
+
+    /**
+     * 为true时，路径集已经在后台线程根据当前的数据生成好了，下一次刷新时不需要再生成
+     * @see #showSvgAsync(String, long, AnimListener)
+     */
+    private boolean mIsPathListPrepared;
+
+    /** 异步显示svg的调用序号，每次新的svg显示请求都会使之前未完成的异步调用失效 */
+    private final AtomicInteger mAsyncGeneration = new AtomicInteger();
+
+    /** svg切换结果：切换请求被忽略 */
+    private static final int SWITCH_IGNORED = 0;
+    /** svg切换结果：无动画，直接显示新的svg */
+    private static final int SWITCH_DIRECTLY = 1;
+    /** svg切换结果：使用变换动画切换到新的svg */
+    private static final int SWITCH_ANIM = 2;
 
     private SvgDrawListener mSvgDrawListener;
 
@@ -145,10 +233,6 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     /** 填充颜色库 */
     private int[] mFillColors;
 
-    private SvgDataParser mParser;
-
-    private Paint mPaint;
-
     @Retention(RetentionPolicy.SOURCE)
     @IntDef({DRAWABLE_AUTO, DRAWABLE_FILL, DRAWABLE_FIT_XY})
     public @interface DrawableStyle{}
@@ -189,10 +273,6 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
      * 1、属性获取优先顺序：xml直接定义 >> xml的style属性定义 >> 构造方法里defStyleAttr定义 >> 构造方法里defStyleRes定义 >> theme中直接定义
      */
     private void init(Context context, AttributeSet attrs) {
-        mParser = new SvgDataParser();
-        mPaint = new Paint();
-        mSvgPathList = new ArrayList<>();
-
         mGestureStatus = 0x00;
 
         clear();
@@ -204,8 +284,10 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             mHeightMode = a.getLayoutDimension(R.styleable.IdeaSvgView_android_layout_height, ViewGroup.LayoutParams.WRAP_CONTENT);
 
             String svgData = a.getString(R.styleable.IdeaSvgView_svgData);
-            mSvgMap = TextUtils.isEmpty(svgData) ? new LinkedHashMap<String, float[]>() : mParser.svgString2Map(svgData);
-            mOriMap = DeepCopy.svgMap(mSvgMap);
+            SvgPathData data = TextUtils.isEmpty(svgData) ? null : SvgDataCache.getInstance().get(svgData);
+            if (data != null && !data.isEmpty()) {
+                mRenderer.setData(data.normalize(), null);
+            }
             mIsForceCenter = a.getBoolean(R.styleable.IdeaSvgView_forceCenter, true);
             mSvgStyle = a.getInt(R.styleable.IdeaSvgView_svgStyle, SVG_OUTLINE);
             mDrawableStyle = a.getInt(R.styleable.IdeaSvgView_drawableStyle, DRAWABLE_AUTO);
@@ -215,7 +297,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             color = a.getColor(R.styleable.IdeaSvgView_outlineColor, Color.parseColor(DEFAULT_FILL_COLOR));
             mFillColors = new int[] {color};
 
-            if (mSvgMap.size() == 0) {
+            if (!hasSvgDraw()) {
                 Drawable src = a.getDrawable(R.styleable.IdeaSvgView_src);
                 if (src != null) {
                     setDrawable(src);
@@ -232,13 +314,6 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         mIsSvgAnimRunning = false;
 
-        //默认为绘制线条
-        mPaint.setStyle(Paint.Style.STROKE);
-        mPaint.setColor(mOutlineColors[0]);
-        mPaint.setStrokeWidth(mStokeWidth);
-        mPaint.setAntiAlias(true);
-        mPaint.setDither(true);
-
         if (hasSvgDraw()) {
             refresh();
         }
@@ -246,11 +321,16 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     @Override
     public void invalidate() {
+        final int dirtyFlags = mDirtyFlags;
         //形变动画不强制刷新path列表
         if (mSvgAnimationList == null || mSvgAnimationList.size() == 0) {
             getPathListBeforeInvalidate();
         }
-        fixWidthAndHeight();
+        //透明度变化或者单纯的重绘，不需要重新测量尺寸
+        if ((dirtyFlags & ~DIRTY_ALPHA) != 0) {
+            fixWidthAndHeight();
+        }
+        mDirtyFlags &= DIRTY_GEOMETRY;
         super.invalidate();
     }
 
@@ -261,11 +341,15 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             return ;
         }
 
+        final int dirtyFlags = mDirtyFlags;
         //形变动画不强制刷新path列表
         if (mSvgAnimationList == null || mSvgAnimationList.size() == 0) {
             getPathListBeforeInvalidate();
         }
-        post(this::fixWidthAndHeight);
+        if ((dirtyFlags & ~DIRTY_ALPHA) != 0) {
+            post(this::fixWidthAndHeight);
+        }
+        mDirtyFlags &= DIRTY_GEOMETRY;
         super.postInvalidate();
     }
 
@@ -284,7 +368,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         //svg和drawable不能共存，svg优先级高于drawable；并且在特殊图形绘制完成，需要恢复canvas的方位变换状态
         canvas.save();
-        if (mSvgPathList != null && mSvgPathList.size() > 0) {
+        if (mRenderer.hasPathList()) {
             onSvgDraw(canvas);
         } else if (mDrawable != null) {
             onDrawableDraw(canvas);
@@ -296,48 +380,191 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     @Override
     public boolean showSvg(@NonNull String svgData) {
-        LinkedHashMap<String, float[]> svgMap = mParser.svgString2Map(svgData);
-        if (svgMap == null || svgMap.size() == 0) {
+        return showSvg(SvgDataCache.getInstance().get(svgData));
+    }
+
+    @Override
+    public boolean showSvg(@NonNull String svgData, long durationMs, AnimListener listener) {
+        return showSvg(SvgDataCache.getInstance().get(svgData), durationMs, listener);
+    }
+
+    @Override
+    public boolean showSvg(@NonNull SvgPathData data) {
+        //同步显示会取代所有未完成的异步显示
+        mAsyncGeneration.incrementAndGet();
+
+        if (data == null || data.isEmpty()) {
             SvgLog.I("错误的svg数据");
             return false;
         }
 
-        showSvgImpl(svgMap, SvgConsts.INVAILE_VALUE, null);
+        showSvgImpl(data.normalize(), null, SvgConsts.INVAILE_VALUE, null);
 
         return true;
     }
 
     @Override
-    public boolean showSvg(@NonNull String svgData, long durationMs, AnimListener listener) {
-        LinkedHashMap<String, float[]> svgMap = mParser.svgString2Map(svgData);
-        if (svgMap == null || svgMap.size() == 0) {
+    public boolean showSvg(@NonNull SvgPathData data, long durationMs, AnimListener listener) {
+        //同步显示会取代所有未完成的异步显示
+        mAsyncGeneration.incrementAndGet();
+
+        if (data == null || data.isEmpty()) {
             SvgLog.I("非法的svg数据");
             return false;
         }
 
+        return switchSvg(data.normalize(), null, durationMs, listener) != SWITCH_IGNORED;
+    }
+
+    @Override
+    public boolean showSvg(@NonNull SvgDocument document) {
+        //同步显示会取代所有未完成的异步显示
+        mAsyncGeneration.incrementAndGet();
+
+        if (document == null || document.getPathData().isEmpty()) {
+            SvgLog.I("错误的svg文档");
+            return false;
+        }
+
+        //更新svg之前，清除所有的drawable和svg（包括svg动画）
+        clear();
+
+        SvgPathData data = document.getPathData().normalize();
+        mRenderer.setData(data, null);
+        markDirty(DIRTY_GEOMETRY | DIRTY_STYLE);
+
+        //文档中每个path都有自己的颜色和变换
+        mRenderer.setPathMatrices(document.copyMatrices());
+        mFillColors = document.copyFillColors();
+        mOutlineColors = document.copyStrokeColors();
+        mSvgStyle = document.hasStroke() ? SVG_OUTLINE_AND_FILL : SVG_FILL;
+
+        refresh();
+        return true;
+    }
+
+    @Override
+    public boolean showSvgAsync(@NonNull String svgData) {
+        return showSvgAsyncImpl(svgData, SvgConsts.INVAILE_VALUE, null, true);
+    }
+
+    @Override
+    public boolean showSvgAsync(@NonNull String svgData, long durationMs, AnimListener listener) {
+        return showSvgAsyncImpl(svgData, durationMs, listener, false);
+    }
+
+    /**
+     * 在后台线程解析svg字符串并生成路径，然后在下一帧切换到新的svg
+     * @param isDirectly [true]行为同{@link #showSvg(String)} [false]行为同{@link #showSvg(String, long, AnimListener)}
+     */
+    private boolean showSvgAsyncImpl(final String svgData, final long durationMs, final AnimListener listener, final boolean isDirectly) {
+        if (TextUtils.isEmpty(svgData)) {
+            SvgLog.I("错误的svg数据");
+            return false;
+        }
+
+        final int generation = mAsyncGeneration.incrementAndGet();
+        try {
+            SvgExecutor.get().execute(() -> {
+                if (generation != mAsyncGeneration.get()) {
+                    post(() -> notifyAsyncCancel(listener));
+                    return ;
+                }
+
+                //解析和生成路径都在后台线程完成
+                SvgPathData data = SvgDataCache.getInstance().get(svgData);
+                List<Path> pathList = null;
+                if (data != null && !data.isEmpty() && generation == mAsyncGeneration.get()) {
+                    pathList = SvgPathCache.getInstance().get(data);
+                }
+
+                final SvgPathData destData = data;
+                final List<Path> preparedPaths = pathList;
+                postOnAnimation(() -> onSvgAsyncReady(generation, destData, preparedPaths, durationMs, listener, isDirectly));
+            });
+        } catch (RejectedExecutionException e) {
+            SvgLog.I("无法执行异步svg解析：" + e.getMessage());
+            return false;
+        }
+
+        return true;
+    }
+
+    /** 异步解析完成，在UI线程的下一帧切换svg */
+    private void onSvgAsyncReady(int generation, SvgPathData destData, List<Path> preparedPaths,
+                                 long durationMs, AnimListener listener, boolean isDirectly) {
+        if (generation != mAsyncGeneration.get()) {
+            SvgLog.I("异步显示的svg已经被新的调用取代");
+            notifyAsyncCancel(listener);
+            return ;
+        }
+
+        if (destData == null || destData.isEmpty() || preparedPaths == null) {
+            SvgLog.I("异步解析svg失败");
+            notifyAsyncCancel(listener);
+            return ;
+        }
+
+        int result;
+        if (isDirectly) {
+            showSvgImpl(destData, preparedPaths, SvgConsts.INVAILE_VALUE, null);
+            result = SWITCH_DIRECTLY;
+        } else {
+            result = switchSvg(destData, preparedPaths, durationMs, listener);
+        }
+
+        if (listener == null) {
+            return ;
+        }
+        switch (result) {
+            case SWITCH_DIRECTLY:
+                listener.onAnimStart();
+                listener.onAnimEnd();
+                break;
+            case SWITCH_IGNORED:
+                listener.onAnimCancel();
+                break;
+            default:
+                //变换动画自己负责回调
+                break;
+        }
+    }
+
+    private void notifyAsyncCancel(AnimListener listener) {
+        if (listener != null) {
+            listener.onAnimCancel();
+        }
+    }
+
+    /**
+     * svg切换，从当前svg变换为新的svg
+     * @param preparedPaths 已经生成好的新svg的路径集，可以为null
+     * @return {@link #SWITCH_IGNORED}、{@link #SWITCH_DIRECTLY}或{@link #SWITCH_ANIM}
+     */
+    private int switchSvg(@NonNull SvgPathData data, List<Path> preparedPaths, long durationMs, AnimListener listener) {
         if (!hasSvgDraw()) {
             SvgLog.I("没有svg被绘制，忽略svg变换");
-            return false;
+            return SWITCH_IGNORED;
         }
 
         if (isGesturePlaying()) {
             SvgLog.I("正在使用svg手势，svg变换动画被忽略");
-            return false;
+            return SWITCH_IGNORED;
         }
 
         boolean isInvalidDuration = durationMs <= 0;
         if (isInvalidDuration) {
             SvgLog.I("过短的动画时间，无动画切换到新的svg");
-            showSvgImpl(svgMap, SvgConsts.INVAILE_VALUE, null);
-            return true;
+            showSvgImpl(data, preparedPaths, SvgConsts.INVAILE_VALUE, null);
+            return SWITCH_DIRECTLY;
         }
 
         //当动画切换的条件已经满足，但不是互为同型svg，视为无动画切换
-        boolean isSimilarSvg = mSvgMap.keySet().equals(svgMap.keySet());
+        boolean isSimilarSvg = mRenderer.getData().isSameStructure(data);
         if (!isSimilarSvg) {
             SvgLog.I("不是同型svg，不是用动画，而是直接替换svg");
-            showSvgImpl(svgMap, SvgConsts.INVAILE_VALUE, null);
-            return true;
+            showSvgImpl(data, preparedPaths, SvgConsts.INVAILE_VALUE, null);
+            return SWITCH_DIRECTLY;
         }
 
         if (isSvgAnimRunning()) {
@@ -349,21 +576,22 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         //更新svg之前，清除所有的drawable和svg（包括svg动画）
         resetSvgParams();
 
-        showSvgImpl(svgMap, durationMs, listener);
+        showSvgImpl(data, null, durationMs, listener);
 
-        return true;
+        return SWITCH_ANIM;
     }
-    
-    private void showSvgImpl(LinkedHashMap<String, float[]> destSvgMap, long durationMs, AnimListener listener) {
+
+    /**
+     * @param preparedPaths 已经根据destData生成好的路径集，仅在无动画显示时使用，可以为null
+     */
+    private void showSvgImpl(SvgPathData destData, List<Path> preparedPaths, long durationMs, AnimListener listener) {
         if (durationMs <= 0) {
             //更新svg之前，清除所有的drawable和svg（包括svg动画）
             clear();
 
-            //深拷贝，变成私有数据，java的clone()方法无法实现深拷贝！
-//        long durationMs = System.nanoTime();
-            mSvgMap = DeepCopy.svgMap(destSvgMap);
-            mOriMap = DeepCopy.svgMap(destSvgMap);
-//        SvgLog.I("深拷贝数据。耗时=" + (System.nanoTime() - durationMs) + "ns");
+            //svg数据集不可变，直接引用
+            mIsPathListPrepared = mRenderer.setData(destData, preparedPaths);
+            markDirty(DIRTY_GEOMETRY);
 
             refresh();
             return ;
@@ -371,31 +599,26 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         clearOldData();
 
-        //备份切换前的svgMap
-        LinkedHashMap<String, float[]> oldSvgMap = DeepCopy.svgMap(mSvgMap);
+        //变换动画以看到的样子为起点，画布上的缩放可能被写入值数组
+        if (!mRenderer.beginMorph(destData)) {
+            SvgLog.I("发现异常数据，svg变换失败了，直接替换svg");
+            showSvgImpl(destData, null, SvgConsts.INVAILE_VALUE, listener);
+            return ;
+        }
+        markDirty(DIRTY_TRANSFORM);
 
         ValueAnimator animator = ValueAnimator.ofFloat(1f, 10f);
         animator.setDuration(durationMs).setInterpolator(new LinearInterpolator());
         animator.addUpdateListener(animation -> {
             float fraction = animation.getAnimatedFraction();
 
-            Iterator<float[]> curIterator = mSvgMap.values().iterator();
-            Iterator<float[]> oriIterator = oldSvgMap.values().iterator();
-            Iterator<float[]> destIterator = destSvgMap.values().iterator();
-            while (curIterator.hasNext()) {
-                float[] curValues = curIterator.next();
-                float[] oriValues = oriIterator.next();
-                float[] destValues = destIterator.next();
-                if (curValues == null || destValues == null) {
-                    SvgLog.I("发现异常数据，svg变换失败了，复原svg");
-                    mSvgMap = oldSvgMap;
-                    return ;
-                }
-
-                for (int i = 0; i < curValues.length; i++) {
-                    curValues[i] = oriValues[i] + (destValues[i] - oriValues[i]) * fraction;
-                }
+            if (!mRenderer.isMorphing()) {
+                SvgLog.I("svg已经被替换，停止变换");
+                animation.cancel();
+                return ;
             }
+            mRenderer.morph(fraction);
+            markDirty(DIRTY_GEOMETRY);
 
             if (listener != null) {
                 if (!listener.onAnimProgress(fraction)) {
@@ -410,6 +633,9 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             public void onAnimationCancel(android.animation.Animator animation) {
                 super.onAnimationCancel(animation);
 
+                //保持取消时的样子
+                mRenderer.cancelMorph();
+
                 if (listener != null) {
                     listener.onAnimCancel();
                 }
@@ -419,8 +645,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             public void onAnimationEnd(android.animation.Animator animation) {
                 super.onAnimationEnd(animation);
 
-                //svg替换完成，备份原始数据
-                mOriMap = DeepCopy.svgMap(mSvgMap);
+                //svg替换完成，目标数据集直接成为新的原始数据集
+                mRenderer.endMorph();
 
                 if (listener != null) {
                     listener.onAnimEnd();
@@ -518,6 +744,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         }
 
         mOutlineColors = color;
+        markDirty(DIRTY_STYLE);
     }
 
     @Override
@@ -527,6 +754,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         }
 
         mFillColors = color;
+        markDirty(DIRTY_STYLE);
     }
 
     @Override
@@ -535,6 +763,87 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             return ;
         }
         mStokeWidth = px;
+        markDirty(DIRTY_STYLE);
+    }
+
+    @Override
+    public void setSvgLodEnable(boolean enable) {
+        if (mRenderer.isLodEnabled() == enable) {
+            return ;
+        }
+
+        mRenderer.setLodEnabled(enable);
+        markDirty(DIRTY_GEOMETRY);
+        if (enable && mScale < 1f) {
+            mRenderer.prepareLodAsync();
+        }
+
+        if (hasSvgDraw()) {
+            refresh();
+        }
+    }
+
+    @Override
+    public boolean isSvgLodEnable() {
+        return mRenderer.isLodEnabled();
+    }
+
+    @Override
+    public void setNonScalingStroke(boolean enable) {
+        if (mIsNonScalingStroke == enable) {
+            return ;
+        }
+
+        mIsNonScalingStroke = enable;
+        markDirty(DIRTY_STYLE);
+        if (hasSvgDraw()) {
+            refresh();
+        }
+    }
+
+    @Override
+    public boolean isNonScalingStroke() {
+        return mIsNonScalingStroke;
+    }
+
+    @Override
+    public void setSvgRasterCacheEnable(boolean enable) {
+        if (mIsRasterCacheEnabled == enable) {
+            return ;
+        }
+
+        mIsRasterCacheEnabled = enable;
+        if (enable) {
+            if (isAttachedToWindow()) {
+                getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallback);
+            }
+        } else {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallback);
+            releaseRasterCache();
+        }
+        refresh();
+    }
+
+    @Override
+    public boolean isSvgRasterCacheEnable() {
+        return mIsRasterCacheEnabled;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mIsRasterCacheEnabled) {
+            getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallback);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mIsRasterCacheEnabled) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallback);
+        }
+        releaseRasterCache();
     }
 
     @Override
@@ -555,6 +864,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     @Override
     public void setSvgMode(@SvgStyle int style) {
         this.mSvgStyle = style;
+        markDirty(DIRTY_STYLE);
     }
 
     @Override
@@ -621,6 +931,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         int oldAlpha = mAlpha;
         mAlpha = value;
+        markDirty(DIRTY_ALPHA);
 
         if (durationMs <= 0) {
             alphaWithoutAnim();
@@ -655,6 +966,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         mTranslateX = x;
         mTranslateY = y;
+        markDirty(DIRTY_TRANSFORM);
 
         if (durationMs <= 0) {
             translateWithoutAnim();
@@ -724,30 +1036,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         mDrawable = drawable;
 
-        int drawableW = drawable.getIntrinsicWidth();
-        int drawableH = drawable.getIntrinsicHeight();
-        //必须为drawable设置bounds才会显示，否则bounds中ltrb全为0
         //LYX_TAG 2020/1/16 0:46 在init()中拿到xml属性参数时，这里过早拿到的控件w和h都为0。暂时不知道怎么处理，可以参考一下ImageView
-        int vWidth = getWidth() == 0 ? drawableW : getWidth();
-        int vHeight = getHeight() == 0 ? drawableH : getHeight();
-        int l = 0, t = 0, r = drawableW, b = drawableH;
-        switch (mDrawableStyle) {
-            case DRAWABLE_AUTO:
-                break;
-            case DRAWABLE_FILL:
-                if (drawableW > vWidth) {
-                    r = vWidth;
-                }
-                if (drawableH > vHeight) {
-                    b = vHeight;
-                }
-                break;
-            case DRAWABLE_FIT_XY:
-                r = vWidth == 0 ? drawableW : vWidth;
-                b = vHeight == 0 ? drawableH : vHeight;
-                break;
-        }
-        mDrawable.setBounds(new Rect(l, t, r, b));
+        SvgPathRenderer.setDrawableBounds(drawable, mDrawableStyle, getWidth(), getHeight());
 
         refresh();
     }
@@ -782,22 +1072,24 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     @Override
     public void clear() {
+        //取消所有未完成的异步显示
+        mAsyncGeneration.incrementAndGet();
+
         clearOldData();
 
-        if (hasSvgDraw()) {
-            mSvgMap.clear();
-        }
+        mRenderer.clear();
+        markDirty(DIRTY_TRANSFORM);
+        releaseRasterCache();
     }
 
-    /** 不清除当前的svgMap数据，因为需要用来做svg变换动画 */
+    /** 不清除当前的svg数据，因为需要用来做svg变换动画 */
     private void clearOldData() {
         clearDrawable();
 
         stopSvgAnim();
         clearSvgData();
 
-        mCenterX = SvgConsts.INVAILE_VALUE;
-        mCenterY = SvgConsts.INVAILE_VALUE;
+        mRenderer.resetCenter();
         mScale = 1f;
         mTranslateX = 0f;
         mTranslateY = 0f;
@@ -809,20 +1101,12 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     }
 
     private void onSvgDraw(Canvas canvas) {
-        float l = Float.MAX_VALUE, t = Float.MAX_VALUE, r = Float.MIN_VALUE, b = Float.MIN_VALUE;
         //检查svg位置
-        for (Path p : mSvgPathList) {
-            p.computeBounds(mRectF, true);
-            l = mRectF.left < l ? mRectF.left : l;
-            t = mRectF.top < t ? mRectF.top : t;
-            r = mRectF.right > r ? mRectF.right : r;
-            b = mRectF.bottom > b ? mRectF.bottom : b;
-        }
-
+        RectF bounds = mRenderer.getSvgBounds();
         if (mIsForceCenter) {
-            forceCenter(l, t, r, b, canvas);
+            forceCenter(bounds.left, bounds.top, bounds.right, bounds.bottom, canvas);
         } else {
-            fixPadding(l, t, canvas);
+            SvgPathRenderer.fixPadding(this, bounds.left, bounds.top, canvas);
         }
 
         //处理平移，因为是平移canvas的参照原点
@@ -830,19 +1114,30 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             canvas.translate(mTranslateX, mTranslateY);
         }
 
-        for (int i = 0; i < mSvgPathList.size(); i++) {
-            drawPath(canvas, i, mSvgPathList.get(i));
+        //内容不变时直接绘制位图缓存
+        if (drawRasterCache(canvas)) {
+            return ;
         }
+
+        //颜色自身的透明度和svg透明度叠加，使用层的透明度时由层在合成时设置
+        //在执行动画时，不为外部提供回调，需要靠动画api传入监听器得到回调
+        updateRendererStyle();
+        mRenderer.draw(canvas, mIsLayerAlpha ? 255 : mAlpha, isSvgAnimRunning() ? null : mSvgDrawListener);
+    }
+
+    /** 绘制之前把当前的绘制样式交给{@link #mRenderer} */
+    private void updateRendererStyle() {
+        mRenderer.setStyle(mSvgStyle, mOutlineColors, mFillColors, mStokeWidth, mIsNonScalingStroke);
     }
 
     private void onDrawableDraw(Canvas canvas) {
-        SvgLog.I("开始绘制drawable");
+        SvgLog.D("开始绘制drawable");
         //检查drawable的位置
         Rect rect = mDrawable.getBounds();
         if (mIsForceCenter) {
             forceCenter(rect.left, rect.top, rect.right, rect.bottom, canvas);
         } else {
-            fixPadding(rect.left, rect.top, canvas);
+            SvgPathRenderer.fixPadding(this, rect.left, rect.top, canvas);
         }
 
         //LYX_TAG 2020/1/18 12:26 仅仅允许特定的svg使用平移，对设置的drawable无效
@@ -853,7 +1148,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     }
 
     private boolean hasSvgDraw() {
-        return mSvgMap != null && mSvgMap.size() > 0;
+        return mRenderer.hasData();
     }
 
     private void resetSvgParams() {
@@ -861,18 +1156,17 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         mTranslateY = 0f;
         mScale = 1f;
         mAlpha = 255;
+        markDirty(DIRTY_ALPHA | DIRTY_TRANSFORM);
 
 //        setOnTouchListener(new SvgGestureListener());
     }
 
     /** 清除svg数据，用于需要绘制Drawable的时候 */
     private void clearSvgData() {
-        if (hasSvgDraw()) {
-            mOriMap.clear();
-        }
-        if (mSvgPathList != null && mSvgPathList.size() > 0) {
-            mSvgPathList.clear();
-        }
+        //路径集可能是共享的只读列表，不能直接clear()
+        mRenderer.clearPathList();
+        mIsPathListPrepared = false;
+        markDirty(DIRTY_GEOMETRY);
 
         resetSvgParams();
     }
@@ -884,25 +1178,35 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     /** 在{@link #invalidate()}或者{@link #postInvalidate()}开始时，立即将svg数据集转换成svg路径集 */
     private void getPathListBeforeInvalidate() {
-        if (hasSvgDraw()) {
-            mSvgPathList = mParser.createSvgPath(mSvgMap);
-            if (mSvgPathList == null) {
-                SvgLog.I("无法生成完整的svg路径集");
-            }
+        if (mIsPathListPrepared) {
+            mIsPathListPrepared = false;
+            mDirtyFlags &= ~DIRTY_GEOMETRY;
+            return ;
         }
+
+        //只有数据变化时才需要重新生成路径集
+        if ((mDirtyFlags & DIRTY_GEOMETRY) == 0) {
+            return ;
+        }
+        mDirtyFlags &= ~DIRTY_GEOMETRY;
+
+        //缩放不需要重新生成路径集
+        mRenderer.updatePathList();
     }
 
     private void alphaWithoutAnim() {
-        SvgLog.I("直接做透明度改变，无动画");
+        SvgLog.D("直接做透明度改变，无动画");
         refresh();
     }
 
     private void alphaWithAnim(int oldAlpha, long durationMs, AnimListener listener) {
-        SvgLog.I("存在动画时长，使用动画透明度变化：" + oldAlpha + ">" + mAlpha);
+        SvgLog.D(() -> "存在动画时长，使用动画透明度变化：" + oldAlpha + ">" + mAlpha);
 //        stopSvgAnim();
 
         mIsSvgAnimRunning = true;
 
+        startLayerAlpha(oldAlpha);
+
         int destAlpha = mAlpha;
         mValueAnim = new MyValueAnimator(oldAlpha, destAlpha);
         mValueAnim.setDuration(durationMs);
@@ -916,6 +1220,13 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             int curValue = (int)animation.getAnimatedValue();
 
             mAlpha = curValue;
+            if (mIsLayerAlpha) {
+                //只修改层的透明度，不需要重新绘制svg
+                mLayerAlphaPaint.setAlpha(curValue);
+                setLayerPaint(mLayerAlphaPaint);
+            } else {
+                markDirty(DIRTY_ALPHA);
+            }
 
             if (listener != null) {
                 if (!listener.onAnimProgress(fraction)) {
@@ -923,7 +1234,22 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 }
             }
 
-            refresh();
+            if (!mIsLayerAlpha) {
+                refresh();
+            }
+        });
+
+        //必须在外部回调之前恢复层，外部在回调中读到的是动画结束后的绘制状态
+        mValueAnim.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                stopLayerAlpha();
+            }
+
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                stopLayerAlpha();
+            }
         });
 
         //给外部回调
@@ -932,15 +1258,48 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         mValueAnim.start();
     }
 
+    /**
+     * 开始使用硬件层实现透明度动画。
+     * 层的透明度会作用在整个view上，包括背景，因此有背景或者没有硬件加速时仍然每一帧重新绘制svg
+     */
+    private void startLayerAlpha(int alpha) {
+        if (mIsLayerAlpha || !isHardwareAccelerated() || getBackground() != null) {
+            return ;
+        }
+
+        mIsLayerAlpha = true;
+        mLayerTypeBeforeAlpha = getLayerType();
+        mLayerAlphaPaint.setAlpha(alpha);
+        setLayerType(LAYER_TYPE_HARDWARE, mLayerAlphaPaint);
+
+        //层中的svg按不透明绘制
+        markDirty(DIRTY_ALPHA);
+        refresh();
+    }
+
+    /** 结束透明度动画，恢复原来的层类型，svg重新按自身的透明度绘制 */
+    private void stopLayerAlpha() {
+        if (!mIsLayerAlpha) {
+            return ;
+        }
+
+        mIsLayerAlpha = false;
+        setLayerType(mLayerTypeBeforeAlpha, null);
+        mLayerTypeBeforeAlpha = LAYER_TYPE_NONE;
+
+        markDirty(DIRTY_ALPHA);
+        refresh();
+    }
+
     /** 直接平移 */
     private void translateWithoutAnim() {
-        SvgLog.I("直接做平移，无动画");
+        SvgLog.D("直接做平移，无动画");
         refresh();
     }
 
     /** 动画平移 */
     private void translateWithAnim(long durationMs, AnimListener listener) {
-        SvgLog.I("存在动画时长，使用动画平移");
+        SvgLog.D("存在动画时长，使用动画平移");
 //        stopSvgAnim();
 
         mIsSvgAnimRunning = true;
@@ -959,6 +1318,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
             mTranslateX = fraction * destX;
             mTranslateY = fraction * destY;
+            markDirty(DIRTY_TRANSFORM);
 
             if (listener != null) {
                 if (!listener.onAnimProgress(fraction)) {
@@ -978,6 +1338,10 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     private void scaleImpl(float scale, long durationMs, AnimListener listener) {
         stopSvgAnim();
 
+        if (scale < 1f) {
+            mRenderer.prepareLodAsync();
+        }
+
         //无动画时长，不做动画，直接显示
         if (durationMs <= 0) {
             scaleWithoutAnim(scale);
@@ -988,19 +1352,11 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
     /** 直接缩放 */
     private void scaleWithoutAnim(float scale) {
-        for (String k : mSvgMap.keySet()) {
-            float[] values = mSvgMap.get(k);
-            float[] oldValues = mOriMap.get(k);
-            if (values == null) {
-                SvgLog.I("发现非法数据");
-                //恢复原有的svg数据集
-                mSvgMap = DeepCopy.svgMap(mOriMap);
-                return ;
-            }
-            for (int i = 0; i < values.length; i++) {
-                values[i] = oldValues[i] * scale;
-            }
+        if (!mRenderer.hasData()) {
+            SvgLog.I("没有svg被绘制，忽略缩放");
+            return ;
         }
+        setSvgDrawScale(scale);
 
         mScale = scale;
 
@@ -1022,28 +1378,18 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             float curScale = (float)animation.getAnimatedValue();
 
             if (!mIsSvgAnimRunning) {
-                SvgLog.I("动画已经结束，停止ValueAnimator");
+                SvgLog.D("动画已经结束，停止ValueAnimator");
                 animation.cancel();
                 return ;
             }
 
-            for (String k : mSvgMap.keySet()) {
-                float[] values = mSvgMap.get(k);
-                if (values == null) {
-                    SvgLog.I("缩放过程中发现错误数值，中断缩放，恢复原有svg");
-                    animation.cancel();
-                    mScale = oldScale;
-                    mSvgMap = DeepCopy.svgMap(mOriMap);
-                    return ;
-                }
-
-                float[] oldValues = mOriMap.get(k);
-                if (oldValues != null) {
-                    for (int i = 0; i < values.length; i++) {
-                        values[i] = oldValues[i] * curScale;
-                    }
-                }
+            if (!mRenderer.hasData()) {
+                SvgLog.I("svg已经被清除，中断缩放");
+                animation.cancel();
+                mScale = oldScale;
+                return ;
             }
+            setSvgDrawScale(curScale);
 
             if (listener != null) {
                 if (!listener.onAnimProgress(animation.getAnimatedFraction())) {
@@ -1060,58 +1406,127 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
     }
 
     /**
-     * 绘制一个Path
-     * @param canvas 目标canvas
-     * @param index path在整个svg中的绘制顺序
-     * @param p 目标path
-     *
-     * @see #onDraw(Canvas)
+     * 使用位图缓存绘制svg。只有路径、颜色、线条或者缩放值的分级变化时才重新绘制位图，
+     * 平移、透明度变化和单纯的重绘都直接绘制位图
+     * @return 不能使用位图缓存时返回false，此时需要直接绘制路径
      */
-    private void drawPath(Canvas canvas, int index, Path p) {
-        int color;
-        switch (mSvgStyle) {
-            case SVG_OUTLINE:
-                color = mOutlineColors.length > index ? mOutlineColors[index] : mOutlineColors[0];
-                drawPathImpl(canvas, index, p, Paint.Style.STROKE, color);
-                break;
-            case SVG_FILL:
-                color = mFillColors.length > index ? mFillColors[index] : mFillColors[0];
-                drawPathImpl(canvas, index, p, Paint.Style.FILL, color);
-                break;
-            case SVG_OUTLINE_AND_FILL:
-                color = mOutlineColors.length > index ? mOutlineColors[index] : mOutlineColors[0];
-                drawPathImpl(canvas, index, p, Paint.Style.STROKE, color);
+    private boolean drawRasterCache(Canvas canvas) {
+        //路径每一帧都在变化时，位图缓存没有意义；绘制监听需要回调每一个path
+        if (!mIsRasterCacheEnabled || mSvgDrawListener != null || mRenderer.isMorphing()
+                || (mSvgAnimationList != null && mSvgAnimationList.size() > 0)) {
+            return false;
+        }
 
-                color = mFillColors.length > index ? mFillColors[index] : mFillColors[0];
-                drawPathImpl(canvas, index, p, Paint.Style.FILL, color);
-                break;
-            default:
-                break;
+        final float scale = getRasterScale(mRenderer.getDrawScale());
+        if (mRasterBitmap == null || mIsRasterDirty || mRasterScale != scale) {
+            if (!rasterize(scale)) {
+                return false;
+            }
         }
+
+        //位图按照分级的缩放值绘制，这里补上和实际缩放值的差别
+        final float ratio = mRenderer.getDrawScale() / scale;
+        canvas.save();
+        if (ratio != 1f) {
+            canvas.scale(ratio, ratio);
+        }
+        mRasterPaint.setAlpha(mIsLayerAlpha ? 255 : mAlpha);
+        canvas.drawBitmap(mRasterBitmap, mRasterLeft, mRasterTop, mRasterPaint);
+        canvas.restore();
+        return true;
+    }
+
+    /** 缩放值向上取到半个2倍程的分级，位图缩小绘制，不会变模糊 */
+    private static float getRasterScale(float scale) {
+        if (scale == 1f) {
+            return 1f;
+        }
+        double level = Math.ceil(Math.log(scale) / Math.log(2d) * 2d);
+        return (float) Math.pow(2d, level / 2d);
     }
 
     /**
-     * 在执行动画时，不为外部提供回调，需要靠动画api传入监听器得到回调
-     * @see #drawPath(Canvas, int, Path)
+     * 按照指定的缩放值把当前的路径集绘制到位图缓存中
+     * @return 位图超过了{@link #RASTER_CACHE_MAX_BYTES}时返回false
      */
-    private void drawPathImpl(Canvas canvas, int index, Path path, Paint.Style style, int color) {
-        mPaint.setStyle(style);
-        mPaint.setColor(color);
-        //setColor()也包含alpha值，因此会覆盖setAlpha()的效果，因此setAlpha()必须在setColor()之后调用
-        mPaint.setAlpha(mAlpha);
+    private boolean rasterize(float scale) {
+        final int count = mRenderer.getPathList().size();
+        mRenderer.getSvgBounds();
+        final RectF bounds = new RectF();
+        mRenderer.unionPathBounds(count, scale, bounds);
+
+        //线条和抗锯齿会超出路径的边界
+        float strokeWidth = mIsNonScalingStroke ? mStokeWidth : mStokeWidth * scale;
+        if (mSvgStyle != SVG_FILL) {
+            bounds.inset(-strokeWidth, -strokeWidth);
+        }
+        bounds.inset(-1f, -1f);
+
+        final int width = (int) Math.ceil(bounds.width());
+        final int height = (int) Math.ceil(bounds.height());
+        if (width <= 0 || height <= 0 || (long) width * height * 4 > RASTER_CACHE_MAX_BYTES) {
+            releaseRasterCache();
+            return false;
+        }
 
-        if (mSvgDrawListener != null) {
-            if (!isSvgAnimRunning()) {
-                mSvgDrawListener.onPathStart(index, mPaint);
-            }
+        Bitmap bitmap = mRasterBitmap;
+        if (bitmap == null || bitmap.getWidth() < width || bitmap.getHeight() < height) {
+            releaseRasterCache();
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mRasterBitmap = bitmap;
+            mRasterCanvas = new Canvas(bitmap);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
         }
 
-        canvas.drawPath(path, mPaint);
+        final Canvas canvas = mRasterCanvas;
+        canvas.save();
+        canvas.translate(-bounds.left, -bounds.top);
+        mRasterScale = scale;
+        mRasterScaleMatrix.setScale(scale, scale);
+        if (scale != 1f) {
+            canvas.concat(mRasterScaleMatrix);
+        }
+        //位图缓存中的svg是不透明的，整体透明度在绘制位图时设置
+        try {
+            updateRendererStyle();
+            mRenderer.drawPaths(canvas, scale, 255, null);
+        } finally {
+            canvas.restore();
+        }
 
-        if (mSvgDrawListener != null) {
-            if (!isSvgAnimRunning()) {
-                mSvgDrawListener.onPathEnd(index);
-            }
+        mRasterLeft = bounds.left;
+        mRasterTop = bounds.top;
+        mIsRasterDirty = false;
+        return true;
+    }
+
+    /** 释放位图缓存 */
+    private void releaseRasterCache() {
+        if (mRasterBitmap != null) {
+            mRasterBitmap.recycle();
+            mRasterBitmap = null;
+            mRasterCanvas = null;
+        }
+        mRasterScale = Float.NaN;
+        mIsRasterDirty = true;
+    }
+
+    /** 设置绘制时的缩放值，路径集和每个path的边界都不需要重新计算，除非细节层次的等级变化了 */
+    private void setSvgDrawScale(float scale) {
+        if (mRenderer.getDrawScale() == scale) {
+            return ;
+        }
+        if (mRenderer.setDrawScale(scale)) {
+            markDirty(DIRTY_GEOMETRY);
+        }
+        markDirty(DIRTY_TRANSFORM);
+    }
+
+    private void markDirty(int flags) {
+        mDirtyFlags |= flags;
+        if ((flags & (DIRTY_GEOMETRY | DIRTY_STYLE)) != 0) {
+            mIsRasterDirty = true;
         }
     }
 
@@ -1128,61 +1543,19 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         }
 
         //处理等级：SVG > Drawable
-        if (mSvgPathList != null && mSvgPathList.size() > 0) {
-            float l = 0f, t = 0f, r = 0f, b = 0f;
-            RectF bounds = new RectF();
-            for (Path p : mSvgPathList) {
-                p.computeBounds(bounds, true);
-                l = bounds.left < l ? bounds.left : l;
-                t = bounds.top < t ? bounds.top : t;
-                r = bounds.right > r ? bounds.right : r;
-                b = bounds.bottom > b ? bounds.bottom : b;
-            }
-
-            //视觉优化：额外加上{@link #mStokeWidth}的大小是因为发现如果刚好占满控件尺寸的话，边缘弧线会超出一点点控件空间
-            //先乘再除，表示精确值取到小数点后一位
-            if (isWidthWrapContent) {
-                getLayoutParams().width = (int) (r - l) + (int) (mStokeWidth * 10) / 10 + Math.max(getPaddingLeft(),getPaddingRight());
-            }
-            if (isHeightWrapContent) {
-                getLayoutParams().height = (int) (b - t) + (int) (mStokeWidth * 10) / 10 + Math.max(getPaddingTop(),getPaddingBottom());
-            }
+        if (mRenderer.hasPathList()) {
+            SvgPathRenderer.applyWrapContentSize(this, isWidthWrapContent, isHeightWrapContent,
+                    mRenderer.measureWidth(mStokeWidth), mRenderer.measureHeight(mStokeWidth));
         } else {
-        }
-
-        if (isWidthWrapContent || isHeightWrapContent) {
             requestLayout();
         }
     }
 
-    /**
-     * 手动实现控件的padding，总是优先满足右移和下移
-     * 如果经过左移，绘制内容到控件左端距离仍然大于右移值，则左移也生效；否则不再偏移;
-     * 如果经过上移，绘制内容到控件顶端距离仍然大于下移值，则上移也生效；否则不再偏移
-     */
-    private void fixPadding(float l, float t, Canvas canvas) {
-        canvas.translate(getPaddingLeft(), getPaddingTop());
-
-        if (l >= getPaddingRight() && getPaddingRight() != 0f) {
-            canvas.translate(-getPaddingRight(), 0f);
-        }
-
-        if (t >= getPaddingBottom() && getPaddingBottom() != 0f) {
-            canvas.translate(0f, -getPaddingBottom());
-        }
-    }
-
     /** 计算得到所有path的边界坐标最值，实现绘制内容强制居中 */
     private void forceCenter(float l, float t, float r, float b, Canvas canvas) {
         //允许强制居中条件：不处于形变动画状态
-        if ((mSvgAnimationList == null || mSvgAnimationList.size() == 0 || !mSvgAnimationList.get(0).isRunning())) {
-            float translateX = ((getWidth() - r) + l) / 2f - l;
-            float translateY = ((getHeight() - b) + t) / 2f - t;
-            mCenterX = translateX;
-            mCenterY = translateY;
-        }
-
-        canvas.translate(mCenterX, mCenterY);
+        boolean isLocked = mSvgAnimationList != null && mSvgAnimationList.size() > 0 && mSvgAnimationList.get(0).isRunning();
+        mRenderer.translateToCenter(canvas, l, t, r, b, getWidth(), getHeight(), isLocked);
     }
 
     /** 恢复外部触摸监听 */
@@ -1201,7 +1574,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         @Override
         public void onAnimationStart(android.animation.Animator animation) {
             super.onAnimationStart(animation);
-            SvgLog.I("svg anim start");
+            SvgLog.D("svg anim start");
             mIsSvgAnimRunning = true;
 
             if (listener != null) {
@@ -1211,7 +1584,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         @Override
         public void onAnimationCancel(android.animation.Animator animation) {
-            SvgLog.I("svg anim cancel");
+            SvgLog.D("svg anim cancel");
             mIsSvgAnimRunning = false;
 
             if (listener != null) {
@@ -1221,7 +1594,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
         @Override
         public void onAnimationEnd(android.animation.Animator animation) {
-            SvgLog.I("anim end");
+            SvgLog.D("anim end");
             mIsSvgAnimRunning = false;
 
             if (listener != null) {
@@ -1379,13 +1752,13 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 return ;
             }
             if (distCompare[0] < SVG_SCALE_START_DISTANCE) {
-                SvgLog.I("初始相对距离较小，不做缩放");
+                SvgLog.D("初始相对距离较小，不做缩放");
                 distCompare[0] = getPointersDistance(event);
                 return ;
             }
 
             if ((mGestureStatus & 0x7) == 0 || shouldBeRestore) {
-                SvgLog.I("本次手势已经被提前终止，可能是超过了缩放范围");
+                SvgLog.D("本次手势已经被提前终止，可能是超过了缩放范围");
                 return ;
             }
 
@@ -1397,7 +1770,10 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             //位移 ：缩放率 = 5000px : 1x
             scaleOnce = (float)(deltaDist / 5000f + mScale);
 
-            SvgLog.I("相对距离增加了" + deltaDist + "px, 当前缩放值：" + scaleOnce + ", 上一次缩放值：" + mScale);
+            //每个触摸事件都会执行，日志关闭时不拼接字符串
+            if (SvgLog.isLoggable(SvgLog.DEBUG)) {
+                SvgLog.D("相对距离增加了" + deltaDist + "px, 当前缩放值：" + scaleOnce + ", 上一次缩放值：" + mScale);
+            }
 
             //禁止超出缩放阈值
             boolean refuseNarrow = scaleOnce < SCALE_MIN_VALUE && (scaleOnce < 1f);
@@ -1416,7 +1792,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 return ;
             }
             if (scaleOnce < SCALE_TOO_SMALL) {
-                SvgLog.I("倍率变化太小，不做缩放");
+                SvgLog.D("倍率变化太小，不做缩放");
                 return ;
             }
 
@@ -1438,7 +1814,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         private void exitSvgScaleGesture() {
             if (shouldBeRestore) {
                 //取消这个功能
-                SvgLog.I("需要还原svg缩放");
+                SvgLog.D("需要还原svg缩放");
                 shouldBeRestore = false;
                 scaleOnce = 1f;
                 svgScale(scaleOnce, 300, null);
@@ -1478,8 +1854,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             @Override
             public void handleMessage(Message msg) {
                 if (msg.what == MSG_START_ANIM_DELAY) {
-                    if (mCenterX == SvgConsts.INVAILE_VALUE || mCenterY == SvgConsts.INVAILE_VALUE) {
-                        SvgLog.I("等待svg第一次绘制完成");
+                    if (!mRenderer.hasCenter()) {
+                        SvgLog.D("等待svg第一次绘制完成");
                         removeMessages(MSG_START_ANIM_DELAY);
                         sendEmptyMessageDelayed(MSG_START_ANIM_DELAY, 20);
                         return ;
@@ -1503,11 +1879,11 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
             int category = anim.getCategory();
             switch (category) {
                 case SvgConsts.ANIM_CLIPPING:
-                    SvgLog.I("执行裁剪动画");
+                    SvgLog.D("执行裁剪动画");
                     startTrimAnim();
                     break;
                 case SvgConsts.ANIM_PATH_MOVING:
-                    SvgLog.I("执行路径运动动画");
+                    SvgLog.D("执行路径运动动画");
                     startPathMovingAnim();
                     break;
             }
@@ -1525,7 +1901,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         private void startTrimAnim() {
             animator.cancel();
 
-            if (mSvgPathList.size() > 1) {
+            if (mRenderer.getPathList().size() > 1) {
                 SvgLog.I("暂不支持复合路径的裁剪动画");
                 return ;
             }
@@ -1534,8 +1910,11 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
             animator.setDuration(anim.getDurationMs());
 
+            //路径集可能是共享的只读列表，动画过程中需要替换其中的路径，先复制一份
+            mRenderer.makePathListWritable();
+
             final PathMeasure pm = new PathMeasure();
-            pm.setPath(mSvgPathList.get(0), false);
+            pm.setPath(mRenderer.getPathList().get(0), false);
             final Path path = new Path();
             float pathLen = pm.getLength();
             if (pathLen == 0f) {
@@ -1558,7 +1937,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                     animation.cancel();
                 }
 
-                if (mSvgPathList == null || mSvgPathList.size() == 0) {
+                if (!mRenderer.hasPathList()) {
                     SvgLog.I("形变动画中发生了异常");
                     refresh();
                     animation.cancel();
@@ -1568,7 +1947,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 path.reset();
                 float curLen = (float)animation.getAnimatedValue();
                 pm.getSegment(startDst, curLen, path, true);
-                mSvgPathList.set(0, path);
+                mRenderer.replacePath(0, path);
+                markDirty(DIRTY_GEOMETRY);
 
                 if (listener != null) {
                     if (!listener.onAnimProgress(fraction)) {
@@ -1608,7 +1988,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
                 @Override
                 public void onAnimationStart(android.animation.Animator animation) {
-                    SvgLog.I("SvgAnimation start.");
+                    SvgLog.D("SvgAnimation start.");
                     isRunning.set(true);
 
                     if (listener != null) {
@@ -1617,7 +1997,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 }
             });
 
-            if (mCenterX == SvgConsts.INVAILE_VALUE || mCenterY == SvgConsts.INVAILE_VALUE) {
+            if (!mRenderer.hasCenter()) {
                 SvgLog.I("发现未完成第一次svg绘制");
                 mainHandler.sendEmptyMessage(MSG_START_ANIM_DELAY);
             } else {
@@ -1629,7 +2009,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
         private void startPathMovingAnim() {
             animator.cancel();
 
-            if (mSvgPathList.size() > 1) {
+            if (mRenderer.getPathList().size() > 1) {
                 SvgLog.I("暂不支持复合路径的裁剪动画");
                 return ;
             }
@@ -1638,8 +2018,11 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
             animator.setDuration(anim.getDurationMs());
 
+            //路径集可能是共享的只读列表，动画过程中需要替换其中的路径，先复制一份
+            mRenderer.makePathListWritable();
+
             final PathMeasure pm = new PathMeasure();
-            pm.setPath(mSvgPathList.get(0), false);
+            pm.setPath(mRenderer.getPathList().get(0), false);
             final Path path = new Path();
             float pathLen = pm.getLength();
             if (pathLen == 0f) {
@@ -1660,7 +2043,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                     animation.cancel();
                 }
 
-                if (mSvgPathList == null || mSvgPathList.size() == 0) {
+                if (!mRenderer.hasPathList()) {
                     SvgLog.I("形变动画中发生了异常");
                     refresh();
                     animation.cancel();
@@ -1670,7 +2053,8 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 path.reset();
                 float curLen = (float)animation.getAnimatedValue();
                 pm.getSegment(curLen - pathLen / 10, curLen, path, true);
-                mSvgPathList.set(0, path);
+                mRenderer.replacePath(0, path);
+                markDirty(DIRTY_GEOMETRY);
 
                 if (listener != null) {
                     if (!listener.onAnimProgress(fraction)) {
@@ -1712,7 +2096,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
 
                 @Override
                 public void onAnimationStart(android.animation.Animator animation) {
-                    SvgLog.I("SvgAnimation start.");
+                    SvgLog.D("SvgAnimation start.");
                     isRunning.set(true);
 
                     if (listener != null) {
@@ -1721,7 +2105,7 @@ public class IdeaSvgView extends View implements ISvgView, ISvgViewExtend {
                 }
             });
 
-            if (mCenterX == SvgConsts.INVAILE_VALUE || mCenterY == SvgConsts.INVAILE_VALUE) {
+            if (!mRenderer.hasCenter()) {
                 SvgLog.I("发现未完成第一次svg绘制");
                 mainHandler.sendEmptyMessage(MSG_START_ANIM_DELAY);
             } else {
@@ -0,0 +1,589 @@
+package com.qxtx.idea.ideasvg.view;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.qxtx.idea.ideasvg.SvgConsts;
+import com.qxtx.idea.ideasvg.listener.SvgDrawListener;
+import com.qxtx.idea.ideasvg.parser.SvgDataParser;
+import com.qxtx.idea.ideasvg.parser.SvgPathBuffer;
+import com.qxtx.idea.ideasvg.parser.SvgPathCache;
+import com.qxtx.idea.ideasvg.parser.SvgPathData;
+import com.qxtx.idea.ideasvg.parser.SvgPathLod;
+import com.qxtx.idea.ideasvg.tools.SvgExecutor;
+import com.qxtx.idea.ideasvg.tools.SvgLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @author QXTX-WIN
+ * @date 2026/10/18 23:50
+ * Description: {@link IdeaSvgView}和{@link IdeaSvgTextureView}共用的svg路径、边界、布局和绘制逻辑。
+ *
+ *  1、持有当前svg的数据和路径集，负责生成路径集（包括变换动画和细节层次）；
+ *  2、计算所有path经过变换和缩放之后的边界，以及居中、padding和wrap_content的尺寸；
+ *  3、按绘制样式绘制所有path，绘制样式由控件在绘制之前通过{@link #setStyle(int, int[], int[], float, boolean)}设置；
+ *
+ *  备注：非线程安全，只能在控件的绘制线程中使用（IdeaSvgView为UI线程，IdeaSvgTextureView为渲染线程）。
+ */
+final class SvgPathRenderer {
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    private final Paint mPaint = new Paint();
+
+    /**
+     * 当前svg的数据。原始数据集不可变，总是规范数据集（见{@link SvgPathData#normalize()}），只引用不复制；
+     * 变换动画写入其中唯一的工作缓冲区。缩放不修改数据，见{@link #mDrawScale}
+     */
+    private final SvgPathBuffer mSvgBuffer = new SvgPathBuffer();
+
+    /**
+     * 和{@link #mSvgBuffer}互相绑定。
+     * 当值数组未被修改时，这里引用的是{@link SvgPathCache}中共享的只读路径集，不能修改列表和其中的Path，
+     * 需要修改时必须先调用{@link #makePathListWritable()}复制一份（写时复制）
+     */
+    private List<Path> mSvgPathList;
+
+    /** 当前变换动画私有的路径集，之后的每一帧直接更新其中的path，见{@link #mMorphPathChanged} */
+    private List<Path> mMorphPathList;
+
+    /** 当前变换动画中每个path是否会变化，起点和终点相同的path不需要重新生成 */
+    private boolean[] mMorphPathChanged;
+
+    /** 是否在缩小显示时使用简化的数据集 */
+    private boolean mIsLodEnabled;
+
+    /** 原始数据集的细节层次，需要时才创建 */
+    private SvgPathLod mLod;
+
+    /** 每个path的变换矩阵，来自{@link com.qxtx.idea.ideasvg.parser.SvgDocument}，为null时表示没有变换 */
+    private Matrix[] mPathMatrices;
+
+    /** 当前绘制时的缩放值，通过画布的矩阵作用在路径上，路径本身不随缩放重新生成 */
+    private float mDrawScale = 1f;
+
+    /** 缩放值为{@link #mDrawScale}的矩阵，缩放值改变时才更新 */
+    private final Matrix mScaleMatrix = new Matrix();
+
+    private final RectF mRectF = new RectF();
+
+    /** 所有path经过变换之后的边界的并集，见{@link #getSvgBounds()} */
+    private final RectF mSvgBounds = new RectF();
+
+    /** {@link #mSvgBounds}对应的路径集，路径集被替换之后需要重新计算 */
+    private List<Path> mBoundsPathList;
+
+    /** 每个path未经缩放和变换的边界，依次为left、top、right、bottom */
+    private float[] mPathBounds;
+
+    /** {@link #mSvgBounds}对应的缩放值 */
+    private float mBoundsScale = Float.NaN;
+
+    /** 路径集中的path被替换了（例如裁剪动画），下一次需要重新计算边界 */
+    private boolean mIsBoundsDirty;
+
+    /** 居中绘制时的平移量，形变动画过程中保持不变 */
+    private float mCenterX = SvgConsts.INVAILE_VALUE, mCenterY = SvgConsts.INVAILE_VALUE;
+
+    /** 绘制样式，见{@link #setStyle(int, int[], int[], float, boolean)} */
+    private int mSvgStyle = IdeaSvgView.SVG_OUTLINE;
+    private int[] mOutlineColors;
+    private int[] mFillColors;
+    private float mStrokeWidth;
+    private boolean mIsNonScalingStroke = true;
+
+    SvgPathRenderer() {
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setAntiAlias(true);
+        mPaint.setDither(true);
+    }
+
+    //---------------- 数据和路径集 ----------------
+
+    boolean hasData() {
+        return mSvgBuffer.hasData();
+    }
+
+    /** 当前的原始数据集，没有数据时为null */
+    SvgPathData getData() {
+        return mSvgBuffer.getData();
+    }
+
+    /**
+     * 设置新的svg数据，之前的路径集和变换动画都被丢弃
+     * @param data 规范数据集
+     * @param preparedPaths 已经根据data生成好的路径集，可以为null
+     * @return 是否直接使用了preparedPaths，否则需要调用{@link #updatePathList()}生成路径集
+     */
+    boolean setData(@NonNull SvgPathData data, @Nullable List<Path> preparedPaths) {
+        mSvgBuffer.setData(data);
+        releaseMorphPaths();
+        mSvgPathList = preparedPaths;
+        return preparedPaths != null;
+    }
+
+    /** 每个path的变换矩阵，由调用者创建，之后不能再修改 */
+    void setPathMatrices(@Nullable Matrix[] matrices) {
+        mPathMatrices = matrices;
+    }
+
+    boolean hasPathMatrices() {
+        return mPathMatrices != null;
+    }
+
+    /** 当前的路径集，可能是共享的只读列表 */
+    List<Path> getPathList() {
+        return mSvgPathList;
+    }
+
+    boolean hasPathList() {
+        return mSvgPathList != null && mSvgPathList.size() > 0;
+    }
+
+    /** 丢弃路径集，保留数据，例如变换动画开始之前 */
+    void clearPathList() {
+        mSvgPathList = null;
+    }
+
+    /** 清除数据、路径集、变换矩阵、细节层次和绘制的缩放值 */
+    void clear() {
+        mSvgBuffer.clear();
+        releaseMorphPaths();
+        mSvgPathList = null;
+        mBoundsPathList = null;
+        mPathMatrices = null;
+        mLod = null;
+        setDrawScale(1f);
+        resetCenter();
+    }
+
+    /**
+     * 根据当前的数据生成路径集。值数组未被修改时，直接借用共享的只读路径集，否则生成私有的路径集；
+     * 缩小显示时，使用对应等级的简化数据集，误差不超过{@link SvgPathLod#DEFAULT_TOLERANCE_PX}像素
+     */
+    void updatePathList() {
+        final SvgPathBuffer buffer = mSvgBuffer;
+        if (!buffer.hasData()) {
+            return ;
+        }
+
+        if (!buffer.isOriginal()) {
+            mSvgPathList = createMorphPathList(buffer);
+        } else if (mIsLodEnabled && mDrawScale < 1f) {
+            mSvgPathList = SvgPathCache.getInstance().get(getLod().getVariant(mDrawScale));
+        } else {
+            mSvgPathList = SvgPathCache.getInstance().get(buffer.getData());
+        }
+
+        if (mSvgPathList == null) {
+            SvgLog.I("无法生成完整的svg路径集");
+        }
+    }
+
+    /** 形变动画需要替换路径集中的path，先复制一份共享的只读路径集 */
+    void makePathListWritable() {
+        mSvgPathList = new ArrayList<>(mSvgPathList);
+    }
+
+    /** 替换路径集中的一个path，必须先调用{@link #makePathListWritable()} */
+    void replacePath(int index, @NonNull Path path) {
+        mSvgPathList.set(index, path);
+        mIsBoundsDirty = true;
+    }
+
+    //---------------- 变换动画 ----------------
+
+    /**
+     * 开始变换动画。以看到的样子为起点，画布上的缩放写入值数组；
+     * path有自己的变换时，缩放作用在变换之后，不能写入值数组，保持画布上的缩放
+     * @param destData 同型的规范数据集
+     * @return 发现异常数据时返回false，此时需要直接显示destData
+     */
+    boolean beginMorph(@NonNull SvgPathData destData) {
+        if (mPathMatrices == null && mDrawScale != 1f) {
+            mSvgBuffer.scale(mDrawScale);
+            setDrawScale(1f);
+        }
+        if (!mSvgBuffer.beginMorph(destData)) {
+            return false;
+        }
+
+        final int[] offsets = SvgDataParser.getSvgPathCoordOffsets(destData);
+        final boolean[] changed = new boolean[offsets.length - 1];
+        for (int i = 0; i < changed.length; i++) {
+            changed[i] = mSvgBuffer.isMorphChanged(offsets[i], offsets[i + 1]);
+        }
+        mMorphPathList = null;
+        mMorphPathChanged = changed;
+        return true;
+    }
+
+    boolean isMorphing() {
+        return mSvgBuffer.isMorphing();
+    }
+
+    /** 按进度更新变换动画的数据，之后需要调用{@link #updatePathList()} */
+    void morph(float fraction) {
+        mSvgBuffer.morph(fraction);
+    }
+
+    /** 变换动画结束，目标数据集直接成为新的原始数据集 */
+    void endMorph() {
+        mSvgBuffer.endMorph();
+        releaseMorphPaths();
+    }
+
+    /** 变换动画被取消，保持取消时的样子 */
+    void cancelMorph() {
+        mSvgBuffer.cancelMorph();
+        releaseMorphPaths();
+    }
+
+    private void releaseMorphPaths() {
+        mMorphPathList = null;
+        mMorphPathChanged = null;
+    }
+
+    /** 变换动画的路径集：第一帧生成私有的路径集，之后的每一帧只重新生成会变化的path */
+    private List<Path> createMorphPathList(SvgPathBuffer buffer) {
+        final List<Path> pathList = mMorphPathList;
+        if (pathList != null && pathList == mSvgPathList
+                && mParser.updateSvgPath(buffer.getData(), buffer.getCoords(), pathList, mMorphPathChanged)) {
+            //路径集没有被替换，但其中的path已经变化了
+            mIsBoundsDirty = true;
+            return pathList;
+        }
+
+        List<Path> created = mParser.createSvgPath(buffer.getData(), buffer.getCoords());
+        mMorphPathList = buffer.isMorphing() ? created : null;
+        return created;
+    }
+
+    //---------------- 缩放和细节层次 ----------------
+
+    float getDrawScale() {
+        return mDrawScale;
+    }
+
+    /**
+     * 设置绘制时的缩放值，路径集和每个path的边界都不需要重新计算
+     * @return 细节层次的等级变化了，需要重新生成路径集
+     */
+    boolean setDrawScale(float scale) {
+        if (mDrawScale == scale) {
+            return false;
+        }
+        boolean isLevelChanged = mIsLodEnabled && SvgPathLod.getLevel(mDrawScale) != SvgPathLod.getLevel(scale);
+        mDrawScale = scale;
+        mScaleMatrix.setScale(scale, scale);
+        return isLevelChanged;
+    }
+
+    boolean isLodEnabled() {
+        return mIsLodEnabled;
+    }
+
+    /** 之后需要重新生成路径集 */
+    void setLodEnabled(boolean enable) {
+        mIsLodEnabled = enable;
+        if (!enable) {
+            mLod = null;
+        }
+    }
+
+    /** 在后台线程预先计算所有等级的简化数据集，避免缩放时在绘制线程中计算 */
+    void prepareLodAsync() {
+        if (!mIsLodEnabled || !mSvgBuffer.hasData()) {
+            return ;
+        }
+
+        try {
+            getLod().prepareAsync(SvgExecutor.get());
+        } catch (RejectedExecutionException e) {
+            SvgLog.I("无法预先计算svg细节层次：" + e.getMessage());
+        }
+    }
+
+    private SvgPathLod getLod() {
+        SvgPathData data = mSvgBuffer.getData();
+        if (mLod == null || mLod.getData() != data) {
+            mLod = new SvgPathLod(data);
+        }
+        return mLod;
+    }
+
+    //---------------- 边界和布局 ----------------
+
+    /**
+     * 获得所有path经过缩放和变换之后的边界的并集。
+     * 只在路径集被替换、其中的path被替换时才遍历路径计算每个path的边界；
+     * 缩放值改变时，直接按缩放值计算，不需要遍历路径
+     */
+    RectF getSvgBounds() {
+        final List<Path> pathList = mSvgPathList;
+        final int count = pathList != null ? pathList.size() : 0;
+        final boolean isPathChanged = pathList != mBoundsPathList || mIsBoundsDirty;
+        if (!isPathChanged && mBoundsScale == mDrawScale) {
+            return mSvgBounds;
+        }
+
+        float[] pathBounds = mPathBounds;
+        final RectF rect = mRectF;
+        if (isPathChanged) {
+            if (pathBounds == null || pathBounds.length < count * 4) {
+                pathBounds = new float[count * 4];
+                mPathBounds = pathBounds;
+            }
+            for (int i = 0; i < count; i++) {
+                pathList.get(i).computeBounds(rect, true);
+                pathBounds[i * 4] = rect.left;
+                pathBounds[i * 4 + 1] = rect.top;
+                pathBounds[i * 4 + 2] = rect.right;
+                pathBounds[i * 4 + 3] = rect.bottom;
+            }
+        }
+
+        final float scale = mDrawScale;
+        unionPathBounds(count, scale, mSvgBounds);
+
+        mBoundsPathList = pathList;
+        mBoundsScale = scale;
+        mIsBoundsDirty = false;
+        return mSvgBounds;
+    }
+
+    /**
+     * 按指定的缩放值计算所有path的边界的并集，每个path的边界必须已经由{@link #getSvgBounds()}计算好了。
+     * 和绘制时一致：先经过path自己的变换，再缩放
+     */
+    void unionPathBounds(int count, float scale, RectF out) {
+        final float[] pathBounds = mPathBounds;
+        final RectF rect = mRectF;
+        out.setEmpty();
+        for (int i = 0; i < count; i++) {
+            rect.set(pathBounds[i * 4], pathBounds[i * 4 + 1], pathBounds[i * 4 + 2], pathBounds[i * 4 + 3]);
+            Matrix matrix = getPathMatrix(i);
+            if (matrix != null) {
+                matrix.mapRect(rect);
+            }
+            rect.set(rect.left * scale, rect.top * scale, rect.right * scale, rect.bottom * scale);
+            if (i == 0) {
+                out.set(rect);
+            } else {
+                out.union(rect);
+            }
+        }
+    }
+
+    /**
+     * wrap_content时svg的宽度，尺寸总是包含原点。
+     * 视觉优化：额外加上线条的宽度，因为刚好占满控件尺寸的话，边缘弧线会超出一点点控件空间；先乘再除，表示精确值取到小数点后一位
+     */
+    int measureWidth(float strokeWidth) {
+        RectF bounds = getSvgBounds();
+        return (int) (Math.max(bounds.right, 0f) - Math.min(bounds.left, 0f)) + (int) (strokeWidth * 10) / 10;
+    }
+
+    /** wrap_content时svg的高度，见{@link #measureWidth(float)} */
+    int measureHeight(float strokeWidth) {
+        RectF bounds = getSvgBounds();
+        return (int) (Math.max(bounds.bottom, 0f) - Math.min(bounds.top, 0f)) + (int) (strokeWidth * 10) / 10;
+    }
+
+    /** 把设置为wrap_content的控件宽高修改为内容的尺寸加上padding，只能在UI线程中调用 */
+    static void applyWrapContentSize(@NonNull View view, boolean isWidthWrapContent, boolean isHeightWrapContent,
+                                     int width, int height) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            return ;
+        }
+
+        if (isWidthWrapContent) {
+            params.width = width + Math.max(view.getPaddingLeft(), view.getPaddingRight());
+        }
+        if (isHeightWrapContent) {
+            params.height = height + Math.max(view.getPaddingTop(), view.getPaddingBottom());
+        }
+        view.requestLayout();
+    }
+
+    /**
+     * 居中绘制，平移量保存下来
+     * @param isLocked 为true时（形变动画过程中）保持上一次的平移量
+     */
+    void translateToCenter(Canvas canvas, float l, float t, float r, float b, int width, int height, boolean isLocked) {
+        if (!isLocked || !hasCenter()) {
+            mCenterX = ((width - r) + l) / 2f - l;
+            mCenterY = ((height - b) + t) / 2f - t;
+        }
+        canvas.translate(mCenterX, mCenterY);
+    }
+
+    /** 是否已经居中绘制过 */
+    boolean hasCenter() {
+        return mCenterX != SvgConsts.INVAILE_VALUE && mCenterY != SvgConsts.INVAILE_VALUE;
+    }
+
+    void resetCenter() {
+        mCenterX = SvgConsts.INVAILE_VALUE;
+        mCenterY = SvgConsts.INVAILE_VALUE;
+    }
+
+    /**
+     * 手动实现控件的padding，总是优先满足右移和下移
+     * 如果经过左移，绘制内容到控件左端距离仍然大于右移值，则左移也生效；否则不再偏移;
+     * 如果经过上移，绘制内容到控件顶端距离仍然大于下移值，则上移也生效；否则不再偏移
+     */
+    static void fixPadding(@NonNull View view, float l, float t, Canvas canvas) {
+        canvas.translate(view.getPaddingLeft(), view.getPaddingTop());
+
+        if (l >= view.getPaddingRight() && view.getPaddingRight() != 0f) {
+            canvas.translate(-view.getPaddingRight(), 0f);
+        }
+
+        if (t >= view.getPaddingBottom() && view.getPaddingBottom() != 0f) {
+            canvas.translate(0f, -view.getPaddingBottom());
+        }
+    }
+
+    /**
+     * 必须为drawable设置bounds才会显示，否则bounds中ltrb全为0
+     * @param style 见{@link IdeaSvgView.DrawableStyle}
+     * @param viewWidth 控件的宽，还没有布局时为0，此时使用drawable自身的尺寸
+     */
+    static void setDrawableBounds(@NonNull Drawable drawable, int style, int viewWidth, int viewHeight) {
+        int drawableW = drawable.getIntrinsicWidth();
+        int drawableH = drawable.getIntrinsicHeight();
+        int vWidth = viewWidth == 0 ? drawableW : viewWidth;
+        int vHeight = viewHeight == 0 ? drawableH : viewHeight;
+        int r = drawableW, b = drawableH;
+        switch (style) {
+            case IdeaSvgView.DRAWABLE_FILL:
+                r = Math.min(drawableW, vWidth);
+                b = Math.min(drawableH, vHeight);
+                break;
+            case IdeaSvgView.DRAWABLE_FIT_XY:
+                r = vWidth;
+                b = vHeight;
+                break;
+            default:
+                break;
+        }
+        drawable.setBounds(0, 0, r, b);
+    }
+
+    //---------------- 绘制 ----------------
+
+    /**
+     * 设置绘制样式，控件在每次绘制之前调用
+     * @param svgStyle 见{@link IdeaSvgView.SvgStyle}
+     * @param outlineColors 线条颜色库，不能为空
+     * @param fillColors 填充颜色库，不能为空
+     */
+    void setStyle(int svgStyle, @NonNull int[] outlineColors, @NonNull int[] fillColors, float strokeWidth,
+                  boolean isNonScalingStroke) {
+        mSvgStyle = svgStyle;
+        mOutlineColors = outlineColors;
+        mFillColors = fillColors;
+        mStrokeWidth = strokeWidth;
+        mIsNonScalingStroke = isNonScalingStroke;
+    }
+
+    /**
+     * 按当前的缩放值绘制所有path，缩放作用在path自己的变换之后，对所有path只需要设置一次
+     * @param alpha svg的透明度，和颜色自身的透明度叠加
+     * @param listener 为null时不回调，例如动画过程中
+     */
+    void draw(Canvas canvas, int alpha, @Nullable SvgDrawListener listener) {
+        if (mDrawScale != 1f) {
+            canvas.concat(mScaleMatrix);
+        }
+        drawPaths(canvas, mDrawScale, alpha, listener);
+    }
+
+    /**
+     * 绘制所有path，画布上已经设置好了缩放
+     * @param canvasScale 画布上的缩放值，线条粗细不随缩放变化时用来抵消画布上的缩放
+     */
+    void drawPaths(Canvas canvas, float canvasScale, int alpha, @Nullable SvgDrawListener listener) {
+        final List<Path> pathList = mSvgPathList;
+        for (int i = 0; i < pathList.size(); i++) {
+            drawPath(canvas, i, pathList.get(i), canvasScale, alpha, listener);
+        }
+    }
+
+    private void drawPath(Canvas canvas, int index, Path p, float canvasScale, int alpha, SvgDrawListener listener) {
+        Matrix matrix = getPathMatrix(index);
+        if (matrix != null) {
+            canvas.save();
+            canvas.concat(matrix);
+        }
+
+        switch (mSvgStyle) {
+            case IdeaSvgView.SVG_OUTLINE:
+                drawPathImpl(canvas, index, p, Paint.Style.STROKE, getColor(mOutlineColors, index), canvasScale, alpha, listener);
+                break;
+            case IdeaSvgView.SVG_FILL:
+                drawPathImpl(canvas, index, p, Paint.Style.FILL, getColor(mFillColors, index), canvasScale, alpha, listener);
+                break;
+            case IdeaSvgView.SVG_OUTLINE_AND_FILL:
+                drawPathImpl(canvas, index, p, Paint.Style.STROKE, getColor(mOutlineColors, index), canvasScale, alpha, listener);
+                drawPathImpl(canvas, index, p, Paint.Style.FILL, getColor(mFillColors, index), canvasScale, alpha, listener);
+                break;
+            default:
+                break;
+        }
+
+        if (matrix != null) {
+            canvas.restore();
+        }
+    }
+
+    private void drawPathImpl(Canvas canvas, int index, Path path, Paint.Style style, int color,
+                              float canvasScale, int alpha, SvgDrawListener listener) {
+        //完全透明的颜色（例如svg文档中的"none"）不需要绘制
+        int colorAlpha = Color.alpha(color);
+        if (colorAlpha == 0 && listener == null) {
+            return ;
+        }
+
+        mPaint.setStyle(style);
+        mPaint.setColor(color);
+        if (style == Paint.Style.STROKE) {
+            mPaint.setStrokeWidth(mIsNonScalingStroke ? mStrokeWidth / canvasScale : mStrokeWidth);
+        }
+        //setColor()也包含alpha值，会覆盖setAlpha()的效果，因此setAlpha()必须在setColor()之后调用
+        mPaint.setAlpha(colorAlpha * alpha / 255);
+
+        if (listener != null) {
+            listener.onPathStart(index, mPaint);
+        }
+
+        canvas.drawPath(path, mPaint);
+
+        if (listener != null) {
+            listener.onPathEnd(index);
+        }
+    }
+
+    /** 获得指定path的变换矩阵，没有变换时返回null */
+    private Matrix getPathMatrix(int index) {
+        return mPathMatrices != null && index < mPathMatrices.length ? mPathMatrices[index] : null;
+    }
+
+    private static int getColor(int[] colors, int index) {
+        return colors.length > index ? colors[index] : colors[0];
+    }
+}
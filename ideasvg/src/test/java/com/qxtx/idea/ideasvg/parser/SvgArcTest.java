@@ -0,0 +1,83 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 椭圆弧转换为三次贝塞尔曲线后的路径结构，以及紧跟在椭圆弧之后的S/T
+ */
+public class SvgArcTest {
+
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void smoothCubicAfterArc_firstControlIsCurrentPoint() {
+        SvgPathData data = parse("M0 0 A5 5 0 0 1 10 0 S 20 10 30 0");
+
+        assertEquals('C', data.getCommand(data.getCommandCount() - 1));
+        assertTail(data, 10f, 0f, 20f, 10f, 30f, 0f);
+    }
+
+    @Test
+    public void relativeSmoothCubicAfterArc_firstControlIsCurrentPoint() {
+        SvgPathData data = parse("M0 0 a5 5 0 0 1 10 0 s 10 10 20 0");
+
+        assertEquals('C', data.getCommand(data.getCommandCount() - 1));
+        assertTail(data, 10f, 0f, 20f, 10f, 30f, 0f);
+    }
+
+    @Test
+    public void smoothQuadAfterArc_controlIsCurrentPoint() {
+        SvgPathData data = parse("M0 0 A5 5 0 0 1 10 0 T 30 0");
+
+        assertEquals('Q', data.getCommand(data.getCommandCount() - 1));
+        assertTail(data, 10f, 0f, 30f, 0f);
+    }
+
+    @Test
+    public void smoothCubicAfterCubic_stillReflects() {
+        SvgPathData data = parse("M0 0 C0 5 10 5 10 0 S 20 10 30 0");
+
+        assertEquals('C', data.getCommand(data.getCommandCount() - 1));
+        assertTail(data, 10f, -5f, 20f, 10f, 30f, 0f);
+    }
+
+    @Test
+    public void arcStructure_independentOfValues() {
+        SvgPathData quarter = parse("M0 0 A10 10 0 0 1 10 10");
+        SvgPathData half = parse("M0 0 A10 10 0 0 1 20 0");
+        SvgPathData large = parse("M0 0 A10 10 0 1 0 10 10");
+        SvgPathData zeroRadius = parse("M0 0 A0 10 0 0 1 10 10");
+        SvgPathData zeroLength = parse("M0 0 A10 10 0 0 1 0 0");
+
+        assertEquals(1 + SvgArc.CUBIC_COUNT, quarter.getCommandCount());
+        for (SvgPathData other : new SvgPathData[] { half, large, zeroRadius, zeroLength }) {
+            assertTrue(quarter.isSameStructure(other));
+            assertEquals(quarter.getCoordCount(), other.getCoordCount());
+        }
+    }
+
+    @Test
+    public void zeroRadiusArc_isStraightLine() {
+        SvgPathData data = parse("M0 0 A0 10 0 0 1 12 6");
+
+        for (int i = 2; i < data.getCoordCount(); i += 2) {
+            assertEquals(data.getCoord(i) / 2f, data.getCoord(i + 1), DELTA);
+        }
+        assertTail(data, 12f, 6f);
+    }
+
+    private static SvgPathData parse(String svg) {
+        SvgPathData data = new SvgDataParser().svgString2Data(svg);
+        assertNotNull(data);
+        return data.normalize();
+    }
+
+    private static void assertTail(SvgPathData data, float... expected) {
+        int offset = data.getCoordCount() - expected.length;
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("coord " + (offset + i), expected[i], data.getCoord(offset + i), DELTA);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二进制数据写出、映射、读回的往返一致性，以及截断、头部损坏、计数错误的数据被拒绝
+ */
+public class SvgBinaryLoaderTest {
+
+    private static final String SVG = "M0,0 L10.5,-3 Q5,5 20,20 C1,2 3,4 5,6 S7,8 9,10 T11,12 H-4 V7.25 z m1,1 l2,2 A5 5 0 0 1 10 0";
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    @Test
+    public void roundTrip_float_sameData() {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        byte[] bytes = SvgBinaryWriter.toByteArray(data, false);
+
+        assertEquals(data, SvgBinaryLoader.fromBuffer(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void roundTrip_quantized_withinStep() {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        SvgPathData loaded = SvgBinaryLoader.fromBuffer(ByteBuffer.wrap(SvgBinaryWriter.toByteArray(data, true)));
+
+        assertNotNull(loaded);
+        assertTrue(data.isSameStructure(loaded));
+        float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+        for (int i = 0; i < data.getCoordCount(); i++) {
+            min = Math.min(min, data.getCoord(i));
+            max = Math.max(max, data.getCoord(i));
+        }
+        float step = (max - min) / SvgBinaryFormat.QUANTIZE_LEVELS;
+        for (int i = 0; i < data.getCoordCount(); i++) {
+            assertEquals(data.getCoord(i), loaded.getCoord(i), step);
+        }
+    }
+
+    @Test
+    public void roundTrip_mappedFile_sameData() throws IOException {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        File file = File.createTempFile("ideasvg", ".isvg");
+        try {
+            SvgBinaryWriter.write(data, file, false);
+            assertEquals(data, SvgBinaryLoader.fromFile(file));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void roundTrip_stream_sameData() throws IOException {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        byte[] bytes = SvgBinaryWriter.toByteArray(data, false);
+
+        assertEquals(data, SvgBinaryLoader.fromStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void fromBuffer_keepsSourcePositionAndOrder() {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        byte[] bytes = SvgBinaryWriter.toByteArray(data, false);
+        ByteBuffer source = ByteBuffer.allocate(bytes.length + 3);
+        source.position(3);
+        source.put(bytes);
+        source.position(3);
+
+        assertEquals(data, SvgBinaryLoader.fromBuffer(source));
+        assertEquals(3, source.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, source.order());
+    }
+
+    @Test
+    public void truncated_rejected() {
+        byte[] bytes = SvgBinaryWriter.toByteArray(mParser.svgString2Data(SVG), false);
+        for (int length = 0; length < bytes.length; length++) {
+            assertNull("length " + length, SvgBinaryLoader.fromBuffer(ByteBuffer.wrap(Arrays.copyOf(bytes, length))));
+        }
+    }
+
+    @Test
+    public void corruptHeader_rejected() {
+        byte[] bytes = SvgBinaryWriter.toByteArray(mParser.svgString2Data(SVG), false);
+
+        assertNull(load(bytes, 0, 0x12345678));
+        assertNull(load(bytes, 4, SvgBinaryFormat.VERSION + 1));
+    }
+
+    @Test
+    public void corruptCounts_rejected() {
+        byte[] bytes = SvgBinaryWriter.toByteArray(mParser.svgString2Data(SVG), false);
+        int commandCount = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(8);
+        int coordCount = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+
+        assertNull(load(bytes, 8, -1));
+        assertNull(load(bytes, 12, -1));
+        assertNull(load(bytes, 8, Integer.MAX_VALUE));
+        assertNull(load(bytes, 8, Integer.MAX_VALUE - 20));
+        assertNull(load(bytes, 12, Integer.MAX_VALUE));
+        //计数和锚点符需要的值个数不一致
+        assertNull(load(bytes, 12, coordCount - 1));
+        assertNull(load(bytes, 8, commandCount - 1));
+    }
+
+    @Test
+    public void illegalCommand_rejected() {
+        byte[] bytes = SvgBinaryWriter.toByteArray(mParser.svgString2Data(SVG), false);
+
+        bytes[SvgBinaryFormat.HEADER_SIZE + 1] = 'x';
+        assertNull(SvgBinaryLoader.fromBuffer(ByteBuffer.wrap(bytes)));
+        bytes[SvgBinaryFormat.HEADER_SIZE + 1] = 'A';
+        assertNull(SvgBinaryLoader.fromBuffer(ByteBuffer.wrap(bytes)));
+    }
+
+    /** 修改一个小端int（版本号为short，也只修改低2个字节）之后加载 */
+    private static SvgPathData load(byte[] bytes, int offset, int value) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        if (offset == 4) {
+            buffer.putShort(offset, (short) value);
+        } else {
+            buffer.putInt(offset, value);
+        }
+        return SvgBinaryLoader.fromBuffer(buffer);
+    }
+}
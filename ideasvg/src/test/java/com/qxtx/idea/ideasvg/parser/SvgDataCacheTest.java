@@ -0,0 +1,51 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 缓存的命中统计只包含get()，peek()不影响统计；容量可以在使用之前设置
+ */
+public class SvgDataCacheTest {
+
+    @Test
+    public void peek_doesNotChangeStats() {
+        SvgDataCache cache = SvgDataCache.getInstance();
+        String svg = "M0,0 L" + System.nanoTime() + ",1z";
+        int hit = cache.hitCount();
+        int miss = cache.missCount();
+
+        assertNull(cache.peek(svg));
+        assertEquals(hit, cache.hitCount());
+        assertEquals(miss, cache.missCount());
+
+        SvgPathData data = cache.get(svg);
+        assertNotNull(data);
+        assertEquals(miss + 1, cache.missCount());
+
+        assertSame(data, cache.peek(svg));
+        assertSame(data, cache.peek(svg));
+        assertEquals(hit, cache.hitCount());
+        assertEquals(miss + 1, cache.missCount());
+
+        assertSame(data, cache.get(svg));
+        assertEquals(hit + 1, cache.hitCount());
+    }
+
+    @Test
+    public void configure_setsMaxSize() {
+        try {
+            SvgDataCache.configure(512 * 1024);
+            assertEquals(512 * 1024, SvgDataCache.getInstance().maxSize());
+        } finally {
+            SvgDataCache.configure(SvgDataCache.DEFAULT_MAX_SIZE_BYTES);
+        }
+        assertEquals(SvgDataCache.DEFAULT_MAX_SIZE_BYTES, SvgDataCache.getInstance().maxSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configure_invalidSize_throws() {
+        SvgDataCache.configure(0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多个线程共享同一个{@link SvgDataParser}实例同时解析，结果必须和单线程解析完全一致
+ */
+public class SvgDataParserConcurrencyTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ROUNDS_PER_THREAD = 200;
+
+    private static final String SVG_HEART = "M0,0 L0,0 L0,0 L0,0 L0,0 L0,0 L0,0 L0,0 c-19.55,0,-38.3,12.68,-45,30 "
+            + "c-6.7,-17.32,-25.47,-30,-45,-30 C-115.43,0,-135,19.32,-135,45 c0,35.3,37.93,62.57,90,115 "
+            + "c52.07,-52.42,90,-79.7,90,-115 C45,19.32,25.43,0,0,0z";
+
+    private static final String SVG_X = "M0,0 L50,50 L100,0 L50,50 L100,100 L50,50 L0,100 L50,50 c0,0,0,0,0,0 "
+            + "c0,0,0,0,0,0 C0,0,0,0,0,0 c0,0,0,0,0,0 c0,0,0,0,0,0 C0,0,0,0,0,0z";
+
+    @Test
+    public void sharedParser_concurrentParse_sameAsSingleThread() throws Exception {
+        final List<String> corpus = createCorpus();
+        final SvgDataParser parser = new SvgDataParser();
+
+        final List<SvgPathData> expected = new ArrayList<>();
+        for (String svg : corpus) {
+            SvgPathData data = parser.svgString2Data(svg);
+            assertNotNull(data);
+            expected.add(data);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREAD_COUNT; t++) {
+                final int seed = t;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        startSignal.await();
+                        Random random = new Random(seed);
+                        int parsed = 0;
+                        for (int r = 0; r < ROUNDS_PER_THREAD; r++) {
+                            int index = random.nextInt(corpus.size());
+                            SvgPathData data = parser.svgString2Data(corpus.get(index));
+                            assertEquals(expected.get(index), data);
+                            parsed++;
+                        }
+                        return parsed;
+                    }
+                }));
+            }
+
+            startSignal.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(THREAD_COUNT * ROUNDS_PER_THREAD, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sharedParser_invalidDataBetweenValidData_doesNotLeakState() {
+        SvgDataParser parser = new SvgDataParser();
+        SvgPathData first = parser.svgString2Data(SVG_HEART);
+
+        assertNull(parser.svgString2Data("M0,0 L1.2x3"));
+        assertNull(parser.svgString2Data("M0,0 L10"));
+
+        SvgPathData second = parser.svgString2Data(SVG_HEART);
+        assertEquals(first, second);
+        assertTrue(first.isSameStructure(parser.svgString2Data(SVG_X)));
+    }
+
+    /** 随机生成不同规模的路径字符串，与演示用的svg一起组成语料 */
+    private static List<String> createCorpus() {
+        List<String> corpus = new ArrayList<>();
+        corpus.add(SVG_HEART);
+        corpus.add(SVG_X);
+
+        Random random = new Random(20261018L);
+        for (int n = 1; n <= 16; n++) {
+            StringBuilder sb = new StringBuilder("M0,0");
+            int segments = n * n * 8;
+            for (int i = 0; i < segments; i++) {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        sb.append(" L").append(random.nextInt(1000) / 10f).append(',').append(-random.nextInt(1000));
+                        break;
+                    case 1:
+                        sb.append(" c").append(random.nextInt(100) / 100f).append(' ').append(-random.nextInt(50)).append(',')
+                                .append(random.nextInt(50)).append(' ').append(random.nextInt(1000) / 100f)
+                                .append(' ').append(random.nextInt(99)).append(',').append(random.nextInt(99));
+                        break;
+                    case 2:
+                        sb.append(" h").append(random.nextInt(30) - 15);
+                        break;
+                    default:
+                        sb.append(" Q1,2 3,4");
+                        break;
+                }
+            }
+            corpus.add(sb.append('z').toString());
+        }
+        return corpus;
+    }
+}
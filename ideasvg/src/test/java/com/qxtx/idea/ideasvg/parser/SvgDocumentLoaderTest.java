@@ -0,0 +1,171 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+/**
+ * 从内联的.svg文档加载{@link SvgDocument}，检查每个path的填充、描边、变换以及"none"的处理。
+ * 加载过程依赖xml解析器、Color和Matrix，因此使用Robolectric运行
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class SvgDocumentLoaderTest {
+
+    private static final String SVG = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+            + "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"24\" height=\"24\" fill=\"#ff0000\">\n"
+            + "  <defs>\n"
+            + "    <linearGradient id=\"grad\"><stop offset=\"0\" stop-color=\"#000\"/></linearGradient>\n"
+            + "    <path d=\"M0,0 L1,1 Z\" fill=\"#00ff00\"/>\n"
+            + "  </defs>\n"
+            + "  <path d=\"M0,0 L10,0 L10,10 Z\"/>\n"
+            + "  <path d=\"M1,1 L2,2 Z\" fill=\"none\" stroke=\"#00f\"/>\n"
+            + "  <g transform=\"translate(5,6)\" opacity=\"0.5\" stroke=\"#00ff00\">\n"
+            + "    <path d=\"m1,1 l2,0 l0,2 z M5,5 L6,6 Z\" transform=\"scale(2)\" fill=\"#000\" style=\"fill:#123456;stroke:none\"/>\n"
+            + "    <path d=\"M0,0 L1,0\" fill=\"rgb(255,0,0)\" stroke-opacity=\"0.5\"/>\n"
+            + "  </g>\n"
+            + "  <clipPath id=\"clip\"><path d=\"M0,0 L2,2 Z\"/></clipPath>\n"
+            + "  <path d=\"M3,3 L4,4 Z\" fill=\"url(#grad)\"/>\n"
+            + "</svg>\n";
+
+    @Test
+    public void load_perPathStyle() {
+        SvgDocument document = load(SVG);
+        assertNotNull(document);
+
+        //<defs>和<clipPath>中的path被跳过，第三个<path>有两个子路径
+        assertEquals(6, document.getPathCount());
+        assertTrue(document.hasStroke());
+        assertTrue(document.hasTransform());
+
+        //继承<svg>的fill，stroke默认为none
+        assertEquals(0xFFFF0000, document.getFillColor(0));
+        assertEquals(Color.TRANSPARENT, document.getStrokeColor(0));
+
+        //fill="none"
+        assertEquals(Color.TRANSPARENT, document.getFillColor(1));
+        assertEquals(0xFF0000FF, document.getStrokeColor(1));
+
+        //style优先于同名属性，<g>的opacity作用于所有子元素，stroke:none覆盖<g>的stroke
+        for (int i = 2; i <= 3; i++) {
+            assertEquals(0x80123456, document.getFillColor(i));
+            assertEquals(Color.TRANSPARENT, document.getStrokeColor(i));
+        }
+
+        //继承<g>的stroke，stroke-opacity和opacity叠加
+        assertEquals(0x80FF0000, document.getFillColor(4));
+        assertEquals(0x4000FF00, document.getStrokeColor(4));
+
+        //无法识别的颜色沿用父元素的颜色
+        assertEquals(0xFFFF0000, document.getFillColor(5));
+        assertEquals(Color.TRANSPARENT, document.getStrokeColor(5));
+    }
+
+    @Test
+    public void load_transformsStackPerPath() {
+        SvgDocument document = load(SVG);
+        assertNotNull(document);
+
+        Matrix[] matrices = document.copyMatrices();
+        assertNotNull(matrices);
+        assertEquals(document.getPathCount(), matrices.length);
+
+        assertNull(matrices[0]);
+        assertNull(matrices[1]);
+        //translate(5,6) scale(2)：先缩放，再平移
+        assertMatrix(matrices[2], 2f, 0f, 5f, 0f, 2f, 6f);
+        assertMatrix(matrices[3], 2f, 0f, 5f, 0f, 2f, 6f);
+        assertMatrix(matrices[4], 1f, 0f, 5f, 0f, 1f, 6f);
+        //离开<g>之后不再有变换
+        assertNull(matrices[5]);
+
+        //复制出来的矩阵修改之后不影响文档
+        matrices[2].reset();
+        assertMatrix(document.copyMatrices()[2], 2f, 0f, 5f, 0f, 2f, 6f);
+    }
+
+    @Test
+    public void load_eachPathStartsAbsolute() {
+        SvgDocument document = load(SVG);
+        assertNotNull(document);
+
+        //第三个<path>以相对起始符m开始，合并之后变成绝对位置的M，坐标不受前一个<path>的末端影响
+        SvgPathData data = document.getPathData();
+        int moveCount = 0;
+        int coordIndex = 0;
+        for (byte command : data.commands) {
+            char anchor = (char) command;
+            if (anchor == 'M' && moveCount++ == 2) {
+                assertEquals(1f, data.coords[coordIndex], 0f);
+                assertEquals(1f, data.coords[coordIndex + 1], 0f);
+            }
+            coordIndex += coordCount(anchor);
+        }
+        assertEquals(6, moveCount);
+    }
+
+    @Test
+    public void load_withoutDrawablePath_returnsNull() {
+        assertNull(load("<svg><defs><path d=\"M0,0 L1,1\"/></defs><path d=\"\"/><g/></svg>"));
+        assertNull(load("<svg><path d=\"M0,0 L1,1\"></svg>"));
+    }
+
+    @Test
+    public void parseColor_none_isTransparent() {
+        assertEquals(Color.TRANSPARENT, SvgDocumentLoader.parseColor("none", Color.BLACK));
+        assertEquals(Color.TRANSPARENT, SvgDocumentLoader.parseColor(" none ", Color.BLACK));
+        assertEquals(0xFF112233, SvgDocumentLoader.parseColor("#123", Color.BLACK));
+        assertEquals(0xFF80FF00, SvgDocumentLoader.parseColor("rgb(50%, 255, 0)", Color.BLACK));
+        assertEquals(Color.BLUE, SvgDocumentLoader.parseColor("currentColor", Color.BLUE));
+        assertEquals(Color.BLUE, SvgDocumentLoader.parseColor("url(#grad)", Color.BLUE));
+    }
+
+    @Test
+    public void parseTransform_invalid_returnsFalse() {
+        Matrix matrix = new Matrix();
+        assertTrue(SvgDocumentLoader.parseTransform("matrix(1,0,0,1,3,4) scale(2,3)", matrix));
+        assertMatrix(matrix, 2f, 0f, 3f, 0f, 3f, 4f);
+
+        assertFalse(SvgDocumentLoader.parseTransform("translate(1,2", new Matrix()));
+        assertFalse(SvgDocumentLoader.parseTransform("matrix(1,2,3)", new Matrix()));
+        assertFalse(SvgDocumentLoader.parseTransform("perspective(1)", new Matrix()));
+    }
+
+    private static SvgDocument load(String svg) {
+        return SvgDocumentLoader.load(new ByteArrayInputStream(svg.getBytes(Charset.forName("UTF-8"))));
+    }
+
+    /** 夹具中只用到了M、L、Z */
+    private static int coordCount(char anchor) {
+        switch (anchor) {
+            case 'M':
+            case 'm':
+            case 'L':
+            case 'l':
+                return 2;
+            case 'Z':
+            case 'z':
+                return 0;
+            default:
+                fail("未预期的锚点符：" + anchor);
+                return 0;
+        }
+    }
+
+    private static void assertMatrix(Matrix matrix, float scaleX, float skewX, float transX,
+                                     float skewY, float scaleY, float transY) {
+        assertNotNull(matrix);
+        float[] values = new float[9];
+        matrix.getValues(values);
+        assertArrayEquals(new float[] {scaleX, skewX, transX, skewY, scaleY, transY, 0f, 0f, 1f}, values, 1e-6f);
+    }
+}
@@ -0,0 +1,135 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 显示、缩放、变换动画只使用一个工作缓冲区，原始数据集只引用不复制
+ */
+public class SvgPathBufferTest {
+
+    private static final String SVG_FROM = "M0,0 L10,0 L10,10 C10,20,0,20,0,10z";
+    private static final String SVG_TO = "M5,5 L20,5 L20,20 C20,30,5,30,5,20z";
+    private static final String SVG_OTHER = "M1,1 L2,2 L3,3 C4,4,5,5,6,6z";
+
+    private final SvgDataParser mParser = new SvgDataParser(true);
+
+    @Test
+    public void show_referencesData_noCopy() {
+        SvgPathData data = mParser.svgString2Data(SVG_FROM);
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(data);
+
+        assertSame(data, buffer.getData());
+        assertTrue(buffer.isOriginal());
+        assertEquals(0, buffer.getCopyCount());
+        assertEquals(0, buffer.getBufferCount());
+    }
+
+    @Test
+    public void scale_writesIntoOneBuffer_noCopy() {
+        SvgPathData data = mParser.svgString2Data(SVG_FROM);
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(data);
+
+        buffer.scale(2f);
+        float[] coords = buffer.getCoords();
+        for (int i = 0; i < data.getCoordCount(); i++) {
+            assertEquals(data.getCoord(i) * 2f, coords[i], 0f);
+        }
+
+        buffer.scale(0.5f);
+        buffer.scale(1f);
+        assertTrue(buffer.isOriginal());
+        buffer.scale(3f);
+        assertSame(coords, buffer.getCoords());
+
+        assertEquals(0, buffer.getCopyCount());
+        assertEquals(1, buffer.getBufferCount());
+    }
+
+    @Test
+    public void morph_fromScaledOriginal_noCopy() {
+        SvgPathData from = mParser.svgString2Data(SVG_FROM);
+        SvgPathData to = mParser.svgString2Data(SVG_TO);
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(from);
+        buffer.scale(2f);
+
+        assertTrue(buffer.beginMorph(to));
+        for (int step = 0; step <= 10; step++) {
+            buffer.morph(step / 10f);
+        }
+        float[] coords = buffer.getCoords();
+        for (int i = 0; i < to.getCoordCount(); i++) {
+            assertEquals(to.getCoord(i), coords[i], 1e-4f);
+        }
+        buffer.endMorph();
+
+        assertSame(to, buffer.getData());
+        assertTrue(buffer.isOriginal());
+        assertEquals(0, buffer.getCopyCount());
+        assertEquals(1, buffer.getBufferCount());
+    }
+
+    @Test
+    public void morph_fromUnfinishedMorph_copiesOnce() {
+        SvgPathData from = mParser.svgString2Data(SVG_FROM);
+        SvgPathData to = mParser.svgString2Data(SVG_TO);
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(from);
+
+        assertTrue(buffer.beginMorph(to));
+        buffer.morph(0.5f);
+        float[] half = buffer.getCoords().clone();
+
+        //反向变换，起点只能备份
+        assertTrue(buffer.beginMorph(from));
+        assertEquals(1, buffer.getCopyCount());
+        assertEquals(2, buffer.getBufferCount());
+
+        buffer.morph(0f);
+        float[] coords = buffer.getCoords();
+        for (int i = 0; i < from.getCoordCount(); i++) {
+            assertEquals(half[i], coords[i], 0f);
+        }
+        buffer.morph(1f);
+        buffer.endMorph();
+
+        assertSame(from, buffer.getData());
+        assertEquals(1, buffer.getCopyCount());
+        assertEquals(1, buffer.getBufferCount());
+    }
+
+    @Test
+    public void morph_cancel_keepsCurrentValues() {
+        SvgPathData from = mParser.svgString2Data(SVG_FROM);
+        SvgPathData to = mParser.svgString2Data(SVG_TO);
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(from);
+
+        assertTrue(buffer.beginMorph(to));
+        buffer.morph(0.25f);
+        float[] quarter = buffer.getCoords().clone();
+        buffer.cancelMorph();
+
+        assertFalse(buffer.isMorphing());
+        assertTrue(buffer.isOriginal());
+        assertEquals(1, buffer.getCopyCount());
+        SvgPathData data = buffer.getData();
+        for (int i = 0; i < data.getCoordCount(); i++) {
+            assertEquals(quarter[i], data.getCoord(i), 0f);
+        }
+    }
+
+    @Test
+    public void morph_differentStructure_rejected() {
+        SvgPathBuffer buffer = new SvgPathBuffer();
+        buffer.setData(mParser.svgString2Data(SVG_FROM));
+
+        assertFalse(buffer.beginMorph(mParser.svgString2Data("M0,0 L1,1z")));
+        assertTrue(buffer.beginMorph(mParser.svgString2Data(SVG_OTHER)));
+        assertEquals(0, buffer.getCopyCount());
+    }
+}
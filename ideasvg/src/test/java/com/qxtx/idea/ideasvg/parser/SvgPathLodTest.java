@@ -0,0 +1,111 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * 缩放值按2的幂分桶，只有跨过桶的边界时才切换等级；同一个等级一直使用同一个简化数据集
+ */
+public class SvgPathLodTest {
+
+    @Test
+    public void getLevel_bucketBoundaries() {
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(1f));
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(3f));
+        assertEquals(0, SvgPathLod.getLevel(Math.nextDown(1f)));
+
+        //[2^-(k+1), 2^-k)使用第k级
+        for (int level = 0; level < SvgPathLod.MAX_LEVEL; level++) {
+            float upper = 1f / (1 << level);
+            float lower = upper * 0.5f;
+            assertEquals(level, SvgPathLod.getLevel(Math.nextDown(upper)));
+            assertEquals(level, SvgPathLod.getLevel(lower));
+            assertEquals(level + 1, SvgPathLod.getLevel(Math.nextDown(lower)));
+        }
+
+        //更小的缩放值都使用最大等级
+        assertEquals(SvgPathLod.MAX_LEVEL, SvgPathLod.getLevel(1e-6f));
+        assertEquals(SvgPathLod.MAX_LEVEL, SvgPathLod.getLevel(Float.MIN_VALUE));
+    }
+
+    @Test
+    public void getLevel_invalidScale_isOriginal() {
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(0f));
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(-0.5f));
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(Float.NaN));
+        assertEquals(SvgPathLod.LEVEL_ORIGINAL, SvgPathLod.getLevel(Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void continuousZoom_changesOnlyAcrossBoundary() {
+        //模拟连续的缩放手势，等级只在跨过2的幂时变化，并且每次只变化一级
+        int changes = 0;
+        float previous = 1f;
+        for (int step = 1; step <= 4000; step++) {
+            float scale = (float) Math.pow(0.999, step);
+            int before = SvgPathLod.getLevel(previous);
+            int after = SvgPathLod.getLevel(scale);
+            if (before != after) {
+                changes++;
+                assertEquals(before + 1, after);
+                float boundary = after == 0 ? 1f : 1f / (1 << after);
+                assertTrue(previous >= boundary && scale < boundary);
+            }
+            previous = scale;
+        }
+        //从1缩小到0.999^4000（约0.018），跨过1、1/2、1/4、1/8、1/16、1/32
+        assertEquals(SvgPathLod.MAX_LEVEL + 1, changes);
+    }
+
+    @Test
+    public void getVariant_sameInstanceWithinLevel() {
+        SvgPathData data = createData();
+        SvgPathLod lod = new SvgPathLod(data);
+
+        assertSame(data, lod.getVariant(1f));
+        assertSame(data, lod.getVariant(2f));
+
+        SvgPathData level1 = lod.getVariant(0.49f);
+        assertSame(level1, lod.getVariant(0.26f));
+        assertSame(level1, lod.getVariant(0.25f));
+        assertNotSame(level1, lod.getVariant(0.24f));
+
+        //越高的等级越简单
+        int last = data.normalize().getCoordCount();
+        for (int level = 0; level <= SvgPathLod.MAX_LEVEL; level++) {
+            int count = lod.getVariant(1f / (2 << level)).getCoordCount();
+            assertTrue(count <= last);
+            last = count;
+        }
+    }
+
+    @Test
+    public void prepare_sameAsLazyVariant() {
+        SvgPathData data = createData();
+        SvgPathLod lazy = new SvgPathLod(data);
+        SvgPathLod prepared = new SvgPathLod(data);
+        prepared.prepare();
+
+        for (int level = 0; level <= SvgPathLod.MAX_LEVEL; level++) {
+            float scale = 1f / (2 << level);
+            assertEquals(lazy.getVariant(scale), prepared.getVariant(scale));
+        }
+    }
+
+    /** 一条密集的折线加一个由短曲线组成的闭合子路径 */
+    private static SvgPathData createData() {
+        StringBuilder svg = new StringBuilder("M0,0");
+        for (int i = 1; i <= 1000; i++) {
+            svg.append(String.format(Locale.US, " L%.2f,%.2f", i * 0.5f, 40f * Math.sin(i * 0.02)));
+        }
+        svg.append(" M0,100");
+        for (int i = 0; i < 50; i++) {
+            svg.append(" q2,3 4,0 c1,-2 3,-2 4,0");
+        }
+        svg.append(" z");
+        return new SvgDataParser().svgString2Data(svg.toString());
+    }
+}
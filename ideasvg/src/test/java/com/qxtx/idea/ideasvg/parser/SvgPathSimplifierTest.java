@@ -0,0 +1,282 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 简化结果不超过容差，只包含M、L、Z，子路径和path个数与原数据集一致
+ */
+public class SvgPathSimplifierTest {
+
+    /** 原路径上的曲线每段采样的点数 */
+    private static final int SAMPLES_PER_CURVE = 64;
+
+    /** float坐标带来的误差 */
+    private static final float EPSILON = 1e-3f;
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    private final SvgPathSimplifier mSimplifier = new SvgPathSimplifier();
+
+    @Test
+    public void densePolyline_withinTolerance() {
+        StringBuilder svg = new StringBuilder("M0,0");
+        for (int i = 1; i <= 2000; i++) {
+            svg.append(String.format(Locale.US, " L%.3f,%.3f", i * 0.1f, 20f * Math.sin(i * 0.01)));
+        }
+        SvgPathData data = mParser.svgString2Data(svg.toString());
+
+        for (float tolerance : new float[] {0.05f, 0.5f, 2f}) {
+            SvgPathData simplified = mSimplifier.simplify(data, tolerance);
+            assertValidStructure(data, simplified);
+            assertTrue(simplified.getCoordCount() < data.getCoordCount() / 4);
+            assertWithinTolerance(data, simplified, tolerance);
+
+            //保留的点都是原折线上的点，首尾两个点不变
+            float[] coords = simplified.coords;
+            assertEquals(0f, coords[0], 0f);
+            assertEquals(0f, coords[1], 0f);
+            assertEquals(data.coords[data.coords.length - 2], coords[coords.length - 2], 0f);
+            assertEquals(data.coords[data.coords.length - 1], coords[coords.length - 1], 0f);
+        }
+    }
+
+    @Test
+    public void curves_withinTolerance() {
+        //两个闭合的子路径加一个未闭合的子路径，由大量短小的曲线组成
+        Random random = new Random(7);
+        StringBuilder svg = new StringBuilder();
+        for (int path = 0; path < 3; path++) {
+            svg.append(String.format(Locale.US, "M%d,%d", path * 100, path * 50));
+            for (int i = 0; i < 100; i++) {
+                svg.append(i % 2 == 0 ? " c" : " q");
+                int argCount = i % 2 == 0 ? 6 : 4;
+                for (int k = 0; k < argCount; k++) {
+                    svg.append(String.format(Locale.US, " %.2f", random.nextFloat() * 6f - 2f));
+                }
+            }
+            if (path < 2) {
+                svg.append(" z");
+            }
+        }
+        SvgPathData data = mParser.svgString2Data(svg.toString());
+
+        for (float tolerance : new float[] {1f, 2f, 4f}) {
+            SvgPathData simplified = mSimplifier.simplify(data, tolerance);
+            assertValidStructure(data, simplified);
+            assertTrue(simplified.getCoordCount() < data.normalize().getCoordCount());
+            assertWithinTolerance(data, simplified, tolerance);
+        }
+    }
+
+    @Test
+    public void curveFoldingBackAlongChord_keepsTip() {
+        //曲线从x=15向左延伸到x=-11左右，再折返到x=20，展开后的所有点都在弦所在的直线上
+        SvgPathData data = mParser.svgString2Data("M0,0 L5,0 L10,0 L15,0 Q-40,0 20,0");
+        SvgPathData simplified = mSimplifier.simplify(data, 1f);
+
+        assertValidStructure(data, simplified);
+        assertWithinTolerance(data, simplified, 1f);
+        assertTrue(simplified.getCoordCount() < data.getCoordCount());
+    }
+
+    @Test
+    public void randomCurves_withinTolerance() {
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            float[] p = new float[8];
+            for (int k = 0; k < p.length; k++) {
+                p[k] = random.nextFloat() * 200f;
+            }
+            String svg = i % 2 == 0
+                    ? String.format(Locale.US, "M%f,%f Q%f,%f %f,%f", p[0], p[1], p[2], p[3], p[4], p[5])
+                    : String.format(Locale.US, "M%f,%f C%f,%f %f,%f %f,%f", p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7]);
+            SvgPathData data = mParser.svgString2Data(svg);
+
+            float tolerance = 0.25f * (1 << (i % 6));
+            SvgPathData simplified = mSimplifier.simplify(data, tolerance);
+            if (isPolyline(simplified)) {
+                assertWithinTolerance(data, simplified, tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void noTolerance_returnsSameData() {
+        SvgPathData data = mParser.svgString2Data("M0,0 L1,1 L2,0 Z");
+        assertSame(data, mSimplifier.simplify(data, 0f));
+        assertSame(data, mSimplifier.simplify(data, -1f));
+    }
+
+    @Test
+    public void largeCurve_notSimpler_returnsNormalized() {
+        //一段大曲线展开之后的坐标比原数据集多，直接使用规范数据集
+        SvgPathData data = mParser.svgString2Data("M0,0 C0,100 100,100 100,0");
+        assertEquals(data.normalize(), mSimplifier.simplify(data, 0.1f));
+    }
+
+    /** 结果只包含M、L、Z，每个子路径以M开始，生成的path个数和原数据集一致 */
+    private static void assertValidStructure(SvgPathData data, SvgPathData simplified) {
+        assertTrue(isPolyline(simplified));
+        byte[] commands = simplified.commands;
+        assertEquals('M', commands[0]);
+        for (int i = 1; i < commands.length; i++) {
+            if (commands[i - 1] == 'Z') {
+                assertEquals('M', commands[i]);
+            }
+        }
+
+        int coordCount = 0;
+        for (byte command : commands) {
+            coordCount += command == 'Z' ? 0 : 2;
+        }
+        assertEquals(coordCount, simplified.getCoordCount());
+
+        assertEquals(SvgDataParser.countSvgPath(data.commands, 0, data.commands.length),
+                SvgDataParser.countSvgPath(commands, 0, commands.length));
+        assertEquals(countClose(data.normalize().commands), countClose(commands));
+    }
+
+    /** 原路径上的每一个采样点，到简化后对应子路径的距离都不超过容差 */
+    private static void assertWithinTolerance(SvgPathData data, SvgPathData simplified, float tolerance) {
+        List<float[]> expected = sample(data.normalize());
+        List<float[]> actual = sample(simplified);
+        assertEquals(expected.size(), actual.size());
+
+        for (int path = 0; path < expected.size(); path++) {
+            float[] points = expected.get(path);
+            float[] polyline = actual.get(path);
+            for (int i = 0; i < points.length; i += 2) {
+                double distance = distanceToPolyline(points[i], points[i + 1], polyline);
+                if (distance > tolerance + EPSILON) {
+                    fail("path " + path + "的点(" + points[i] + "," + points[i + 1] + ")误差为"
+                            + distance + "，容差为" + tolerance);
+                }
+            }
+        }
+    }
+
+    private static boolean isPolyline(SvgPathData data) {
+        for (byte command : data.commands) {
+            if (command != 'M' && command != 'L' && command != 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countClose(byte[] commands) {
+        int count = 0;
+        for (byte command : commands) {
+            if (command == 'Z') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按子路径采样规范数据集，曲线均匀采样，闭合时回到起点
+     * @return 每个子路径的点，x/y交替保存
+     */
+    private static List<float[]> sample(SvgPathData normalized) {
+        List<float[]> paths = new ArrayList<>();
+        FloatList points = new FloatList();
+        float[] v = normalized.coords;
+        float x = 0f, y = 0f, startX = 0f, startY = 0f;
+        int i = 0;
+        for (byte command : normalized.commands) {
+            switch (command) {
+                case 'M':
+                    if (points.size > 0) {
+                        paths.add(points.toArray());
+                        points = new FloatList();
+                    }
+                    x = startX = v[i];
+                    y = startY = v[i + 1];
+                    points.add(x, y);
+                    i += 2;
+                    break;
+                case 'L':
+                    x = v[i];
+                    y = v[i + 1];
+                    points.add(x, y);
+                    i += 2;
+                    break;
+                case 'Q':
+                    for (int k = 1; k <= SAMPLES_PER_CURVE; k++) {
+                        double t = (double) k / SAMPLES_PER_CURVE, mt = 1d - t;
+                        points.add((float) (mt * mt * x + 2d * mt * t * v[i] + t * t * v[i + 2]),
+                                (float) (mt * mt * y + 2d * mt * t * v[i + 1] + t * t * v[i + 3]));
+                    }
+                    x = v[i + 2];
+                    y = v[i + 3];
+                    i += 4;
+                    break;
+                case 'C':
+                    for (int k = 1; k <= SAMPLES_PER_CURVE; k++) {
+                        double t = (double) k / SAMPLES_PER_CURVE, mt = 1d - t;
+                        double a = mt * mt * mt, b = 3d * mt * mt * t, c = 3d * mt * t * t, d = t * t * t;
+                        points.add((float) (a * x + b * v[i] + c * v[i + 2] + d * v[i + 4]),
+                                (float) (a * y + b * v[i + 1] + c * v[i + 3] + d * v[i + 5]));
+                    }
+                    x = v[i + 4];
+                    y = v[i + 5];
+                    i += 6;
+                    break;
+                case 'Z':
+                    points.add(startX, startY);
+                    paths.add(points.toArray());
+                    points = new FloatList();
+                    break;
+                default:
+                    fail("规范数据集中不应该出现的锚点符：" + (char) command);
+                    break;
+            }
+        }
+        if (points.size > 0) {
+            paths.add(points.toArray());
+        }
+        return paths;
+    }
+
+    private static double distanceToPolyline(float px, float py, float[] polyline) {
+        if (polyline.length == 2) {
+            return Math.hypot(px - polyline[0], py - polyline[1]);
+        }
+
+        double min = Double.MAX_VALUE;
+        for (int i = 2; i < polyline.length; i += 2) {
+            double ax = polyline[i - 2], ay = polyline[i - 1];
+            double dx = polyline[i] - ax, dy = polyline[i + 1] - ay;
+            double lengthSq = dx * dx + dy * dy;
+            double t = lengthSq == 0d ? 0d : Math.max(0d, Math.min(1d, ((px - ax) * dx + (py - ay) * dy) / lengthSq));
+            min = Math.min(min, Math.hypot(px - ax - t * dx, py - ay - t * dy));
+        }
+        return min;
+    }
+
+    private static final class FloatList {
+        float[] values = new float[64];
+        int size;
+
+        void add(float x, float y) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length << 1);
+            }
+            values[size++] = x;
+            values[size++] = y;
+        }
+
+        float[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
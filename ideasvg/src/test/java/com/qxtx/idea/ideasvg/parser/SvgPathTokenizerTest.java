@@ -0,0 +1,209 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分词器的数值写法、省略分隔符、椭圆弧标志位和流式读取，数值必须和{@link Float#parseFloat(String)}完全一致
+ */
+public class SvgPathTokenizerTest {
+
+    private final SvgPathTokenizer mTokenizer = new SvgPathTokenizer();
+
+    @Test
+    public void numbers_sameAsParseFloat() {
+        String[] numbers = {
+                "0", "-0", "1", "+1", "-1", "1.", ".5", "-.5", "+.5", "0.1", "1e-3", "1E3", "2.5E+2", "-2.5e-2",
+                "123456789", "3.4028235e38", "1.4e-45", "16777217", "0.30000001192092896",
+                "1.00000017881393432617187499", "1.000000178813934326171875", "123456789012345678901234567890",
+                "0.000000000000000000000000000000000000011754943508222875", "9.999999e-5", "100000000000000000001e-20"
+        };
+        for (String number : numbers) {
+            mTokenizer.reset(number);
+            assertEquals(number, SvgPathTokenizer.TOKEN_NUMBER, mTokenizer.next());
+            assertFloatEquals(number, Float.parseFloat(number), mTokenizer.getNumber());
+            assertEquals(number, SvgPathTokenizer.TOKEN_END, mTokenizer.next());
+        }
+    }
+
+    @Test
+    public void randomNumbers_sameAsParseFloat() {
+        Random random = new Random(20261018L);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 20000; n++) {
+            sb.setLength(0);
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            int intDigits = random.nextInt(8);
+            for (int i = 0; i < intDigits; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            sb.append('.');
+            int fracDigits = 1 + random.nextInt(12);
+            for (int i = 0; i < fracDigits; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append('e').append(random.nextInt(60) - 30);
+            }
+
+            String number = sb.toString();
+            mTokenizer.reset(number);
+            assertEquals(number, SvgPathTokenizer.TOKEN_NUMBER, mTokenizer.next());
+            assertFloatEquals(number, Float.parseFloat(number), mTokenizer.getNumber());
+        }
+    }
+
+    @Test
+    public void implicitSeparators() {
+        assertTokens("10-5", "10", "-5");
+        assertTokens(".5.5", ".5", ".5");
+        assertTokens("1e-3-2", "1e-3", "-2");
+        assertTokens("+1+2", "1", "2");
+        assertTokens("M1.5.5L-.5-.5", "M", "1.5", ".5", "L", "-.5", "-.5");
+    }
+
+    @Test
+    public void invalidNumbers_reportErrorIndex() {
+        mTokenizer.reset("M1 1e");
+        assertEquals(SvgPathTokenizer.TOKEN_ANCHOR, mTokenizer.next());
+        assertEquals(SvgPathTokenizer.TOKEN_NUMBER, mTokenizer.next());
+        assertEquals(SvgPathTokenizer.TOKEN_ERROR, mTokenizer.next());
+        assertEquals(5, mTokenizer.getErrorIndex());
+
+        mTokenizer.reset("1 -.");
+        assertEquals(SvgPathTokenizer.TOKEN_NUMBER, mTokenizer.next());
+        assertEquals(SvgPathTokenizer.TOKEN_ERROR, mTokenizer.next());
+        assertEquals(4, mTokenizer.getErrorIndex());
+
+        mTokenizer.reset("1x");
+        assertEquals(SvgPathTokenizer.TOKEN_ERROR, mTokenizer.next());
+        assertEquals(1, mTokenizer.getErrorIndex());
+    }
+
+    @Test
+    public void compactArcFlags() {
+        mTokenizer.reset("a5,5 0 1050,0");
+        assertEquals(SvgPathTokenizer.TOKEN_ANCHOR, mTokenizer.next());
+        assertEquals('a', mTokenizer.getAnchor());
+        assertNumber(5f, mTokenizer.next());
+        assertNumber(5f, mTokenizer.next());
+        assertNumber(0f, mTokenizer.next());
+        assertNumber(1f, mTokenizer.nextFlag());
+        assertNumber(0f, mTokenizer.nextFlag());
+        assertNumber(50f, mTokenizer.next());
+        assertNumber(0f, mTokenizer.next());
+        assertEquals(SvgPathTokenizer.TOKEN_END, mTokenizer.next());
+
+        mTokenizer.reset("2");
+        assertEquals(SvgPathTokenizer.TOKEN_ERROR, mTokenizer.nextFlag());
+
+        SvgPathData data = new SvgDataParser().svgString2Data("M0,0 a5,5 0 1050,0");
+        assertNotNull(data);
+        assertEquals(data, new SvgDataParser().svgString2Data("M0,0 a5,5 0 1 0 50,0"));
+    }
+
+    @Test
+    public void streamBufferBoundary_sameAsDirectScan() throws IOException {
+        //数值跨过8192个字符的缓冲区边界，并且分隔符、小数点、指数分别落在边界上
+        for (int padding = 0; padding < 24; padding++) {
+            StringBuilder sb = new StringBuilder("M");
+            for (int i = 0; i < 8192 - 8 + padding; i++) {
+                sb.append(' ');
+            }
+            Random random = new Random(padding);
+            for (int i = 0; i < 4000; i++) {
+                sb.append(i % 3 == 0 ? ' ' : ',').append(random.nextInt(20000) - 10000).append('.')
+                        .append(random.nextInt(1000)).append(i % 7 == 0 ? "e-2" : "");
+                if (i % 50 == 0) {
+                    sb.append('L');
+                }
+            }
+            String svg = sb.toString();
+
+            List<String> expected = collectTokens(svg);
+            mTokenizer.reset(new StringReader(svg));
+            assertEquals("padding " + padding, expected, collectTokens());
+            mTokenizer.reset(new ChunkedReader(svg, 7 + padding));
+            assertEquals("padding " + padding, expected, collectTokens());
+        }
+    }
+
+    private List<String> collectTokens(String svg) {
+        mTokenizer.reset(svg);
+        return collectTokens();
+    }
+
+    private List<String> collectTokens() {
+        List<String> tokens = new ArrayList<>();
+        int token;
+        while ((token = mTokenizer.next()) != SvgPathTokenizer.TOKEN_END) {
+            assertNotEquals(SvgPathTokenizer.TOKEN_ERROR, token);
+            tokens.add(token == SvgPathTokenizer.TOKEN_ANCHOR
+                    ? String.valueOf(mTokenizer.getAnchor()) : Float.toString(mTokenizer.getNumber()));
+        }
+        assertNull(mTokenizer.getIOException());
+        return tokens;
+    }
+
+    private void assertTokens(String svg, String... expected) {
+        mTokenizer.reset(svg);
+        for (String token : expected) {
+            int type = mTokenizer.next();
+            if (Character.isLetter(token.charAt(0))) {
+                assertEquals(svg, SvgPathTokenizer.TOKEN_ANCHOR, type);
+                assertEquals(svg, token.charAt(0), mTokenizer.getAnchor());
+            } else {
+                assertEquals(svg, SvgPathTokenizer.TOKEN_NUMBER, type);
+                assertFloatEquals(svg, Float.parseFloat(token), mTokenizer.getNumber());
+            }
+        }
+        assertEquals(svg, SvgPathTokenizer.TOKEN_END, mTokenizer.next());
+    }
+
+    private void assertNumber(float expected, int token) {
+        assertEquals(SvgPathTokenizer.TOKEN_NUMBER, token);
+        assertFloatEquals("", expected, mTokenizer.getNumber());
+    }
+
+    /** 按位比较，区分-0和0 */
+    private static void assertFloatEquals(String message, float expected, float actual) {
+        assertEquals(message, Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+    }
+
+    /** 每次最多读取指定个数的字符，模拟网络、文件等分块到达的字符流 */
+    private static final class ChunkedReader extends Reader {
+        private final String mData;
+        private final int mChunk;
+        private int mPos;
+
+        ChunkedReader(String data, int chunk) {
+            mData = data;
+            mChunk = chunk;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (mPos >= mData.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(len, mChunk), mData.length() - mPos);
+            mData.getChars(mPos, mPos + count, cbuf, off);
+            mPos += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
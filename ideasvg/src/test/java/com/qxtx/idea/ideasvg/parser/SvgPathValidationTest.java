@@ -0,0 +1,115 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * 语法校验的计数、错误位置，以及复用结果对象时校验过程不创建对象
+ */
+public class SvgPathValidationTest {
+
+    private static final String SVG_VALID = "M0,0 L10,10 20,20 H5 A5 5 0 0 1 10 0 Z m1 1 l2 2";
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    @Test
+    public void valid_countsAsWritten() {
+        SvgPathValidation result = mParser.validate(SVG_VALID);
+
+        assertTrue(result.isValid());
+        assertEquals(-1, result.getErrorOffset());
+        assertEquals(2, result.getSubPathCount());
+        //省略的L算作一段，椭圆弧按一段计算
+        assertEquals(8, result.getSegmentCount());
+        assertEquals(2 + 2 + 2 + 1 + 7 + 2 + 2, result.getCoordCount());
+        assertEquals(1, result.getArcCount());
+    }
+
+    @Test
+    public void valid_capacityCoversParsedData() {
+        SvgPathValidation result = mParser.validate(SVG_VALID);
+        SvgPathData data = mParser.svgChars2Data(SVG_VALID, result);
+
+        assertNotNull(data);
+        assertEquals(result.getCommandCapacity(), data.getCommandCount());
+        assertTrue(result.getCoordCapacity() >= data.getCoordCount());
+        assertEquals(data, mParser.svgString2Data(SVG_VALID));
+    }
+
+    @Test
+    public void illegalCharacter_reportsOffset() {
+        String svg = "M0,0 L10,1x0";
+        SvgPathValidation result = mParser.validate(svg);
+
+        assertFalse(result.isValid());
+        assertEquals(svg.indexOf('x'), result.getErrorOffset());
+        assertEquals(0, result.getSegmentCount());
+        assertEquals(0, result.getCoordCount());
+    }
+
+    @Test
+    public void tooFewArguments_reportsOffset() {
+        //参数不足时，错误位置是缺少值的地方：下一个锚点符或者字符串末端
+        String svg = "M0,0 C1,2,3 L4,5";
+        SvgPathValidation result = mParser.validate(svg);
+        assertFalse(result.isValid());
+        assertEquals(svg.indexOf('L'), result.getErrorOffset());
+
+        svg = "M0,0 L10";
+        assertFalse(mParser.validate(svg, result));
+        assertEquals(svg.length(), result.getErrorOffset());
+    }
+
+    @Test
+    public void notStartWithMove_reportsOffset() {
+        assertEquals(0, mParser.validate("L0,0").getErrorOffset());
+        assertEquals(2, mParser.validate("  L0,0").getErrorOffset());
+        assertEquals(0, mParser.validate("").getErrorOffset());
+    }
+
+    @Test
+    public void reusedResult_errorClearsCounts() {
+        SvgPathValidation result = new SvgPathValidation();
+        assertTrue(mParser.validate(SVG_VALID, result));
+        assertFalse(mParser.validate("M0,0 L1", result));
+
+        assertFalse(result.isValid());
+        assertEquals(0, result.getSubPathCount());
+        assertEquals(0, result.getArcCount());
+
+        assertTrue(mParser.validate(SVG_VALID, result));
+        assertEquals(-1, result.getErrorOffset());
+    }
+
+    @Test
+    public void reusedResult_allocatesNothing() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+        final SvgPathValidation result = new SvgPathValidation();
+        final StringBuilder invalid = new StringBuilder("M0,0 L1.5x");
+        //预热：线程私有的解析上下文、类加载和JIT
+        for (int i = 0; i < 2000; i++) {
+            mParser.validate(SVG_VALID, result);
+            mParser.validate(invalid, result);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            mParser.validate(SVG_VALID, result);
+            mParser.validate(invalid, result);
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        //允许测量本身的少量误差，远小于每次校验创建一个对象的量
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
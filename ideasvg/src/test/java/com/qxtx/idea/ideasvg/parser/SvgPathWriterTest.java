@@ -0,0 +1,100 @@
+package com.qxtx.idea.ideasvg.parser;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数据集写成字符串再解析回来（data -> string -> svgString2Data）的往返一致性，包括相对坐标和小数位数
+ */
+public class SvgPathWriterTest {
+
+    /** 所有数值在3位小数内都是精确的 */
+    private static final String SVG = "M0,0 L10.5,-3 Q5,5 20,20 C1,2 3,4 5,6 S7,8 9,10 T11,12 H-4 V7.25 z "
+            + "m1,1 l2,2 c.5,-.5 .25,.125 -1,0 s1,1 2,2 q1,2 3,4 t5,6 h-.5 v.75 Z";
+
+    private final SvgDataParser mParser = new SvgDataParser();
+
+    @Test
+    public void absolute_roundTrip_equals() {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        String written = new SvgPathWriter().write(data);
+
+        assertEquals(data, mParser.svgString2Data(written));
+        assertEquals(written, mParser.svgData2String(data));
+    }
+
+    @Test
+    public void absolute_compactOutput() {
+        assertEquals("M0,0L10.5,0,10.5,20Z", write("M0,0 L10.5,0 L10.5,20 Z", new SvgPathWriter()));
+        assertEquals("M0,0L.5-.5.25.5", write("M0,0 L0.5,-0.5 L0.25,0.5", new SvgPathWriter()));
+    }
+
+    @Test
+    public void relative_roundTrip_sameNormalizedData() {
+        SvgPathData data = mParser.svgString2Data(SVG);
+        String written = new SvgPathWriter().setRelative(true).write(data);
+        SvgPathData parsed = mParser.svgString2Data(written);
+
+        assertNotNull(parsed);
+        assertCoordsEqual(data.normalize(), parsed.normalize(), 1e-4f);
+        assertEquals("M0,0l10.5,0,0,20z", write("M0,0 L10.5,0 L10.5,20 Z", new SvgPathWriter().setRelative(true)));
+    }
+
+    @Test
+    public void relative_errorDoesNotAccumulate() {
+        //每一段都有舍入误差，末端坐标仍然只差一次舍入
+        StringBuilder sb = new StringBuilder("M0,0");
+        for (int i = 1; i <= 2000; i++) {
+            sb.append(" L").append(i / 3f).append(',').append(-i / 7f);
+        }
+        SvgPathData data = mParser.svgString2Data(sb.toString());
+        SvgPathData parsed = mParser.svgString2Data(new SvgPathWriter().setRelative(true).write(data));
+
+        assertNotNull(parsed);
+        assertCoordsEqual(data.normalize(), parsed.normalize(), 0.0005f + 1e-4f);
+    }
+
+    @Test
+    public void precision_roundsToDigits() {
+        Random random = new Random(20261018L);
+        StringBuilder sb = new StringBuilder("M0,0");
+        for (int i = 0; i < 500; i++) {
+            sb.append(" L").append((random.nextFloat() - 0.5f) * 200f).append(',').append((random.nextFloat() - 0.5f) * 200f);
+        }
+        SvgPathData data = mParser.svgString2Data(sb.toString());
+
+        for (int digits = 0; digits <= 4; digits++) {
+            SvgPathWriter writer = new SvgPathWriter().setPrecision(digits);
+            assertEquals(digits, writer.getPrecision());
+            String written = writer.write(data);
+            float tolerance = 0.5f / (float) Math.pow(10, digits) + 1e-4f;
+
+            SvgPathData parsed = mParser.svgString2Data(written);
+            assertNotNull(parsed);
+            assertCoordsEqual(data, parsed, tolerance);
+
+            SvgPathData relative = mParser.svgString2Data(writer.setRelative(true).write(data));
+            assertNotNull(relative);
+            assertCoordsEqual(data.normalize(), relative.normalize(), tolerance);
+        }
+
+        assertEquals("M0,0L0,1", write("M0,0 L0.26,0.5", new SvgPathWriter().setPrecision(0)));
+        assertEquals("M0,0L.3.5", write("M0,0 L0.26,0.5", new SvgPathWriter().setPrecision(1)));
+        assertEquals(SvgPathWriter.MAX_PRECISION, new SvgPathWriter().setPrecision(100).getPrecision());
+    }
+
+    private String write(String svg, SvgPathWriter writer) {
+        return writer.write(mParser.svgString2Data(svg));
+    }
+
+    private static void assertCoordsEqual(SvgPathData expected, SvgPathData actual, float tolerance) {
+        assertTrue(expected.isSameStructure(actual));
+        assertEquals(expected.getCoordCount(), actual.getCoordCount());
+        for (int i = 0; i < expected.getCoordCount(); i++) {
+            assertEquals("coord " + i, expected.getCoord(i), actual.getCoord(i), tolerance);
+        }
+    }
+}